@@ -0,0 +1,65 @@
+package skatepark.shoveit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import skatepark.shoveit.sort.ISort;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Every benchmark first restores the unsorted input into a preallocated work array, so the only allocations
+ * reported by the GC profiler are the ones made by the algorithm. {@link #copyOnly()} measures that restore cost.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public abstract class AbstractSortBenchmark {
+
+    private ISort sort;
+    private Integer[] source;
+    private Integer[] work;
+    private int[] intSource;
+    private int[] intWork;
+
+    protected void setUp(String algorithm, int size, Shape shape) {
+        sort = Algorithms.create(algorithm);
+        intSource = shape.generate(size, new Random(size));
+        intWork = new int[size];
+        source = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            source[i] = intSource[i];
+        }
+        work = new Integer[size];
+    }
+
+    @Benchmark
+    public Integer[] copyOnly() {
+        System.arraycopy(source, 0, work, 0, source.length);
+        return work;
+    }
+
+    @Benchmark
+    public Integer[] sortObjects() {
+        System.arraycopy(source, 0, work, 0, source.length);
+        sort.sort(work);
+        return work;
+    }
+
+    @Benchmark
+    public int[] sortInts() {
+        System.arraycopy(intSource, 0, intWork, 0, intSource.length);
+        sort.sort(intWork);
+        return intWork;
+    }
+}
@@ -0,0 +1,35 @@
+package skatepark.shoveit.benchmark;
+
+import skatepark.shoveit.sort.BubbleSort;
+import skatepark.shoveit.sort.ISort;
+import skatepark.shoveit.sort.InsertionSort;
+import skatepark.shoveit.sort.MergeSort;
+import skatepark.shoveit.sort.SelectionSort;
+import skatepark.shoveit.sort.TimSort;
+
+import java.util.concurrent.ForkJoinPool;
+
+final class Algorithms {
+
+    private Algorithms() {
+    }
+
+    static ISort create(String name) {
+        switch (name) {
+            case "BubbleSort":
+                return new BubbleSort();
+            case "InsertionSort":
+                return new InsertionSort();
+            case "SelectionSort":
+                return new SelectionSort();
+            case "MergeSort":
+                return new MergeSort();
+            case "ParallelMergeSort":
+                return new MergeSort(ForkJoinPool.commonPool());
+            case "TimSort":
+                return new TimSort();
+            default:
+                throw new IllegalArgumentException("unknown algorithm: " + name);
+        }
+    }
+}
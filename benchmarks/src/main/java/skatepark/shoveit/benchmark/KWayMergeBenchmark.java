@@ -0,0 +1,65 @@
+package skatepark.shoveit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import skatepark.shoveit.sort.KWayMerge;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Merges {@code shards} sorted arrays of random {@code int} into one, sequentially and in parallel, against sorting
+ * their concatenation.
+ */
+@State(Scope.Thread)
+public class KWayMergeBenchmark {
+
+    @Param({"4", "64"})
+    private int shards;
+
+    @Param({"1000000"})
+    private int size;
+
+    private final KWayMerge sequential = new KWayMerge();
+    private final KWayMerge parallel = new KWayMerge(ForkJoinPool.commonPool());
+    private int[][] inputs;
+    private int[] output;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(size);
+        inputs = new int[shards][];
+        for (int i = 0; i < shards; i++) {
+            inputs[i] = random.ints(size / shards).sorted().toArray();
+        }
+        output = new int[size / shards * shards];
+    }
+
+    @Benchmark
+    public int[] merge() {
+        sequential.merge(inputs, output, 0);
+        return output;
+    }
+
+    @Benchmark
+    public int[] parallelMerge() {
+        parallel.merge(inputs, output, 0);
+        return output;
+    }
+
+    @Benchmark
+    public int[] concatenateAndSort() {
+        int offset = 0;
+        for (int[] input : inputs) {
+            System.arraycopy(input, 0, output, offset, input.length);
+            offset += input.length;
+        }
+        Arrays.sort(output);
+        return output;
+    }
+}
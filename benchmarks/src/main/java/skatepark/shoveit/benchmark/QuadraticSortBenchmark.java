@@ -0,0 +1,28 @@
+package skatepark.shoveit.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * O(n^2) algorithms. Sizes stop at 10^4, past that a single invocation takes longer than a measurement iteration.
+ */
+@State(Scope.Thread)
+public class QuadraticSortBenchmark extends AbstractSortBenchmark {
+
+    @Param({"BubbleSort", "InsertionSort", "SelectionSort"})
+    private String algorithm;
+
+    @Param({"10", "100", "1000", "10000"})
+    private int size;
+
+    @Param
+    private Shape shape;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        setUp(algorithm, size, shape);
+    }
+}
@@ -0,0 +1,66 @@
+package skatepark.shoveit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import skatepark.shoveit.misc.RadixConverter;
+
+import java.util.Random;
+
+/**
+ * {@code RadixConverter} against {@link Long#toString(long, int)} and {@link Long#parseLong(String, int)}, on random
+ * values of every magnitude.
+ */
+@State(Scope.Thread)
+public class RadixBenchmark {
+
+    private static final int COUNT = 1 << 12;
+
+    @Param({"2", "10", "16", "36"})
+    private int radix;
+
+    private RadixConverter converter;
+    private long values[];
+    private String texts[];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        converter = RadixConverter.of(radix);
+        Random random = new Random(42);
+        values = new long[COUNT];
+        texts = new String[COUNT];
+        for (int i = 0; i < COUNT; i++) {
+            values[i] = random.nextLong() >> random.nextInt(64);
+            texts[i] = Long.toString(values[i], radix);
+        }
+    }
+
+    @Benchmark
+    public String toStringJdk() {
+        return Long.toString(values[next()], radix);
+    }
+
+    @Benchmark
+    public String toStringConverter() {
+        return converter.toString(values[next()]);
+    }
+
+    @Benchmark
+    public long parseJdk() {
+        return Long.parseLong(texts[next()], radix);
+    }
+
+    @Benchmark
+    public long parseConverter() {
+        return converter.parseLong(texts[next()]);
+    }
+
+    private int next() {
+        next = (next + 1) & (COUNT - 1);
+        return next;
+    }
+}
@@ -0,0 +1,85 @@
+package skatepark.shoveit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import skatepark.shoveit.sort.RadixSort;
+import skatepark.shoveit.sort.TimSort;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * {@code RadixSort} against {@code TimSort} and {@code Arrays.sort}, for {@code int} and for strings sharing a
+ * prefix. Inputs are restored into preallocated arrays, as in {@link AbstractSortBenchmark}.
+ */
+@State(Scope.Thread)
+public class RadixSortBenchmark {
+
+    @Param({"1000", "1000000"})
+    private int size;
+
+    @Param({"RANDOM", "FEW_UNIQUE"})
+    private Shape shape;
+
+    private final RadixSort radixSort = new RadixSort();
+    private final RadixSort inPlaceRadixSort = new RadixSort(false);
+    private final TimSort timSort = new TimSort();
+    private int[] ints;
+    private int[] intWork;
+    private String[] strings;
+    private String[] stringWork;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ints = shape.generate(size, new Random(size));
+        intWork = new int[size];
+        strings = Arrays.stream(ints).mapToObj(value -> "/usr/local/" + value).toArray(String[]::new);
+        stringWork = new String[size];
+    }
+
+    @Benchmark
+    public int[] radixSortInts() {
+        System.arraycopy(ints, 0, intWork, 0, size);
+        radixSort.sort(intWork);
+        return intWork;
+    }
+
+    @Benchmark
+    public int[] timSortInts() {
+        System.arraycopy(ints, 0, intWork, 0, size);
+        timSort.sort(intWork);
+        return intWork;
+    }
+
+    @Benchmark
+    public int[] arraysSortInts() {
+        System.arraycopy(ints, 0, intWork, 0, size);
+        Arrays.sort(intWork);
+        return intWork;
+    }
+
+    @Benchmark
+    public String[] radixSortStrings() {
+        System.arraycopy(strings, 0, stringWork, 0, size);
+        radixSort.sort(stringWork);
+        return stringWork;
+    }
+
+    @Benchmark
+    public String[] inPlaceRadixSortStrings() {
+        System.arraycopy(strings, 0, stringWork, 0, size);
+        inPlaceRadixSort.sort(stringWork);
+        return stringWork;
+    }
+
+    @Benchmark
+    public String[] arraysSortStrings() {
+        System.arraycopy(strings, 0, stringWork, 0, size);
+        Arrays.sort(stringWork);
+        return stringWork;
+    }
+}
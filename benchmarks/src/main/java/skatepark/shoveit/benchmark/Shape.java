@@ -0,0 +1,56 @@
+package skatepark.shoveit.benchmark;
+
+import java.util.Random;
+
+public enum Shape {
+
+    RANDOM {
+        @Override
+        int[] generate(int size, Random random) {
+            return random.ints(size).toArray();
+        }
+    },
+    SORTED {
+        @Override
+        int[] generate(int size, Random random) {
+            int values[] = new int[size];
+            for (int i = 0; i < size; i++) {
+                values[i] = i;
+            }
+            return values;
+        }
+    },
+    REVERSED {
+        @Override
+        int[] generate(int size, Random random) {
+            int values[] = new int[size];
+            for (int i = 0; i < size; i++) {
+                values[i] = size - i;
+            }
+            return values;
+        }
+    },
+    FEW_UNIQUE {
+        @Override
+        int[] generate(int size, Random random) {
+            return random.ints(size, 0, 8).toArray();
+        }
+    },
+    NEARLY_SORTED {
+        @Override
+        int[] generate(int size, Random random) {
+            int values[] = SORTED.generate(size, random);
+            int swaps = Math.max(1, size / 100);
+            for (int i = 0; i < swaps; i++) {
+                int a = random.nextInt(size);
+                int b = random.nextInt(size);
+                int elem = values[a];
+                values[a] = values[b];
+                values[b] = elem;
+            }
+            return values;
+        }
+    };
+
+    abstract int[] generate(int size, Random random);
+}
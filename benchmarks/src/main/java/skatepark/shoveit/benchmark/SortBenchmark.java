@@ -0,0 +1,28 @@
+package skatepark.shoveit.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * O(n log n) algorithms, from 10 up to 10^7 elements.
+ */
+@State(Scope.Thread)
+public class SortBenchmark extends AbstractSortBenchmark {
+
+    @Param({"MergeSort", "ParallelMergeSort", "TimSort"})
+    private String algorithm;
+
+    @Param({"10", "1000", "100000", "10000000"})
+    private int size;
+
+    @Param
+    private Shape shape;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        setUp(algorithm, size, shape);
+    }
+}
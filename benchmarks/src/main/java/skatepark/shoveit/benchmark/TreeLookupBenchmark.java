@@ -0,0 +1,95 @@
+package skatepark.shoveit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import skatepark.shoveit.tree.BTree;
+import skatepark.shoveit.tree.IntBTree;
+import skatepark.shoveit.tree.LongIndex;
+import skatepark.shoveit.tree.LongIndexWriter;
+import skatepark.shoveit.tree.Node;
+import skatepark.shoveit.tree.RedBlackTree;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.IntPredicate;
+
+/**
+ * Random lookups, half of them hits, in sets of random {@code int} built by each tree implementation, the
+ * memory-mapped {@code LongIndex} included.
+ */
+@State(Scope.Thread)
+public class TreeLookupBenchmark {
+
+    @Param({"Node", "RedBlackTree", "BTree", "IntBTree", "LongIndex"})
+    private String implementation;
+
+    @Param({"1000", "1000000"})
+    private int size;
+
+    private IntPredicate contains;
+    private int[] queries;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Random random = new Random(42);
+        int[] values = random.ints(size, 0, size * 2).toArray();
+        switch (implementation) {
+            case "Node":
+                Node<Integer> node = new Node<>(-1);
+                for (int value : values) {
+                    node.add(value);
+                }
+                contains = node::contains;
+                break;
+            case "RedBlackTree":
+                RedBlackTree<Integer> redBlackTree = new RedBlackTree<>();
+                for (int value : values) {
+                    redBlackTree.add(value);
+                }
+                contains = redBlackTree::contains;
+                break;
+            case "BTree":
+                BTree<Integer> bTree = new BTree<>();
+                for (int value : values) {
+                    bTree.add(value);
+                }
+                contains = bTree::contains;
+                break;
+            case "IntBTree":
+                IntBTree intBTree = new IntBTree();
+                for (int value : values) {
+                    intBTree.add(value);
+                }
+                contains = intBTree::contains;
+                break;
+            case "LongIndex":
+                Path path = Files.createTempFile("lookup", ".index");
+                path.toFile().deleteOnExit();
+                try (LongIndexWriter writer = new LongIndexWriter(path)) {
+                    for (int value : Arrays.stream(values).sorted().distinct().toArray()) {
+                        writer.add(value, value);
+                    }
+                }
+                LongIndex index = LongIndex.open(path);
+                contains = index::contains;
+                break;
+            default:
+                throw new IllegalArgumentException("unknown implementation: " + implementation);
+        }
+        queries = random.ints(1 << 16, 0, size * 2).toArray();
+    }
+
+    @Benchmark
+    public boolean contains() {
+        next = (next + 1) & (queries.length - 1);
+        return contains.test(queries[next]);
+    }
+}
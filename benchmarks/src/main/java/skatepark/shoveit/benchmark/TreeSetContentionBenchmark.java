@@ -0,0 +1,130 @@
+package skatepark.shoveit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import skatepark.shoveit.tree.ConcurrentTreeSet;
+import skatepark.shoveit.tree.Node;
+
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Shared sorted set hammered by readers and writers at once: {@code ConcurrentTreeSet} against a {@code Node} behind
+ * a single monitor. The {@code readHeavy} group runs seven readers per writer, {@code writeHeavy} one reader per
+ * writer. Writers flip random keys in and out so the set size stays around half of {@code keys}.
+ */
+@State(Scope.Group)
+public class TreeSetContentionBenchmark {
+
+    @Param({"ConcurrentTreeSet", "SynchronizedNode"})
+    private String implementation;
+
+    @Param({"1000", "1000000"})
+    private int keys;
+
+    private SortedIntSet set;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        set = "ConcurrentTreeSet".equals(implementation) ? new Concurrent() : new SynchronizedNode();
+        Random random = new Random(42);
+        for (int i = 0; i < keys / 2; i++) {
+            set.add(random.nextInt(keys));
+        }
+    }
+
+    @Benchmark
+    @Group("readHeavy")
+    @GroupThreads(7)
+    public boolean readHeavyContains() {
+        return set.contains(ThreadLocalRandom.current().nextInt(keys));
+    }
+
+    @Benchmark
+    @Group("readHeavy")
+    @GroupThreads(1)
+    public boolean readHeavyWrite() {
+        return write();
+    }
+
+    @Benchmark
+    @Group("writeHeavy")
+    @GroupThreads(1)
+    public boolean writeHeavyContains() {
+        return set.contains(ThreadLocalRandom.current().nextInt(keys));
+    }
+
+    @Benchmark
+    @Group("writeHeavy")
+    @GroupThreads(1)
+    public boolean writeHeavyWrite() {
+        return write();
+    }
+
+    private boolean write() {
+        int key = ThreadLocalRandom.current().nextInt(keys);
+        return set.add(key) || set.remove(key);
+    }
+
+    private interface SortedIntSet {
+
+        boolean add(int key);
+
+        boolean remove(int key);
+
+        boolean contains(int key);
+    }
+
+    private static class Concurrent implements SortedIntSet {
+
+        private final ConcurrentTreeSet<Integer> set = new ConcurrentTreeSet<>();
+
+        @Override
+        public boolean add(int key) {
+            return set.add(key);
+        }
+
+        @Override
+        public boolean remove(int key) {
+            return set.remove(key);
+        }
+
+        @Override
+        public boolean contains(int key) {
+            return set.contains(key);
+        }
+    }
+
+    /**
+     * {@code Node} cannot be empty, its root holds -1, below every benchmarked key.
+     */
+    private static class SynchronizedNode implements SortedIntSet {
+
+        private final Node<Integer> root = new Node<>(-1);
+
+        @Override
+        public synchronized boolean add(int key) {
+            if (root.contains(key)) {
+                return false;
+            }
+            root.add(key);
+            return true;
+        }
+
+        @Override
+        public synchronized boolean remove(int key) {
+            return root.remove(key, root);
+        }
+
+        @Override
+        public synchronized boolean contains(int key) {
+            return root.contains(key);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package skatepark.shoveit.backtracking;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Every variable {@code x[i]} of the scope takes a different {@code x[i] + offsets[i]}. Offsets express the
+ * diagonals of the queens problem: rows {@code i} and {@code j} share a diagonal when
+ * {@code x[i] + i == x[j] + j} or {@code x[i] - i == x[j] - j}.
+ */
+public class AllDifferent implements IConstraint {
+
+    private final int variables[];
+    private final int offsets[];
+    private final int positions[];
+
+    public AllDifferent(int variables[]) {
+        this(variables, new int[variables.length]);
+    }
+
+    public AllDifferent(int variables[], int offsets[]) {
+        Objects.requireNonNull(variables, "variables should not be null.");
+        Objects.requireNonNull(offsets, "offsets should not be null.");
+        if (variables.length != offsets.length) {
+            throw new IllegalArgumentException("variables and offsets should have the same length.");
+        }
+        this.variables = variables.clone();
+        this.offsets = offsets.clone();
+        int max = -1;
+        for (int variable : variables) {
+            max = Math.max(max, variable);
+        }
+        this.positions = new int[max + 1];
+        for (int i = 0; i < variables.length; i++) {
+            positions[variables[i]] = i;
+        }
+    }
+
+    @Override
+    public int[] scope() {
+        return variables.clone();
+    }
+
+    @Override
+    public boolean onAssign(CspSearch search, int variable, int value) {
+        int position = positions[variable];
+        int key = value + offsets[position];
+        for (int i = 0; i < variables.length; i++) {
+            if (i != position && !search.remove(variables[i], key - offsets[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "AllDifferent" + Arrays.toString(variables);
+    }
+}
@@ -0,0 +1,62 @@
+package skatepark.shoveit.backtracking;
+
+import java.util.Objects;
+
+/**
+ * Constraint between two variables given by the values of {@code second} allowed with every value of {@code first}.
+ */
+public class BinaryTable implements IConstraint {
+
+    private final int first;
+    private final int second;
+    private final long supports[][];
+    private final long reverse[][];
+
+    /**
+     * @param supports bitset of the values of {@code second} allowed when {@code first} takes the value {@code v},
+     *                 at {@code supports[v]}. Values of {@code first} beyond the table are not allowed.
+     */
+    public BinaryTable(int first, int second, long supports[][]) {
+        Objects.requireNonNull(supports, "supports should not be null.");
+        this.first = first;
+        this.second = second;
+        this.supports = new long[supports.length][];
+        int max = -1;
+        for (int v = 0; v < supports.length; v++) {
+            this.supports[v] = supports[v] == null ? new long[0] : supports[v].clone();
+            for (int w = 0; w < this.supports[v].length; w++) {
+                if (this.supports[v][w] != 0) {
+                    max = Math.max(max, (w << 6) + 63 - Long.numberOfLeadingZeros(this.supports[v][w]));
+                }
+            }
+        }
+        this.reverse = new long[max + 1][(supports.length + 63) >>> 6];
+        for (int v = 0; v < supports.length; v++) {
+            long support[] = this.supports[v];
+            for (int w = 0; w < support.length; w++) {
+                for (long bits = support[w]; bits != 0; bits &= bits - 1) {
+                    int u = (w << 6) + Long.numberOfTrailingZeros(bits);
+                    reverse[u][v >>> 6] |= 1L << v;
+                }
+            }
+        }
+    }
+
+    @Override
+    public int[] scope() {
+        return new int[]{first, second};
+    }
+
+    @Override
+    public boolean onAssign(CspSearch search, int variable, int value) {
+        if (variable == first) {
+            return search.retain(second, value < supports.length ? supports[value] : new long[0]);
+        }
+        return search.retain(first, value < reverse.length ? reverse[value] : new long[0]);
+    }
+
+    @Override
+    public String toString() {
+        return "BinaryTable[" + first + ", " + second + "]";
+    }
+}
@@ -0,0 +1,89 @@
+package skatepark.shoveit.backtracking;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Constraint satisfaction problem: variables numbered from 0, each taking a value in {@code [0, size)}, and the
+ * constraints between them. Domains start full and can be narrowed with {@link #remove} before searching, see
+ * {@link CspSolver}.
+ */
+public class Csp {
+
+    private final List<long[]> domains = new ArrayList<>();
+    private final List<Integer> sizes = new ArrayList<>();
+    private final List<IConstraint> constraints = new ArrayList<>();
+
+    /**
+     * @return the new variable.
+     */
+    public int addVariable(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("size should be positive.");
+        }
+        long domain[] = new long[(size + 63) >>> 6];
+        Arrays.fill(domain, -1L);
+        domain[domain.length - 1] = -1L >>> (-size & 63);
+        domains.add(domain);
+        sizes.add(size);
+        return domains.size() - 1;
+    }
+
+    /**
+     * @return the new variables, in order.
+     */
+    public int[] addVariables(int count, int size) {
+        int variables[] = new int[count];
+        for (int i = 0; i < count; i++) {
+            variables[i] = addVariable(size);
+        }
+        return variables;
+    }
+
+    public void remove(int variable, int value) {
+        checkVariable(variable);
+        if (value >= 0 && value < sizes.get(variable)) {
+            domains.get(variable)[value >>> 6] &= ~(1L << value);
+        }
+    }
+
+    public void add(IConstraint constraint) {
+        Objects.requireNonNull(constraint, "constraint should not be null.");
+        int scope[] = constraint.scope();
+        for (int i = 0; i < scope.length; i++) {
+            checkVariable(scope[i]);
+            for (int j = 0; j < i; j++) {
+                if (scope[i] == scope[j]) {
+                    throw new IllegalArgumentException("variable " + scope[i] + " appears twice in a scope.");
+                }
+            }
+        }
+        constraints.add(constraint);
+    }
+
+    public int variables() {
+        return domains.size();
+    }
+
+    public int size(int variable) {
+        checkVariable(variable);
+        return sizes.get(variable);
+    }
+
+    long[] domain(int variable) {
+        return domains.get(variable);
+    }
+
+    List<IConstraint> constraints() {
+        return Collections.unmodifiableList(constraints);
+    }
+
+    private void checkVariable(int variable) {
+        if (variable < 0 || variable >= domains.size()) {
+            throw new IllegalArgumentException("unknown variable " + variable + ".");
+        }
+    }
+}
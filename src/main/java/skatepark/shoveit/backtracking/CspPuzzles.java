@@ -0,0 +1,133 @@
+package skatepark.shoveit.backtracking;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * The puzzles of this package as {@link Csp} models, to be solved with {@link CspSolver}.
+ */
+public final class CspPuzzles {
+
+    private CspPuzzles() {
+    }
+
+    /**
+     * One variable per row holding the column of its queen, all different, and so are both diagonals.
+     */
+    public static Csp queens(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("size should not be negative.");
+        }
+        Csp csp = new Csp();
+        int rows[] = csp.addVariables(size, Math.max(size, 1));
+        int ascending[] = new int[size];
+        int descending[] = new int[size];
+        for (int row = 0; row < size; row++) {
+            ascending[row] = row;
+            descending[row] = -row;
+        }
+        csp.add(new AllDifferent(rows));
+        csp.add(new AllDifferent(rows, ascending));
+        csp.add(new AllDifferent(rows, descending));
+        return csp;
+    }
+
+    /**
+     * One variable per step of an open tour holding the square visited, numbered {@code row * columns + column}:
+     * the first one is the start, all are different and each one is a knight move away from the previous one.
+     * {@link #warnsdorff} is the value order to search it with, in {@link CspSolver.VariableOrder#INPUT} order.
+     */
+    public static Csp knightTour(int rows, int columns, int row, int column) {
+        if (rows < 1 || columns < 1 || row < 0 || column < 0 || row >= rows || column >= columns) {
+            throw new IllegalArgumentException("the start should be on a board of at least one square.");
+        }
+        KnightMoves moves = new KnightMoves(rows, columns);
+        int cells = moves.cells();
+        Csp csp = new Csp();
+        int steps[] = csp.addVariables(cells, cells);
+        for (int cell = 0; cell < cells; cell++) {
+            if (cell != row * columns + column) {
+                csp.remove(steps[0], cell);
+            }
+        }
+        csp.add(new AllDifferent(steps));
+
+        long supports[][] = new long[cells][(cells + 63) >>> 6];
+        for (int cell = 0; cell < cells; cell++) {
+            for (int i = moves.start[cell]; i < moves.start[cell + 1]; i++) {
+                int target = moves.targets[i];
+                supports[cell][target >>> 6] |= 1L << target;
+            }
+        }
+        for (int step = 1; step < cells; step++) {
+            csp.add(new BinaryTable(steps[step - 1], steps[step], supports));
+        }
+        return csp;
+    }
+
+    /**
+     * Warnsdorff's rule for {@link #knightTour}: squares with the fewest onward moves first, that is moves to
+     * squares still in the domain of the next step.
+     */
+    public static IValueOrder warnsdorff(int rows, int columns) {
+        KnightMoves moves = new KnightMoves(rows, columns);
+        return (search, step, values, count) -> {
+            if (step + 1 == search.variables()) {
+                return;
+            }
+            int keys[] = new int[count];
+            for (int i = 0; i < count; i++) {
+                int cell = values[i];
+                for (int j = moves.start[cell]; j < moves.start[cell + 1]; j++) {
+                    if (search.contains(step + 1, moves.targets[j])) {
+                        keys[i]++;
+                    }
+                }
+            }
+            // stable insertion sort by key, ties in ascending order of squares
+            for (int i = 1; i < count; i++) {
+                int key = keys[i];
+                int value = values[i];
+                int j = i;
+                for (; j > 0 && keys[j - 1] > key; j--) {
+                    keys[j] = keys[j - 1];
+                    values[j] = values[j - 1];
+                }
+                keys[j] = key;
+                values[j] = value;
+            }
+        };
+    }
+
+    /**
+     * Unfolds a solution of {@link #knightTour} into the step at which each square is visited.
+     */
+    public static int[][] toBoard(int rows, int columns, int solution[]) {
+        Objects.requireNonNull(solution, "solution should not be null.");
+        int board[] = new int[rows * columns];
+        Arrays.fill(board, -1);
+        for (int step = 0; step < solution.length; step++) {
+            board[solution[step]] = step;
+        }
+        return new KnightMoves(rows, columns).toMatrix(board);
+    }
+
+    /**
+     * One 0 or 1 variable per value telling whether it is taken, for non-empty subsets adding up to
+     * {@code target}.
+     */
+    public static Csp subsetSum(int values[], long target) {
+        Objects.requireNonNull(values, "values should not be null.");
+        Csp csp = new Csp();
+        int taken[] = csp.addVariables(values.length, 2);
+        long coefficients[] = new long[values.length];
+        long ones[] = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            coefficients[i] = values[i];
+            ones[i] = 1;
+        }
+        csp.add(new LinearRange(taken, coefficients, target, target));
+        csp.add(new LinearRange(taken, ones, 1, values.length));
+        return csp;
+    }
+}
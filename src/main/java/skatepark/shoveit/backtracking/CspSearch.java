@@ -0,0 +1,417 @@
+package skatepark.shoveit.backtracking;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Depth-first search over a {@link Csp}, resumed at every solution by {@link #next}. Domains are bitsets held in a
+ * single array, and every value removed by forward checking is pushed on a trail, so backtracking puts back exactly
+ * the values removed since the assignment it undoes instead of copying domains at each level.
+ * <p>
+ * Constraints and value orders read the state of the search through {@link #isAssigned}, {@link #value},
+ * {@link #contains}, {@link #size} and the iteration methods, and prune through {@link #remove} and
+ * {@link #retain}. Removals only apply to unassigned variables; on an assigned one they just report a conflict.
+ */
+public class CspSearch {
+
+    private static final int CLOCK_INTERVAL = 1 << 10;
+
+    private final int variables;
+    private final int capacities[];
+    private final int base[];
+    private final long words[];
+    private final int sizes[];
+    private final int values[];
+    private final IConstraint constraints[][];
+    private final int constraintIds[][];
+    private final int unassigned[];
+
+    private final CspSolver.VariableOrder variableOrder;
+    private final IValueOrder valueOrder;
+    private final long maxNodes;
+    private final long deadline;
+    private final boolean timed;
+
+    private int trailVariables[] = new int[64];
+    private int trailValues[] = new int[64];
+    private int trailSize;
+
+    // per depth: the variable, its values in the order tried, the next one to try, the trail before its
+    // assignment and how many of its constraints were told about it
+    private final int order[];
+    private final int candidates[][];
+    private final int candidateCounts[];
+    private final int cursors[];
+    private final int trailMarks[];
+    private final int notified[];
+    private int depth = -1;
+
+    private long nodes;
+    private boolean done;
+    private boolean budgetExceeded;
+
+    CspSearch(Csp csp, CspSolver.VariableOrder variableOrder, IValueOrder valueOrder, long maxNodes,
+              long timeoutNanos) {
+        this.variables = csp.variables();
+        this.variableOrder = variableOrder;
+        this.valueOrder = valueOrder;
+        this.maxNodes = maxNodes;
+        this.timed = timeoutNanos > 0;
+        this.deadline = System.nanoTime() + timeoutNanos;
+
+        this.capacities = new int[variables];
+        this.base = new int[variables + 1];
+        for (int variable = 0; variable < variables; variable++) {
+            capacities[variable] = csp.size(variable);
+            base[variable + 1] = base[variable] + ((capacities[variable] + 63) >>> 6);
+        }
+        this.words = new long[base[variables]];
+        this.sizes = new int[variables];
+        this.values = new int[variables];
+        Arrays.fill(values, -1);
+        for (int variable = 0; variable < variables; variable++) {
+            long domain[] = csp.domain(variable);
+            System.arraycopy(domain, 0, words, base[variable], domain.length);
+            for (long word : domain) {
+                sizes[variable] += Long.bitCount(word);
+            }
+            if (sizes[variable] == 0) {
+                done = true;
+            }
+        }
+
+        List<IConstraint> all = csp.constraints();
+        int counts[] = new int[variables];
+        for (IConstraint constraint : all) {
+            for (int variable : constraint.scope()) {
+                counts[variable]++;
+            }
+        }
+        this.constraints = new IConstraint[variables][];
+        this.constraintIds = new int[variables][];
+        for (int variable = 0; variable < variables; variable++) {
+            constraints[variable] = new IConstraint[counts[variable]];
+            constraintIds[variable] = new int[counts[variable]];
+            counts[variable] = 0;
+        }
+        this.unassigned = new int[all.size()];
+        for (int id = 0; id < all.size(); id++) {
+            IConstraint constraint = all.get(id);
+            int scope[] = constraint.scope();
+            unassigned[id] = scope.length;
+            for (int variable : scope) {
+                constraints[variable][counts[variable]] = constraint;
+                constraintIds[variable][counts[variable]++] = id;
+            }
+        }
+
+        this.order = new int[variables];
+        this.candidates = new int[variables][];
+        this.candidateCounts = new int[variables];
+        this.cursors = new int[variables];
+        this.trailMarks = new int[variables];
+        this.notified = new int[variables];
+
+        for (int id = 0; id < all.size() && !done; id++) {
+            if (!all.get(id).onStart(this)) {
+                done = true;
+            }
+        }
+    }
+
+    /**
+     * Searches for the next solution.
+     *
+     * @return false once every solution was found or the budget ran out, see {@link #isBudgetExceeded()}.
+     */
+    public boolean next() {
+        if (done) {
+            return false;
+        }
+        if (depth < 0) {
+            if (variables == 0) {
+                // the empty assignment is the only solution
+                done = true;
+                return true;
+            }
+            depth = 0;
+            choose(0);
+        } else {
+            // resume after the last solution with the next value of the deepest variable
+            depth = variables - 1;
+            unassign(depth);
+        }
+
+        int d = depth;
+        while (true) {
+            if (cursors[d] < candidateCounts[d]) {
+                int value = candidates[d][cursors[d]++];
+                if (nodes == maxNodes || timed && (nodes & (CLOCK_INTERVAL - 1)) == 0
+                        && System.nanoTime() - deadline > 0) {
+                    budgetExceeded = true;
+                    break;
+                }
+                nodes++;
+                if (!assign(d, value)) {
+                    unassign(d);
+                } else if (d == variables - 1) {
+                    depth = d;
+                    return true;
+                } else {
+                    choose(++d);
+                }
+            } else if (--d < 0) {
+                break;
+            } else {
+                unassign(d);
+            }
+        }
+        done = true;
+        return false;
+    }
+
+    /**
+     * @return the value of every variable in the last solution found.
+     */
+    public int[] solution() {
+        return values.clone();
+    }
+
+    /**
+     * @return the number of assignments tried so far.
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    public boolean isBudgetExceeded() {
+        return budgetExceeded;
+    }
+
+    public int variables() {
+        return variables;
+    }
+
+    public boolean isAssigned(int variable) {
+        return values[variable] >= 0;
+    }
+
+    /**
+     * @return the value of {@code variable}, or -1 if it is not assigned.
+     */
+    public int value(int variable) {
+        return values[variable];
+    }
+
+    /**
+     * @return the number of values left to {@code variable}, 1 once it is assigned.
+     */
+    public int size(int variable) {
+        return values[variable] >= 0 ? 1 : sizes[variable];
+    }
+
+    public boolean contains(int variable, int value) {
+        if (values[variable] >= 0) {
+            return values[variable] == value;
+        }
+        return value >= 0 && value < capacities[variable]
+                && (words[base[variable] + (value >>> 6)] & (1L << value)) != 0;
+    }
+
+    /**
+     * @return the smallest value of {@code variable} not below {@code from}, or -1 if there is none.
+     */
+    public int nextValue(int variable, int from) {
+        if (values[variable] >= 0) {
+            return values[variable] >= from ? values[variable] : -1;
+        }
+        if (from < 0) {
+            from = 0;
+        }
+        if (from >= capacities[variable]) {
+            return -1;
+        }
+        int w = base[variable] + (from >>> 6);
+        long word = words[w] & (-1L << from);
+        while (word == 0) {
+            if (++w == base[variable + 1]) {
+                return -1;
+            }
+            word = words[w];
+        }
+        return ((w - base[variable]) << 6) + Long.numberOfTrailingZeros(word);
+    }
+
+    public int min(int variable) {
+        return nextValue(variable, 0);
+    }
+
+    public int max(int variable) {
+        if (values[variable] >= 0) {
+            return values[variable];
+        }
+        for (int w = base[variable + 1] - 1; w >= base[variable]; w--) {
+            if (words[w] != 0) {
+                return ((w - base[variable]) << 6) + 63 - Long.numberOfLeadingZeros(words[w]);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Removes {@code value} from the domain of {@code variable} until the search backtracks.
+     *
+     * @return false if the domain became empty, or if {@code variable} is assigned to {@code value}.
+     */
+    public boolean remove(int variable, int value) {
+        if (values[variable] >= 0) {
+            return values[variable] != value;
+        }
+        if (value < 0 || value >= capacities[variable]) {
+            return true;
+        }
+        int w = base[variable] + (value >>> 6);
+        long bit = 1L << value;
+        if ((words[w] & bit) != 0) {
+            words[w] ^= bit;
+            push(variable, value);
+            return --sizes[variable] > 0;
+        }
+        return true;
+    }
+
+    /**
+     * Removes every value of {@code variable} missing from the bitset {@code allowed} until the search backtracks.
+     *
+     * @return false if the domain became empty, or if {@code variable} is assigned to a value not allowed.
+     */
+    public boolean retain(int variable, long allowed[]) {
+        int value = values[variable];
+        if (value >= 0) {
+            return (value >>> 6) < allowed.length && (allowed[value >>> 6] & (1L << value)) != 0;
+        }
+        for (int w = base[variable]; w < base[variable + 1]; w++) {
+            int index = w - base[variable];
+            long removed = words[w] & ~(index < allowed.length ? allowed[index] : 0L);
+            if (removed != 0) {
+                words[w] ^= removed;
+                sizes[variable] -= Long.bitCount(removed);
+                for (; removed != 0; removed &= removed - 1) {
+                    push(variable, (index << 6) + Long.numberOfTrailingZeros(removed));
+                }
+            }
+        }
+        return sizes[variable] > 0;
+    }
+
+    private void push(int variable, int value) {
+        if (trailSize == trailVariables.length) {
+            trailVariables = Arrays.copyOf(trailVariables, trailSize * 2);
+            trailValues = Arrays.copyOf(trailValues, trailSize * 2);
+        }
+        trailVariables[trailSize] = variable;
+        trailValues[trailSize++] = value;
+    }
+
+    /**
+     * Picks the variable of depth {@code d} and lists its values in the order to try them.
+     */
+    private void choose(int d) {
+        int variable = pick();
+        order[d] = variable;
+        int size = sizes[variable];
+        if (candidates[d] == null || candidates[d].length < size) {
+            candidates[d] = new int[size];
+        }
+        int list[] = candidates[d];
+        int count = 0;
+        for (int value = min(variable); value >= 0; value = nextValue(variable, value + 1)) {
+            list[count++] = value;
+        }
+        if (valueOrder != null) {
+            valueOrder.order(this, variable, list, count);
+        }
+        candidateCounts[d] = count;
+        cursors[d] = 0;
+    }
+
+    private int pick() {
+        int best = -1;
+        int bestDegree = -1;
+        for (int variable = 0; variable < variables; variable++) {
+            if (values[variable] >= 0) {
+                continue;
+            }
+            if (variableOrder == CspSolver.VariableOrder.INPUT) {
+                return variable;
+            }
+            if (best < 0 || sizes[variable] < sizes[best]) {
+                best = variable;
+                bestDegree = -1;
+            } else if (sizes[variable] == sizes[best]
+                    && variableOrder == CspSolver.VariableOrder.MIN_DOMAIN_MAX_DEGREE) {
+                if (bestDegree < 0) {
+                    bestDegree = degree(best);
+                }
+                int degree = degree(variable);
+                if (degree > bestDegree) {
+                    best = variable;
+                    bestDegree = degree;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @return the number of constraints between {@code variable} and some other unassigned variable.
+     */
+    private int degree(int variable) {
+        int degree = 0;
+        for (int id : constraintIds[variable]) {
+            if (unassigned[id] > 1) {
+                degree++;
+            }
+        }
+        return degree;
+    }
+
+    private boolean assign(int d, int value) {
+        int variable = order[d];
+        values[variable] = value;
+        trailMarks[d] = trailSize;
+        for (int id : constraintIds[variable]) {
+            unassigned[id]--;
+        }
+        IConstraint list[] = constraints[variable];
+        for (int i = 0; i < list.length; i++) {
+            notified[d] = i + 1;
+            if (!list[i].onAssign(this, variable, value)) {
+                return false;
+            }
+        }
+        notified[d] = list.length;
+        return true;
+    }
+
+    private void unassign(int d) {
+        int variable = order[d];
+        int value = values[variable];
+        IConstraint list[] = constraints[variable];
+        for (int i = notified[d] - 1; i >= 0; i--) {
+            list[i].onUnassign(this, variable, value);
+        }
+        notified[d] = 0;
+        while (trailSize > trailMarks[d]) {
+            trailSize--;
+            int v = trailVariables[trailSize];
+            int removed = trailValues[trailSize];
+            words[base[v] + (removed >>> 6)] |= 1L << removed;
+            sizes[v]++;
+        }
+        for (int id : constraintIds[variable]) {
+            unassigned[id]++;
+        }
+        values[variable] = -1;
+    }
+}
@@ -0,0 +1,114 @@
+package skatepark.shoveit.backtracking;
+
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Backtracking solver for a {@link Csp}, with forward checking through the constraints, a variable ordering
+ * heuristic, a pluggable value order and a budget of nodes and time. A node is one assignment tried.
+ * <p>
+ * When the budget runs out the search stops as if no solution was left, {@link CspSearch#isBudgetExceeded()} tells
+ * the difference.
+ */
+public class CspSolver {
+
+    public enum VariableOrder {
+        /**
+         * Variables in the order they were added.
+         */
+        INPUT,
+        /**
+         * The variable with the fewest values left first, the MRV heuristic.
+         */
+        MIN_DOMAIN,
+        /**
+         * {@link #MIN_DOMAIN}, ties going to the variable constrained with the most unassigned variables.
+         */
+        MIN_DOMAIN_MAX_DEGREE
+    }
+
+    private final VariableOrder variableOrder;
+    private final IValueOrder valueOrder;
+    private final long maxNodes;
+    private final long timeoutNanos;
+
+    public CspSolver() {
+        this(VariableOrder.MIN_DOMAIN_MAX_DEGREE, null);
+    }
+
+    /**
+     * @param valueOrder null tries values in ascending order.
+     */
+    public CspSolver(VariableOrder variableOrder, IValueOrder valueOrder) {
+        this(variableOrder, valueOrder, Long.MAX_VALUE, 0, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @param maxNodes assignments tried, backtracked ones included, before giving up.
+     * @param timeout  time before giving up, counted from {@link #search}, or 0 for no limit.
+     */
+    public CspSolver(VariableOrder variableOrder, IValueOrder valueOrder, long maxNodes, long timeout,
+                     TimeUnit unit) {
+        Objects.requireNonNull(variableOrder, "variableOrder should not be null.");
+        Objects.requireNonNull(unit, "unit should not be null.");
+        if (maxNodes < 1) {
+            throw new IllegalArgumentException("maxNodes should be positive.");
+        }
+        if (timeout < 0) {
+            throw new IllegalArgumentException("timeout should not be negative.");
+        }
+        this.variableOrder = variableOrder;
+        this.valueOrder = valueOrder;
+        this.maxNodes = maxNodes;
+        this.timeoutNanos = unit.toNanos(timeout);
+    }
+
+    public CspSearch search(Csp csp) {
+        Objects.requireNonNull(csp, "csp should not be null.");
+        return new CspSearch(csp, variableOrder, valueOrder, maxNodes, timeoutNanos);
+    }
+
+    /**
+     * @return the first solution, or null if there is none or the budget ran out.
+     */
+    public int[] first(Csp csp) {
+        CspSearch search = search(csp);
+        return search.next() ? search.solution() : null;
+    }
+
+    /**
+     * @return the number of solutions, or of those found before the budget ran out.
+     */
+    public long count(Csp csp) {
+        CspSearch search = search(csp);
+        long count = 0;
+        while (search.next()) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Lazily enumerates the solutions, searching only as the stream is consumed.
+     */
+    public Stream<int[]> solutions(Csp csp) {
+        CspSearch search = search(csp);
+        Spliterator<int[]> spliterator = new Spliterators.AbstractSpliterator<int[]>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL | Spliterator.IMMUTABLE) {
+            @Override
+            public boolean tryAdvance(Consumer<? super int[]> action) {
+                if (!search.next()) {
+                    return false;
+                }
+                action.accept(search.solution());
+                return true;
+            }
+        };
+        return StreamSupport.stream(spliterator, false);
+    }
+}
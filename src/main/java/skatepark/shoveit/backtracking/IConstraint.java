@@ -0,0 +1,35 @@
+package skatepark.shoveit.backtracking;
+
+/**
+ * Constraint of a {@link Csp}, checked by forward checking: whenever a variable of its scope is assigned the
+ * constraint removes the values it rules out from the domains of the other variables, through
+ * {@link CspSearch#remove} and {@link CspSearch#retain}, which the search undoes on backtracking.
+ * <p>
+ * A constraint which keeps state of its own resets it in {@link #onStart} and restores it in {@link #onUnassign},
+ * and then serves one search at a time.
+ */
+public interface IConstraint {
+
+    int[] scope();
+
+    /**
+     * Called once before searching, for pruning the initial domains.
+     *
+     * @return false if the constraint cannot be satisfied.
+     */
+    default boolean onStart(CspSearch search) {
+        return true;
+    }
+
+    /**
+     * @return false if {@code variable} cannot take {@code value}, for instance because the domain of another
+     * variable became empty.
+     */
+    boolean onAssign(CspSearch search, int variable, int value);
+
+    /**
+     * Called when backtracking over an assignment for which {@link #onAssign} was called, in reverse order.
+     */
+    default void onUnassign(CspSearch search, int variable, int value) {
+    }
+}
@@ -0,0 +1,14 @@
+package skatepark.shoveit.backtracking;
+
+/**
+ * Order in which {@link CspSearch} tries the values of a variable.
+ */
+@FunctionalInterface
+public interface IValueOrder {
+
+    /**
+     * Reorders {@code values[0, count)}, the domain of {@code variable} in ascending order, into the order in which
+     * they should be tried.
+     */
+    void order(CspSearch search, int variable, int values[], int count);
+}
@@ -0,0 +1,71 @@
+package skatepark.shoveit.backtracking;
+
+import java.util.Arrays;
+
+/**
+ * Precomputed knight moves of a board whose cells are numbered {@code row * columns + column}. The targets of
+ * {@code cell} are {@code targets[start[cell]]} up to {@code targets[start[cell + 1]]}, listed in the same order
+ * {@link KnightTour} has always tried them.
+ */
+final class KnightMoves {
+
+    private static final int ROW_DELTAS[] = {-1, -2, -2, -1, 1, 2, 2, 1};
+    private static final int COLUMN_DELTAS[] = {2, 1, -1, -2, 2, 1, -1, -2};
+
+    final int rows;
+    final int columns;
+    final int start[];
+    final int targets[];
+
+    KnightMoves(int rows, int columns) {
+        this.rows = rows;
+        this.columns = columns;
+        int cells = rows * columns;
+        this.start = new int[cells + 1];
+
+        int buffer[] = new int[cells * ROW_DELTAS.length];
+        int size = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            start[cell] = size;
+            int row = cell / columns;
+            int column = cell % columns;
+            for (int i = 0; i < ROW_DELTAS.length; i++) {
+                int r = row + ROW_DELTAS[i];
+                int c = column + COLUMN_DELTAS[i];
+                if (r >= 0 && c >= 0 && r < rows && c < columns) {
+                    buffer[size++] = r * columns + c;
+                }
+            }
+        }
+        start[cells] = size;
+        this.targets = Arrays.copyOf(buffer, size);
+    }
+
+    int cells() {
+        return rows * columns;
+    }
+
+    int degree(int cell) {
+        return start[cell + 1] - start[cell];
+    }
+
+    boolean isMove(int from, int to) {
+        for (int i = start[from]; i < start[from + 1]; i++) {
+            if (targets[i] == to) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Unfolds a flat board of step numbers into a {@code rows x columns} matrix.
+     */
+    int[][] toMatrix(int board[]) {
+        int matrix[][] = new int[rows][columns];
+        for (int row = 0; row < rows; row++) {
+            System.arraycopy(board, row * columns, matrix[row], 0, columns);
+        }
+        return matrix;
+    }
+}
@@ -1,110 +1,48 @@
 package skatepark.shoveit.backtracking;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
+/**
+ * Plain backtracking knight tour, trying the moves of every square in a fixed order. The search is iterative: the
+ * board is a flat array of step numbers and the path, with the next move to try from each of its squares, is kept in
+ * two more arrays, so nothing is allocated while searching and deep tours cannot overflow the call stack.
+ */
 public class KnightTour implements ICheesBoard {
 
     public int[][] calc(int rows, int columns, int row, int column) {
         if (row >= rows || column >= columns) {
             return null;
         }
+        KnightMoves moves = new KnightMoves(rows, columns);
+        int cells = moves.cells();
 
-        int matrix[][] = new int[rows][columns];
-        feedMatrix(matrix, -1);
+        int board[] = new int[cells];
+        Arrays.fill(board, -1);
+        int path[] = new int[cells];
+        int next[] = new int[cells];
 
-        int step = 0;
-        moveTo(new Cell(row, column), matrix, step);
-        return matrix;
-    }
-
-    private boolean moveTo(Cell cell, int matrix[][], int step) {
-        matrix[cell.row][cell.column] = step;
-        if (isFull(matrix)) {
-            return true;
-        }
+        int first = row * columns + column;
+        path[0] = first;
+        next[0] = moves.start[first];
+        board[first] = 0;
 
-        List<Cell> moves = getAvailableMoves(cell, matrix);
-        for (Cell candidate : moves) {
-            boolean finished = moveTo(candidate, matrix, step + 1);
-
-            if (finished) {
-                return true;
+        int step = 0;
+        while (step >= 0 && step < cells - 1) {
+            int cell = path[step];
+            if (next[step] == moves.start[cell + 1]) {
+                board[cell] = -1;
+                step--;
+                continue;
             }
-        }
-        matrix[cell.row][cell.column] = -1;
-        return false;
-    }
-
-    private boolean isFull(int matrix[][]) {
-        for (int i = 0; i < matrix.length; i++) {
-            for (int j = 0; j < matrix[i].length; j++) {
-                if (matrix[i][j] == -1) {
-                    return false;
-                }
+            int target = moves.targets[next[step]++];
+            if (board[target] != -1) {
+                continue;
             }
+            step++;
+            path[step] = target;
+            next[step] = moves.start[target];
+            board[target] = step;
         }
-        return true;
-    }
-
-
-    private List<Cell> getAvailableMoves(Cell cell, int matrix[][]) {
-        List<Cell> moves = new ArrayList<>();
-
-        int row = cell.row - 1;
-        int column = cell.column + 2;
-        if (isCandidate(row, column, matrix)) {
-            moves.add(new Cell(row, column));
-        }
-
-        row = cell.row - 2;
-        column = cell.column + 1;
-        if (isCandidate(row, column, matrix)) {
-            moves.add(new Cell(row, column));
-        }
-
-        row = cell.row - 2;
-        column = cell.column - 1;
-        if (isCandidate(row, column, matrix)) {
-            moves.add(new Cell(row, column));
-        }
-
-        row = cell.row - 1;
-        column = cell.column - 2;
-        if (isCandidate(row, column, matrix)) {
-            moves.add(new Cell(row, column));
-        }
-
-        row = cell.row + 1;
-        column = cell.column + 2;
-        if (isCandidate(row, column, matrix)) {
-            moves.add(new Cell(row, column));
-        }
-
-        row = cell.row + 2;
-        column = cell.column + 1;
-        if (isCandidate(row, column, matrix)) {
-            moves.add(new Cell(row, column));
-        }
-
-        row = cell.row + 2;
-        column = cell.column - 1;
-        if (isCandidate(row, column, matrix)) {
-            moves.add(new Cell(row, column));
-        }
-
-        row = cell.row + 1;
-        column = cell.column - 2;
-        if (isCandidate(row, column, matrix)) {
-            moves.add(new Cell(row, column));
-        }
-        return moves;
-    }
-
-    private boolean isCandidate(int row, int column, int matrix[][]) {
-        if (row < 0 || column < 0 || row >= matrix.length || column >= matrix[0].length) {
-            return false;
-        }
-        return matrix[row][column] == -1;
+        return moves.toMatrix(board);
     }
 }
@@ -0,0 +1,88 @@
+package skatepark.shoveit.backtracking;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * {@code min <= sum(coefficients[i] * x[i]) <= max}. Forward checking keeps the bounds of the sum, the assigned
+ * part plus the smallest and largest contribution of every other variable, and removes each value which would
+ * push the sum out of range whatever the other variables take.
+ */
+public class LinearRange implements IConstraint {
+
+    private final int variables[];
+    private final long coefficients[];
+    private final long min;
+    private final long max;
+
+    public LinearRange(int variables[], long coefficients[], long min, long max) {
+        Objects.requireNonNull(variables, "variables should not be null.");
+        Objects.requireNonNull(coefficients, "coefficients should not be null.");
+        if (variables.length != coefficients.length) {
+            throw new IllegalArgumentException("variables and coefficients should have the same length.");
+        }
+        this.variables = variables.clone();
+        this.coefficients = coefficients.clone();
+        this.min = min;
+        this.max = max;
+    }
+
+    @Override
+    public int[] scope() {
+        return variables.clone();
+    }
+
+    @Override
+    public boolean onStart(CspSearch search) {
+        return prune(search);
+    }
+
+    @Override
+    public boolean onAssign(CspSearch search, int variable, int value) {
+        return prune(search);
+    }
+
+    private boolean prune(CspSearch search) {
+        long low = 0;
+        long high = 0;
+        for (int i = 0; i < variables.length; i++) {
+            low += lowest(search, i);
+            high += highest(search, i);
+        }
+        if (low > max || high < min) {
+            return false;
+        }
+        for (int i = 0; i < variables.length; i++) {
+            int variable = variables[i];
+            if (search.isAssigned(variable)) {
+                continue;
+            }
+            // bounds of the sum without this variable
+            long otherLow = low - lowest(search, i);
+            long otherHigh = high - highest(search, i);
+            long coefficient = coefficients[i];
+            for (int value = search.min(variable); value >= 0; value = search.nextValue(variable, value + 1)) {
+                long term = coefficient * value;
+                if ((otherLow + term > max || otherHigh + term < min) && !search.remove(variable, value)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private long lowest(CspSearch search, int i) {
+        long coefficient = coefficients[i];
+        return coefficient * (coefficient >= 0 ? search.min(variables[i]) : search.max(variables[i]));
+    }
+
+    private long highest(CspSearch search, int i) {
+        long coefficient = coefficients[i];
+        return coefficient * (coefficient >= 0 ? search.max(variables[i]) : search.min(variables[i]));
+    }
+
+    @Override
+    public String toString() {
+        return "LinearRange" + Arrays.toString(variables) + "[" + min + ", " + max + "]";
+    }
+}
@@ -0,0 +1,193 @@
+package skatepark.shoveit.backtracking;
+
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * N-Queens solver on bitboards: occupied columns and both diagonals are {@code long} masks, one bit per column, so
+ * boards up to {@link #MAX_SIZE} wide are supported. The search is iterative and every array it needs is allocated
+ * once up front, nothing is allocated while searching.
+ * <p>
+ * A solution is an {@code int[]} holding the column of the queen placed on each row.
+ */
+public class NQueens {
+
+    public static final int MAX_SIZE = 64;
+
+    private static final int STOP_INTERVAL = 1 << 16;
+
+    public long count(int size) {
+        checkSize(size);
+        return count(size, 0, 0L, 0L, 0L);
+    }
+
+    /**
+     * @return the first solution in lexicographic order, or null if there is none.
+     */
+    public int[] first(int size) {
+        checkSize(size);
+        Search search = new Search(size);
+        return search.next() ? search.solution() : null;
+    }
+
+    /**
+     * Lazily enumerates every solution in lexicographic order. Solutions are searched for only as the stream is
+     * consumed, so short-circuiting operations such as {@code limit} or {@code findFirst} stop the search.
+     */
+    public Stream<int[]> solutions(int size) {
+        checkSize(size);
+        Search search = new Search(size);
+        Spliterator<int[]> spliterator = new Spliterators.AbstractSpliterator<int[]>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL | Spliterator.IMMUTABLE) {
+            @Override
+            public boolean tryAdvance(Consumer<? super int[]> action) {
+                if (!search.next()) {
+                    return false;
+                }
+                action.accept(search.solution());
+                return true;
+            }
+        };
+        return StreamSupport.stream(spliterator, false);
+    }
+
+    static void checkSize(int size) {
+        if (size < 0 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("size should be between 0 and " + MAX_SIZE + ".");
+        }
+    }
+
+    static long mask(int size) {
+        return size == MAX_SIZE ? -1L : (1L << size) - 1;
+    }
+
+    /**
+     * Counts the completions of a board whose first {@code row} rows already hold queens. {@code left} and
+     * {@code right} are the diagonals attacked on {@code row}.
+     */
+    static long count(int size, int row, long columns, long left, long right) {
+        return count(size, row, columns, left, right, null);
+    }
+
+    /**
+     * Same as {@link #count(int, int, long, long, long)}, polling {@code stop} every {@code STOP_INTERVAL} placements
+     * and returning a partial count as soon as it answers true.
+     */
+    static long count(int size, int row, long columns, long left, long right, BooleanSupplier stop) {
+        int depth = size - row;
+        if (depth == 0) {
+            return 1;
+        }
+        long full = mask(size);
+        long[] available = new long[depth];
+        long[] cs = new long[depth];
+        long[] ls = new long[depth];
+        long[] rs = new long[depth];
+
+        cs[0] = columns;
+        ls[0] = left;
+        rs[0] = right;
+        available[0] = full & ~(columns | left | right);
+
+        long count = 0;
+        int last = depth - 1;
+        int d = 0;
+        int poll = STOP_INTERVAL;
+        while (d >= 0) {
+            long free = available[d];
+            if (free == 0) {
+                d--;
+                continue;
+            }
+            if (d == last) {
+                count += Long.bitCount(free);
+                available[d] = 0;
+                continue;
+            }
+            long bit = free & -free;
+            available[d] = free ^ bit;
+            if (--poll == 0) {
+                if (stop != null && stop.getAsBoolean()) {
+                    return count;
+                }
+                poll = STOP_INTERVAL;
+            }
+
+            long c = cs[d] | bit;
+            long l = (ls[d] | bit) << 1;
+            long r = (rs[d] | bit) >>> 1;
+            d++;
+            cs[d] = c;
+            ls[d] = l;
+            rs[d] = r;
+            available[d] = full & ~(c | l | r);
+        }
+        return count;
+    }
+
+    /**
+     * Resumable version of {@link #count}, stopping at every solution.
+     */
+    private static class Search {
+
+        private final int size;
+        private final long full;
+        private final long[] available;
+        private final long[] columns;
+        private final long[] left;
+        private final long[] right;
+        private final int[] queens;
+        private int row;
+
+        Search(int size) {
+            this.size = size;
+            this.full = mask(size);
+            this.available = new long[size + 1];
+            this.columns = new long[size + 1];
+            this.left = new long[size + 1];
+            this.right = new long[size + 1];
+            this.queens = new int[size];
+            this.available[0] = full;
+            this.row = size == 0 ? -2 : 0;
+        }
+
+        boolean next() {
+            if (row == -2) {
+                // the empty board has exactly one solution
+                row = -1;
+                return true;
+            }
+            while (row >= 0) {
+                long free = available[row];
+                if (free == 0) {
+                    row--;
+                    continue;
+                }
+                long bit = free & -free;
+                available[row] = free ^ bit;
+                queens[row] = Long.numberOfTrailingZeros(bit);
+
+                long c = columns[row] | bit;
+                long l = (left[row] | bit) << 1;
+                long r = (right[row] | bit) >>> 1;
+                if (row == size - 1) {
+                    return true;
+                }
+                row++;
+                columns[row] = c;
+                left[row] = l;
+                right[row] = r;
+                available[row] = full & ~(c | l | r);
+            }
+            return false;
+        }
+
+        int[] solution() {
+            return queens.clone();
+        }
+    }
+}
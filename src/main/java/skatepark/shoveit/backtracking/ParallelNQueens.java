@@ -0,0 +1,147 @@
+package skatepark.shoveit.backtracking;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Counts N-Queens solutions on a {@link ForkJoinPool}. The search tree is split into one task per valid placement of
+ * the first two rows, each counted with the {@link NQueens} bitboard search, and idle workers steal the remaining
+ * tasks. Only placements with the first queen on the left half of the board are searched: their mirror images are
+ * exactly the solutions with the first queen on the right half.
+ */
+public class ParallelNQueens {
+
+    /**
+     * Smaller boards are counted sequentially, splitting them costs more than it saves.
+     */
+    private static final int MIN_PARALLEL_SIZE = 6;
+
+    private final ForkJoinPool pool;
+
+    public ParallelNQueens() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public ParallelNQueens(ForkJoinPool pool) {
+        Objects.requireNonNull(pool, "pool should not be null.");
+        this.pool = pool;
+    }
+
+    public long count(int size) {
+        return submit(size).join();
+    }
+
+    /**
+     * @throws TimeoutException if the count is not finished within {@code timeout}, the search is then cancelled.
+     */
+    public long count(int size, long timeout, TimeUnit unit) throws TimeoutException, InterruptedException {
+        ForkJoinTask<Long> task = submit(size);
+        try {
+            return task.get(timeout, unit);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            task.cancel(true);
+        }
+    }
+
+    /**
+     * Starts counting in the background. Cancelling the returned task stops every running subtask within a few
+     * milliseconds.
+     */
+    public ForkJoinTask<Long> submit(int size) {
+        NQueens.checkSize(size);
+        return pool.submit(new CountTask(size));
+    }
+
+    @SuppressWarnings("serial")
+    private static class CountTask extends RecursiveTask<Long> {
+
+        private final int size;
+        private volatile boolean stopped;
+
+        CountTask(int size) {
+            this.size = size;
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            stopped = true;
+            return super.cancel(mayInterruptIfRunning);
+        }
+
+        @Override
+        protected Long compute() {
+            BooleanSupplier stop = () -> stopped;
+            if (size < MIN_PARALLEL_SIZE) {
+                return NQueens.count(size, 0, 0L, 0L, 0L, stop);
+            }
+            long full = NQueens.mask(size);
+            int middle = size / 2;
+
+            List<PlacementTask> tasks = new ArrayList<>();
+            for (int first = 0; first < middle; first++) {
+                addPlacements(tasks, full, first, full, stop);
+            }
+            if (size % 2 == 1) {
+                // with the first queen on the middle column, mirroring moves the second queen across the board
+                addPlacements(tasks, full, middle, (1L << middle) - 1, stop);
+            }
+            long count = 0;
+            for (PlacementTask task : invokeAll(tasks)) {
+                count += task.join();
+            }
+            return 2 * count;
+        }
+
+        private void addPlacements(List<PlacementTask> tasks, long full, int first, long secondColumns,
+                                   BooleanSupplier stop) {
+            long bit = 1L << first;
+            long columns = bit;
+            long left = bit << 1;
+            long right = bit >>> 1;
+
+            long free = full & secondColumns & ~(columns | left | right);
+            while (free != 0) {
+                long second = free & -free;
+                free ^= second;
+                tasks.add(new PlacementTask(size, columns | second, (left | second) << 1, (right | second) >>> 1,
+                        stop));
+            }
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static class PlacementTask extends RecursiveTask<Long> {
+
+        private final int size;
+        private final long columns;
+        private final long left;
+        private final long right;
+        private final BooleanSupplier stop;
+
+        PlacementTask(int size, long columns, long left, long right, BooleanSupplier stop) {
+            this.size = size;
+            this.columns = columns;
+            this.left = left;
+            this.right = right;
+            this.stop = stop;
+        }
+
+        @Override
+        protected Long compute() {
+            if (stop.getAsBoolean()) {
+                return 0L;
+            }
+            return NQueens.count(size, 2, columns, left, right, stop);
+        }
+    }
+}
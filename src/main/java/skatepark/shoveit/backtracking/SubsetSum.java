@@ -1,63 +1,469 @@
 package skatepark.shoveit.backtracking;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
-import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+/**
+ * Finds the non-empty subsets of an array of values adding up to a target. Subsets are taken by position, so equal
+ * values at different positions make different subsets.
+ * <p>
+ * {@link Mode#MEET_IN_THE_MIDDLE} splits the values in two halves and lists the sums of each half in sorted order,
+ * using {@code O(2^(n/2))} memory, up to {@link #MAX_MEET_IN_THE_MIDDLE_SIZE} values.
+ * {@link Mode#DYNAMIC_PROGRAMMING} counts the subsets reaching every possible sum, using memory proportional to the
+ * distance between the sum of the negative values and the sum of the positive ones, up to
+ * {@link #MAX_DYNAMIC_PROGRAMMING_RANGE}, whatever the number of values.
+ */
 public class SubsetSum {
 
+    public enum Mode {
+        MEET_IN_THE_MIDDLE,
+        DYNAMIC_PROGRAMMING
+    }
+
+    public static final int MAX_MEET_IN_THE_MIDDLE_SIZE = 44;
+
+    public static final int MAX_DYNAMIC_PROGRAMMING_RANGE = 1 << 26;
+
+    public static final int MAX_WALK_SIZE = 63;
+
+    private final Mode mode;
+
+    public SubsetSum() {
+        this(Mode.MEET_IN_THE_MIDDLE);
+    }
+
+    public SubsetSum(Mode mode) {
+        Objects.requireNonNull(mode, "mode should not be null.");
+        this.mode = mode;
+    }
+
+    /**
+     * @return every non-empty subset of {@code set} adding up to zero.
+     */
     public Set<Set<Integer>> calc(Set<Integer> set) {
         if (set == null || set.isEmpty()) {
             return new HashSet<>();
         }
-        List<Integer> list = new ArrayList<>(set);
+        int values[] = set.stream().mapToInt(Integer::intValue).toArray();
+        return subsets(values, 0)
+                .map(subset -> IntStream.of(subset).boxed().collect(Collectors.toSet()))
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Counts the non-empty subsets adding up to {@code target}. Counts beyond {@code Long.MAX_VALUE} overflow.
+     */
+    public long count(int values[], long target) {
+        Objects.requireNonNull(values, "values should not be null.");
+        return mode == Mode.MEET_IN_THE_MIDDLE ? countMeetInTheMiddle(values, target, false)
+                : countDynamicProgramming(values, target);
+    }
+
+    public boolean exists(int values[], long target) {
+        Objects.requireNonNull(values, "values should not be null.");
+        return mode == Mode.MEET_IN_THE_MIDDLE ? countMeetInTheMiddle(values, target, true) > 0
+                : existsDynamicProgramming(values, target);
+    }
+
+    /**
+     * Lazily enumerates the non-empty subsets adding up to {@code target}, each one holding its values in their
+     * original order. Enumeration always runs the meet in the middle search, whatever the mode.
+     */
+    public Stream<int[]> subsets(int values[], long target) {
+        Objects.requireNonNull(values, "values should not be null.");
+        checkMeetInTheMiddle(values);
+        int middle = values.length / 2;
+        Iterator<int[]> iterator = new MatchIterator(values, middle, sortedSums(values, 0, middle, true),
+                sortedSums(values, middle, values.length, true), target);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Lazily enumerates the non-empty subsets adding up to {@code target} by walking every subset in Gray code order:
+     * each step adds or removes a single value, so the running sum is updated in {@code O(1)}. Memory stays constant
+     * whatever the number of values, and the walk stops as soon as {@code maxResults} subsets are found, but visiting
+     * every subset takes {@code O(2^n)} steps.
+     */
+    public Stream<int[]> walk(int values[], long target, long maxResults) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator(values, target, maxResults),
+                Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Iterator version of {@link #walk}.
+     */
+    public Iterator<int[]> iterator(int values[], long target, long maxResults) {
+        Objects.requireNonNull(values, "values should not be null.");
+        if (values.length > MAX_WALK_SIZE) {
+            throw new IllegalArgumentException("the walk supports up to " + MAX_WALK_SIZE + " values, got "
+                    + values.length + ".");
+        }
+        if (maxResults < 0) {
+            throw new IllegalArgumentException("maxResults should not be negative.");
+        }
+        return new GrayCodeIterator(values, target, maxResults);
+    }
+
+    /**
+     * @param first whether to stop at the first matching pair of runs.
+     */
+    private long countMeetInTheMiddle(int values[], long target, boolean first) {
+        checkMeetInTheMiddle(values);
+        int middle = values.length / 2;
+        long left[] = sortedSums(values, 0, middle, false).sums;
+        long right[] = sortedSums(values, middle, values.length, false).sums;
+
+        long count = 0;
+        int i = 0;
+        int j = right.length - 1;
+        while (i < left.length && j >= 0) {
+            long sum = left[i] + right[j];
+            if (sum < target) {
+                i++;
+            } else if (sum > target) {
+                j--;
+            } else {
+                long leftRun = 0;
+                long leftSum = left[i];
+                while (i < left.length && left[i] == leftSum) {
+                    leftRun++;
+                    i++;
+                }
+                long rightRun = 0;
+                long rightSum = right[j];
+                while (j >= 0 && right[j] == rightSum) {
+                    rightRun++;
+                    j--;
+                }
+                count += leftRun * rightRun;
+                if (leftSum == 0 && rightSum == 0) {
+                    // both runs hold the empty subset of their half
+                    count--;
+                }
+                if (first && count > 0) {
+                    return count;
+                }
+            }
+        }
+        return count;
+    }
+
+    private long countDynamicProgramming(int values[], long target) {
+        long offset = -negativeSum(values);
+        int range = checkDynamicProgramming(values, offset);
+        if (target + offset < 0 || target + offset >= range) {
+            return 0;
+        }
+        long counts[] = new long[range];
+        counts[(int) offset] = 1;
+        for (int value : values) {
+            if (value > 0) {
+                for (int s = range - 1; s >= value; s--) {
+                    counts[s] += counts[s - value];
+                }
+            } else if (value < 0) {
+                for (int s = 0; s < range + value; s++) {
+                    counts[s] += counts[s - value];
+                }
+            } else {
+                for (int s = 0; s < range; s++) {
+                    counts[s] <<= 1;
+                }
+            }
+        }
+        long count = counts[(int) (target + offset)];
+        return target == 0 ? count - 1 : count;
+    }
+
+    private boolean existsDynamicProgramming(int values[], long target) {
+        long offset = -negativeSum(values);
+        int range = checkDynamicProgramming(values, offset);
+        if (target + offset < 0 || target + offset >= range) {
+            return false;
+        }
+        // reachable sums of non-empty subsets only, so the target zero needs no special case
+        boolean reachable[] = new boolean[range];
+        for (int value : values) {
+            if (value >= 0) {
+                for (int s = range - 1; s >= value; s--) {
+                    reachable[s] |= reachable[s - value];
+                }
+            } else {
+                for (int s = 0; s < range + value; s++) {
+                    reachable[s] |= reachable[s - value];
+                }
+            }
+            reachable[(int) (value + offset)] = true;
+        }
+        return reachable[(int) (target + offset)];
+    }
+
+    private long negativeSum(int values[]) {
+        long sum = 0;
+        for (int value : values) {
+            if (value < 0) {
+                sum += value;
+            }
+        }
+        return sum;
+    }
 
-        Set<Set<Integer>> combinations = generateCombinations(set.size(), set.size());
-        Set<Set<Integer>> result = new HashSet<>();
-        Iterator<Set<Integer>> iterator = combinations.iterator();
-        while (iterator.hasNext()) {
-            Set<Integer> subset = iterator.next();
+    private int checkDynamicProgramming(int values[], long offset) {
+        long range = offset + 1;
+        for (int value : values) {
+            if (value > 0) {
+                range += value;
+            }
+        }
+        if (range > MAX_DYNAMIC_PROGRAMMING_RANGE) {
+            throw new IllegalArgumentException("values span " + range + " sums, more than "
+                    + MAX_DYNAMIC_PROGRAMMING_RANGE + ", use the meet in the middle mode.");
+        }
+        return (int) range;
+    }
 
-            int sum = subset.stream()
-                    .map(list::get)
-                    .mapToInt(Integer::intValue)
-                    .sum();
+    private void checkMeetInTheMiddle(int values[]) {
+        if (values.length > MAX_MEET_IN_THE_MIDDLE_SIZE) {
+            throw new IllegalArgumentException("meet in the middle supports up to " + MAX_MEET_IN_THE_MIDDLE_SIZE
+                    + " values, got " + values.length + ".");
+        }
+    }
+
+    /**
+     * Lists the sums of every subset of {@code values[from, to)} in ascending order, merging the sorted sums without
+     * the next value with the same sums shifted by it, in {@code O(2^n)}.
+     */
+    private Sums sortedSums(int values[], int from, int to, boolean withMasks) {
+        int length = 1 << (to - from);
+        long sums[] = new long[length];
+        long merged[] = new long[length];
+        int masks[] = withMasks ? new int[length] : null;
+        int mergedMasks[] = withMasks ? new int[length] : null;
 
-            if (sum == 0) {
-                result.add(subset.stream()
-                        .map(list::get)
-                        .collect(Collectors.toSet()));
+        int size = 1;
+        for (int k = from; k < to; k++) {
+            long value = values[k];
+            int bit = 1 << (k - from);
+            int i = 0;
+            int j = 0;
+            int o = 0;
+            while (i < size && j < size) {
+                long shifted = sums[j] + value;
+                if (sums[i] <= shifted) {
+                    if (withMasks) {
+                        mergedMasks[o] = masks[i];
+                    }
+                    merged[o++] = sums[i++];
+                } else {
+                    if (withMasks) {
+                        mergedMasks[o] = masks[j] | bit;
+                    }
+                    merged[o++] = shifted;
+                    j++;
+                }
             }
+            while (i < size) {
+                if (withMasks) {
+                    mergedMasks[o] = masks[i];
+                }
+                merged[o++] = sums[i++];
+            }
+            while (j < size) {
+                if (withMasks) {
+                    mergedMasks[o] = masks[j] | bit;
+                }
+                merged[o++] = sums[j++] + value;
+            }
+            long swap[] = sums;
+            sums = merged;
+            merged = swap;
+            if (withMasks) {
+                int swapMasks[] = masks;
+                masks = mergedMasks;
+                mergedMasks = swapMasks;
+            }
+            size <<= 1;
+        }
+        return new Sums(sums, masks);
+    }
+
+    private static class Sums {
+
+        private final long sums[];
+        private final int masks[];
+
+        Sums(long sums[], int masks[]) {
+            this.sums = sums;
+            this.masks = masks;
         }
-        return result;
     }
 
-    private Set<Set<Integer>> generateCombinations(int numberOfElements, int order) {
-        if (order == 1) {
-            return IntStream.range(0, numberOfElements)
-                    .mapToObj(Collections::singleton)
-                    .collect(Collectors.toSet());
+    /**
+     * Walks the left sums up and the right sums down, and for every pair of runs of equal sums adding up to the
+     * target, yields each combination of a left subset with a right subset.
+     */
+    private static class MatchIterator implements Iterator<int[]> {
+
+        private final int values[];
+        private final int middle;
+        private final Sums left;
+        private final Sums right;
+        private final long target;
+
+        private int i;
+        private int j;
+        private int leftFrom;
+        private int leftTo;
+        private int rightFrom;
+        private int rightTo;
+        private int leftCursor;
+        private int rightCursor;
+        private int next[];
+
+        MatchIterator(int values[], int middle, Sums left, Sums right, long target) {
+            this.values = values;
+            this.middle = middle;
+            this.left = left;
+            this.right = right;
+            this.target = target;
+            this.j = right.sums.length - 1;
         }
-        Set<Set<Integer>> result = new HashSet<>();
-        Set<Set<Integer>> subsets = generateCombinations(numberOfElements, order - 1);
-        result.addAll(subsets);
 
-        for (int i = 0; i < numberOfElements; i++) {
-            Iterator<Set<Integer>> iterator = subsets.iterator();
-            while (iterator.hasNext()) {
-                Set<Integer> elem = iterator.next();
-                if (elem.size() == order - 1 && !elem.contains(i)) {
-                    Set<Integer> newSet = new HashSet<>(elem);
-                    newSet.add(i);
-                    result.add(newSet);
+        @Override
+        public boolean hasNext() {
+            while (next == null) {
+                if (leftCursor < leftTo) {
+                    int leftMask = left.masks[leftCursor];
+                    int rightMask = right.masks[rightCursor];
+                    if (++rightCursor == rightTo) {
+                        rightCursor = rightFrom;
+                        leftCursor++;
+                    }
+                    if (leftMask != 0 || rightMask != 0) {
+                        next = toSubset(leftMask, rightMask);
+                    }
+                } else if (!nextRuns()) {
+                    return false;
                 }
             }
+            return true;
+        }
+
+        @Override
+        public int[] next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int subset[] = next;
+            next = null;
+            return subset;
+        }
+
+        private boolean nextRuns() {
+            long leftSums[] = left.sums;
+            long rightSums[] = right.sums;
+            while (i < leftSums.length && j >= 0) {
+                long sum = leftSums[i] + rightSums[j];
+                if (sum < target) {
+                    i++;
+                } else if (sum > target) {
+                    j--;
+                } else {
+                    leftFrom = i;
+                    while (i < leftSums.length && leftSums[i] == leftSums[leftFrom]) {
+                        i++;
+                    }
+                    leftTo = i;
+                    rightTo = j + 1;
+                    while (j >= 0 && rightSums[j] == rightSums[rightTo - 1]) {
+                        j--;
+                    }
+                    rightFrom = j + 1;
+                    leftCursor = leftFrom;
+                    rightCursor = rightFrom;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private int[] toSubset(int leftMask, int rightMask) {
+            int subset[] = new int[Integer.bitCount(leftMask) + Integer.bitCount(rightMask)];
+            int size = 0;
+            for (int mask = leftMask; mask != 0; mask &= mask - 1) {
+                subset[size++] = values[Integer.numberOfTrailingZeros(mask)];
+            }
+            for (int mask = rightMask; mask != 0; mask &= mask - 1) {
+                subset[size++] = values[middle + Integer.numberOfTrailingZeros(mask)];
+            }
+            return subset;
+        }
+    }
+
+    private static class GrayCodeIterator implements Iterator<int[]> {
+
+        private final int values[];
+        private final long target;
+        private final long end;
+        private long remaining;
+        private long step;
+        private long mask;
+        private long sum;
+        private boolean ready;
+
+        GrayCodeIterator(int values[], long target, long maxResults) {
+            this.values = values;
+            this.target = target;
+            this.end = 1L << values.length;
+            this.remaining = maxResults;
+            this.step = 1;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (ready) {
+                return true;
+            }
+            if (remaining == 0) {
+                return false;
+            }
+            // the step counter overflows to 1L << 63 exactly when 63 values are exhausted
+            while (step != end) {
+                int index = Long.numberOfTrailingZeros(step++);
+                long bit = 1L << index;
+                mask ^= bit;
+                sum += (mask & bit) != 0 ? values[index] : -values[index];
+                if (sum == target && mask != 0) {
+                    remaining--;
+                    ready = true;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public int[] next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            ready = false;
+            int subset[] = new int[Long.bitCount(mask)];
+            int size = 0;
+            for (long m = mask; m != 0; m &= m - 1) {
+                subset[size++] = values[Long.numberOfTrailingZeros(m)];
+            }
+            return subset;
         }
-        return result;
     }
 }
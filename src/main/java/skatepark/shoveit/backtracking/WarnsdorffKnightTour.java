@@ -0,0 +1,183 @@
+package skatepark.shoveit.backtracking;
+
+import java.util.Arrays;
+
+/**
+ * Knight tour guided by Warnsdorff's rule: the knight always moves to the square with the fewest onward moves, ties
+ * going to the square farthest from the centre. The rule alone completes most boards in a single pass; when it
+ * runs into a dead end the search backtracks in the same order, up to a budget of moves.
+ * <p>
+ * The number of onward moves of every square is kept up to date as squares are visited and released, so each step
+ * costs a handful of array reads whatever the size of the board.
+ */
+public class WarnsdorffKnightTour implements ICheesBoard {
+
+    public static final long DEFAULT_MAX_MOVES = 10_000_000L;
+
+    private final long maxMoves;
+
+    public WarnsdorffKnightTour() {
+        this(DEFAULT_MAX_MOVES);
+    }
+
+    /**
+     * @param maxMoves moves tried, backtracked ones included, before giving up.
+     */
+    public WarnsdorffKnightTour(long maxMoves) {
+        if (maxMoves < 1) {
+            throw new IllegalArgumentException("maxMoves should be positive.");
+        }
+        this.maxMoves = maxMoves;
+    }
+
+    /**
+     * @return the step at which each square is visited, or null if the start is off the board or no tour was found.
+     */
+    public int[][] calc(int rows, int columns, int row, int column) {
+        return calc(rows, columns, row, column, false);
+    }
+
+    /**
+     * @param closed whether the last square must be a knight move away from the first one.
+     */
+    public int[][] calc(int rows, int columns, int row, int column, boolean closed) {
+        if (rows < 1 || columns < 1 || row < 0 || column < 0 || row >= rows || column >= columns) {
+            return null;
+        }
+        if (closed && (rows * columns) % 2 == 1) {
+            // every move changes colour, a closed tour needs as many light squares as dark ones
+            return null;
+        }
+        KnightMoves moves = new KnightMoves(rows, columns);
+        int first = row * columns + column;
+        int board[];
+        if (closed) {
+            // a closed tour is a cycle, so it can be searched from the centre, where the rule works best, and then
+            // renumbered to start on the requested square
+            board = tour(moves, (rows / 2) * columns + columns / 2, true);
+            if (board != null) {
+                rotate(board, board[first]);
+            }
+        } else {
+            board = tour(moves, first, false);
+        }
+        return board == null ? null : moves.toMatrix(board);
+    }
+
+    private void rotate(int board[], int offset) {
+        for (int i = 0; i < board.length; i++) {
+            board[i] = (board[i] - offset + board.length) % board.length;
+        }
+    }
+
+    private int[] tour(KnightMoves moves, int first, boolean closed) {
+        int cells = moves.cells();
+        int last = cells - 1;
+
+        int board[] = new int[cells];
+        int degree[] = new int[cells];
+        int distance[] = new int[cells];
+        Arrays.fill(board, -1);
+        for (int cell = 0; cell < cells; cell++) {
+            degree[cell] = moves.degree(cell);
+            int dr = 2 * (cell / moves.columns) - moves.rows + 1;
+            int dc = 2 * (cell % moves.columns) - moves.columns + 1;
+            distance[cell] = dr * dr + dc * dc;
+        }
+
+        int path[] = new int[cells];
+        int candidates[] = new int[cells * 8];
+        int next[] = new int[cells];
+        int count[] = new int[cells];
+
+        path[0] = first;
+        board[first] = 0;
+        visit(moves, degree, first);
+        if (cells == 1) {
+            return closed ? null : board;
+        }
+        count[0] = order(moves, board, degree, distance, first, candidates, 0);
+
+        long moved = 0;
+        int depth = 0;
+        while (depth >= 0) {
+            if (next[depth] == count[depth]) {
+                release(moves, degree, path[depth]);
+                board[path[depth]] = -1;
+                depth--;
+                continue;
+            }
+            int cell = candidates[depth * 8 + next[depth]++];
+            int step = depth + 1;
+            if (degree[cell] == 0 && step != last) {
+                continue;
+            }
+            if (++moved > maxMoves) {
+                return null;
+            }
+            if (step == last) {
+                if (!closed || moves.isMove(cell, first)) {
+                    board[cell] = step;
+                    return board;
+                }
+                continue;
+            }
+
+            board[cell] = step;
+            visit(moves, degree, cell);
+            if (closed && degree[first] == 0) {
+                // no free square is left to close the tour from
+                release(moves, degree, cell);
+                board[cell] = -1;
+                continue;
+            }
+            depth = step;
+            path[depth] = cell;
+            next[depth] = 0;
+            count[depth] = order(moves, board, degree, distance, cell, candidates, depth * 8);
+        }
+        return null;
+    }
+
+    private void visit(KnightMoves moves, int degree[], int cell) {
+        for (int i = moves.start[cell]; i < moves.start[cell + 1]; i++) {
+            degree[moves.targets[i]]--;
+        }
+    }
+
+    private void release(KnightMoves moves, int degree[], int cell) {
+        for (int i = moves.start[cell]; i < moves.start[cell + 1]; i++) {
+            degree[moves.targets[i]]++;
+        }
+    }
+
+    /**
+     * Writes the free targets of {@code cell} to {@code candidates} from {@code offset} on, best first.
+     *
+     * @return how many were written.
+     */
+    private int order(KnightMoves moves, int board[], int degree[], int distance[], int cell, int candidates[],
+                      int offset) {
+        int size = 0;
+        for (int i = moves.start[cell]; i < moves.start[cell + 1]; i++) {
+            int target = moves.targets[i];
+            if (board[target] != -1) {
+                continue;
+            }
+            int j = offset + size++;
+            while (j > offset && isBetter(target, candidates[j - 1], degree, distance)) {
+                candidates[j] = candidates[j - 1];
+                j--;
+            }
+            candidates[j] = target;
+        }
+        return size;
+    }
+
+    private boolean isBetter(int cell, int other, int degree[], int distance[]) {
+        if (degree[cell] != degree[other]) {
+            return degree[cell] < degree[other];
+        }
+        return distance[cell] > distance[other];
+    }
+}
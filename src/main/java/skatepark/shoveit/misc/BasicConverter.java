@@ -1,29 +1,332 @@
 package skatepark.shoveit.misc;
 
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Objects;
 
+/**
+ * Hexadecimal conversions over the full {@code int} and {@code long} ranges. Negative numbers are written as their
+ * two's complement, like {@link Integer#toHexString}, and read back the same way, so {@code "ffffffff"} is -1.
+ * Parsing accepts both cases and rejects anything else with a {@link NumberFormatException}.
+ * <p>
+ * Digits are looked up in tables, and the buffer variants write into or read from caller-supplied arrays without
+ * allocating anything. The batch variants convert whole arrays to and from fixed-width ASCII digits in a
+ * {@link ByteBuffer}, 8 bytes at a time.
+ */
 public class BasicConverter {
 
-    private static final String TABLE[] = {"0", "1", "2", "3", "4", "5", "6", "7", "8", "9", "a", "b", "c", "d", "e", "f"};
+    static final char DIGITS[] = "0123456789abcdef".toCharArray();
+    private static final byte VALUES[] = new byte[256];
 
-    public int hex2Dec(String hexadecimal) {
+    static {
+        Arrays.fill(VALUES, (byte) -1);
+        for (int i = 0; i < DIGITS.length; i++) {
+            VALUES[DIGITS[i]] = (byte) i;
+            VALUES[Character.toUpperCase(DIGITS[i])] = (byte) i;
+        }
+    }
+
+    public int hex2Dec(CharSequence hexadecimal) {
         Objects.requireNonNull(hexadecimal, "hexadecimal should not be null.");
+        return (int) parse(hexadecimal, 0, hexadecimal.length(), Integer.SIZE);
+    }
+
+    public int hex2Dec(char buffer[], int offset, int length) {
+        return (int) parse(buffer, offset, length, Integer.SIZE);
+    }
+
+    /**
+     * @param buffer ASCII digits.
+     */
+    public int hex2Dec(byte buffer[], int offset, int length) {
+        return (int) parse(buffer, offset, length, Integer.SIZE);
+    }
+
+    public long hex2Long(CharSequence hexadecimal) {
+        Objects.requireNonNull(hexadecimal, "hexadecimal should not be null.");
+        return parse(hexadecimal, 0, hexadecimal.length(), Long.SIZE);
+    }
+
+    public long hex2Long(char buffer[], int offset, int length) {
+        return parse(buffer, offset, length, Long.SIZE);
+    }
+
+    public long hex2Long(byte buffer[], int offset, int length) {
+        return parse(buffer, offset, length, Long.SIZE);
+    }
+
+    public String dec2Hex(int decimal) {
+        char buffer[] = new char[hexLength(decimal & 0xffffffffL)];
+        write(decimal & 0xffffffffL, buffer, 0, buffer.length);
+        return new String(buffer);
+    }
+
+    /**
+     * @return the number of characters written at {@code offset}, at most 8.
+     */
+    public int dec2Hex(int decimal, char buffer[], int offset) {
+        int length = hexLength(decimal & 0xffffffffL);
+        write(decimal & 0xffffffffL, buffer, offset, length);
+        return length;
+    }
+
+    /**
+     * @return the number of ASCII digits written at {@code offset}, at most 8.
+     */
+    public int dec2Hex(int decimal, byte buffer[], int offset) {
+        int length = hexLength(decimal & 0xffffffffL);
+        write(decimal & 0xffffffffL, buffer, offset, length);
+        return length;
+    }
+
+    public String long2Hex(long decimal) {
+        char buffer[] = new char[hexLength(decimal)];
+        write(decimal, buffer, 0, buffer.length);
+        return new String(buffer);
+    }
+
+    /**
+     * @return the number of characters written at {@code offset}, at most 16.
+     */
+    public int long2Hex(long decimal, char buffer[], int offset) {
+        int length = hexLength(decimal);
+        write(decimal, buffer, offset, length);
+        return length;
+    }
+
+    /**
+     * @return the number of ASCII digits written at {@code offset}, at most 16.
+     */
+    public int long2Hex(long decimal, byte buffer[], int offset) {
+        int length = hexLength(decimal);
+        write(decimal, buffer, offset, length);
+        return length;
+    }
+
+    /**
+     * @param radix between 2 and 36, see {@link RadixConverter} for base 62, base 64 and reusable converters.
+     */
+    public String dec2Radix(long decimal, int radix) {
+        return RadixConverter.of(radix).toString(decimal);
+    }
+
+    public long radix2Dec(CharSequence text, int radix) {
+        return RadixConverter.of(radix).parseLong(text);
+    }
 
-        int result = 0;
-        char characters[] = hexadecimal.toCharArray();
-        for (int i = 0; i < characters.length; i++) {
-            int value = Character.getNumericValue(characters[i]);
-            result += value * (Math.pow(16, characters.length - 1 - i));
+    /**
+     * Writes each value as 8 ASCII digits, leading zeros included, so they can be read back without separators.
+     *
+     * @throws BufferOverflowException if {@code target} cannot hold them all, in which case nothing is written.
+     */
+    public void dec2Hex(int values[], int offset, int length, ByteBuffer target) {
+        checkRange(values.length, offset, length);
+        if (target.remaining() < (long) length * 8) {
+            throw new BufferOverflowException();
+        }
+        boolean bigEndian = target.order() == ByteOrder.BIG_ENDIAN;
+        for (int i = offset; i < offset + length; i++) {
+            long digits = digits(values[i]);
+            target.putLong(bigEndian ? digits : Long.reverseBytes(digits));
+        }
+    }
+
+    /**
+     * Reads values written by {@link #dec2Hex(int[], int, int, ByteBuffer)}, 8 digits each.
+     *
+     * @throws BufferUnderflowException if {@code source} does not hold them all, in which case nothing is read.
+     * @throws NumberFormatException if any of them has an invalid digit, in which case nothing is read or written.
+     */
+    public void hex2Dec(ByteBuffer source, int values[], int offset, int length) {
+        checkRange(values.length, offset, length);
+        if (source.remaining() < (long) length * 8) {
+            throw new BufferUnderflowException();
+        }
+        boolean bigEndian = source.order() == ByteOrder.BIG_ENDIAN;
+        checkDigits(source, length, bigEndian);
+        for (int i = offset; i < offset + length; i++) {
+            long digits = source.getLong();
+            values[i] = (int) value(bigEndian ? digits : Long.reverseBytes(digits));
+        }
+    }
+
+    /**
+     * Writes each value as 16 ASCII digits, leading zeros included.
+     *
+     * @throws BufferOverflowException if {@code target} cannot hold them all, in which case nothing is written.
+     */
+    public void long2Hex(long values[], int offset, int length, ByteBuffer target) {
+        checkRange(values.length, offset, length);
+        if (target.remaining() < (long) length * 16) {
+            throw new BufferOverflowException();
+        }
+        boolean bigEndian = target.order() == ByteOrder.BIG_ENDIAN;
+        for (int i = offset; i < offset + length; i++) {
+            long high = digits((int) (values[i] >>> 32));
+            long low = digits((int) values[i]);
+            target.putLong(bigEndian ? high : Long.reverseBytes(high));
+            target.putLong(bigEndian ? low : Long.reverseBytes(low));
+        }
+    }
+
+    /**
+     * Reads values written by {@link #long2Hex(long[], int, int, ByteBuffer)}, 16 digits each.
+     *
+     * @throws BufferUnderflowException if {@code source} does not hold them all, in which case nothing is read.
+     * @throws NumberFormatException if any of them has an invalid digit, in which case nothing is read or written.
+     */
+    public void hex2Long(ByteBuffer source, long values[], int offset, int length) {
+        checkRange(values.length, offset, length);
+        if (source.remaining() < (long) length * 16) {
+            throw new BufferUnderflowException();
+        }
+        boolean bigEndian = source.order() == ByteOrder.BIG_ENDIAN;
+        checkDigits(source, length * 2, bigEndian);
+        for (int i = offset; i < offset + length; i++) {
+            long high = source.getLong();
+            long low = source.getLong();
+            high = value(bigEndian ? high : Long.reverseBytes(high));
+            low = value(bigEndian ? low : Long.reverseBytes(low));
+            values[i] = high << 32 | low;
+        }
+    }
+
+    /**
+     * Spreads the 8 nibbles of {@code value} over the 8 bytes of a long, the most significant first, and turns them
+     * into ASCII digits all at once: bytes above 9 overflow into bit 4 once 6 is added, which tells which ones need
+     * to skip from {@code '9'} to {@code 'a'}.
+     */
+    static long digits(int value) {
+        long x = value & 0xffffffffL;
+        x = (x | x << 16) & 0x0000ffff0000ffffL;
+        x = (x | x << 8) & 0x00ff00ff00ff00ffL;
+        x = (x | x << 4) & 0x0f0f0f0f0f0f0f0fL;
+        long letters = ((x + 0x0606060606060606L) >>> 4) & 0x0101010101010101L;
+        return x + 0x3030303030303030L + letters * ('a' - '9' - 1);
+    }
+
+    /**
+     * Reverse of {@link #digits}, for 8 ASCII digits of either case.
+     */
+    static long value(long digits) {
+        long result = 0;
+        int invalid = 0;
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            int value = VALUES[(int) (digits >>> shift) & 0xff];
+            invalid |= value;
+            result = result << 4 | value;
+        }
+        if (invalid < 0) {
+            byte characters[] = new byte[8];
+            ByteBuffer.wrap(characters).putLong(digits);
+            throw new NumberFormatException("invalid hexadecimal digits \""
+                    + new String(characters, StandardCharsets.ISO_8859_1) + "\"");
         }
         return result;
     }
 
-    public String dec2Hex(int decimal) {
-        if (decimal < 16) {
-            return TABLE[decimal];
+    /**
+     * Validates the next {@code groups} runs of 8 digits without moving {@code source}, so a batch fails before any
+     * value is written.
+     */
+    private static void checkDigits(ByteBuffer source, int groups, boolean bigEndian) {
+        int position = source.position();
+        for (int i = 0; i < groups; i++) {
+            long digits = source.getLong(position + i * 8);
+            value(bigEndian ? digits : Long.reverseBytes(digits));
+        }
+    }
+
+    private static int hexLength(long value) {
+        return Math.max(1, (Long.SIZE - Long.numberOfLeadingZeros(value) + 3) >>> 2);
+    }
+
+    private static void write(long value, char buffer[], int offset, int length) {
+        for (int i = offset + length - 1; i >= offset; i--) {
+            buffer[i] = DIGITS[(int) value & 0xf];
+            value >>>= 4;
+        }
+    }
+
+    private static void write(long value, byte buffer[], int offset, int length) {
+        for (int i = offset + length - 1; i >= offset; i--) {
+            buffer[i] = (byte) DIGITS[(int) value & 0xf];
+            value >>>= 4;
+        }
+    }
+
+    /**
+     * @param bits size of the result, leading zeros aside the digits must fit in it.
+     */
+    private static long parse(CharSequence digits, int offset, int length, int bits) {
+        checkLength(length);
+        long result = 0;
+        for (int i = offset; i < offset + length; i++) {
+            int value = digit(digits.charAt(i));
+            if (value < 0 || result >>> (bits - 4) != 0) {
+                throw invalid(digits.subSequence(offset, offset + length).toString(), i - offset, bits);
+            }
+            result = result << 4 | value;
+        }
+        return result;
+    }
+
+    private static long parse(char digits[], int offset, int length, int bits) {
+        checkRange(digits.length, offset, length);
+        checkLength(length);
+        long result = 0;
+        for (int i = offset; i < offset + length; i++) {
+            int value = digit(digits[i]);
+            if (value < 0 || result >>> (bits - 4) != 0) {
+                throw invalid(new String(digits, offset, length), i - offset, bits);
+            }
+            result = result << 4 | value;
+        }
+        return result;
+    }
+
+    private static long parse(byte digits[], int offset, int length, int bits) {
+        checkRange(digits.length, offset, length);
+        checkLength(length);
+        long result = 0;
+        for (int i = offset; i < offset + length; i++) {
+            int value = digit(digits[i] & 0xff);
+            if (value < 0 || result >>> (bits - 4) != 0) {
+                throw invalid(new String(digits, offset, length, StandardCharsets.ISO_8859_1), i - offset, bits);
+            }
+            result = result << 4 | value;
+        }
+        return result;
+    }
+
+    /**
+     * @return the value of an hexadecimal digit, or -1.
+     */
+    static int digit(int character) {
+        return character < VALUES.length ? VALUES[character] : -1;
+    }
+
+    private static NumberFormatException invalid(String input, int index, int bits) {
+        if (digit(input.charAt(index)) < 0) {
+            return new NumberFormatException("invalid hexadecimal digit '" + input.charAt(index) + "' at index "
+                    + index + " in \"" + input + "\"");
+        }
+        return new NumberFormatException("\"" + input + "\" does not fit in " + bits + " bits");
+    }
+
+    private static void checkRange(int size, int offset, int length) {
+        if (offset < 0 || length < 0 || offset > size - length) {
+            throw new IndexOutOfBoundsException("offset: " + offset + ", length: " + length + ", size: " + size);
+        }
+    }
+
+    private static void checkLength(int length) {
+        if (length == 0) {
+            throw new NumberFormatException("hexadecimal should not be empty.");
         }
-        int value = decimal / 16;
-        int reminder = decimal % 16;
-        return dec2Hex(value) + TABLE[reminder];
     }
 }
@@ -0,0 +1,95 @@
+package skatepark.shoveit.misc;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Streams bytes to and from hexadecimal text, two lower case ASCII digits per byte, for dumps too large to hold in
+ * memory. Both directions work through fixed buffers, the encoder turning 4 bytes into 8 digits at a time with
+ * {@link BasicConverter#digits}. Decoding accepts either case and skips whitespace, so wrapped dumps read fine.
+ */
+public final class HexCodec {
+
+    private static final int BUFFER_SIZE = 1 << 13;
+
+    private HexCodec() {
+    }
+
+    /**
+     * Reads {@code in} to its end, without closing either stream.
+     *
+     * @return the number of bytes encoded.
+     */
+    public static long encode(InputStream in, OutputStream out) throws IOException {
+        byte input[] = new byte[BUFFER_SIZE];
+        byte output[] = new byte[BUFFER_SIZE * 2];
+        ByteBuffer view = ByteBuffer.wrap(output);
+        long total = 0;
+        int pending = 0;
+        int read;
+        while ((read = in.read(input, pending, input.length - pending)) >= 0) {
+            int available = pending + read;
+            // a partial word waits for the next read, only the very end is encoded byte by byte
+            int words = available >>> 2;
+            for (int i = 0; i < words; i++) {
+                int word = (input[i * 4] & 0xff) << 24 | (input[i * 4 + 1] & 0xff) << 16
+                        | (input[i * 4 + 2] & 0xff) << 8 | input[i * 4 + 3] & 0xff;
+                view.putLong(i * 8, BasicConverter.digits(word));
+            }
+            out.write(output, 0, words * 8);
+            pending = available - words * 4;
+            System.arraycopy(input, words * 4, input, 0, pending);
+            total += words * 4;
+        }
+        for (int i = 0; i < pending; i++) {
+            output[i * 2] = (byte) BasicConverter.DIGITS[(input[i] >> 4) & 0xf];
+            output[i * 2 + 1] = (byte) BasicConverter.DIGITS[input[i] & 0xf];
+        }
+        out.write(output, 0, pending * 2);
+        return total + pending;
+    }
+
+    /**
+     * Reads {@code in} to its end, without closing either stream.
+     *
+     * @return the number of bytes decoded.
+     * @throws IOException if a character is neither a digit nor whitespace, or the digits are odd in number.
+     */
+    public static long decode(InputStream in, OutputStream out) throws IOException {
+        byte input[] = new byte[BUFFER_SIZE * 2];
+        byte output[] = new byte[BUFFER_SIZE];
+        long total = 0;
+        long offset = 0;
+        int high = -1;
+        int read;
+        while ((read = in.read(input)) >= 0) {
+            int written = 0;
+            for (int i = 0; i < read; i++) {
+                int character = input[i] & 0xff;
+                int value = BasicConverter.digit(character);
+                if (value < 0) {
+                    if (Character.isWhitespace(character)) {
+                        continue;
+                    }
+                    throw new IOException("invalid hexadecimal digit '" + (char) character + "' at offset "
+                            + (offset + i));
+                }
+                if (high < 0) {
+                    high = value;
+                } else {
+                    output[written++] = (byte) (high << 4 | value);
+                    high = -1;
+                }
+            }
+            out.write(output, 0, written);
+            total += written;
+            offset += read;
+        }
+        if (high >= 0) {
+            throw new IOException("odd number of hexadecimal digits, the last one is missing its pair");
+        }
+        return total;
+    }
+}
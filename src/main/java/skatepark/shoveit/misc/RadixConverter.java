@@ -0,0 +1,379 @@
+package skatepark.shoveit.misc;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Converts {@code int} and {@code long} values to and from text in a given radix, for radixes 2 to 36 as well as
+ * base 62 and base 64 identifiers. Output follows {@link Long#toString(long, int)}: digits of the magnitude, with a
+ * leading {@code '-'} for negative values. Parsing accepts a leading {@code '-'}, or {@code '+'} when it is not a
+ * digit, and reports malformed or overflowing input with a {@link NumberFormatException}.
+ * <p>
+ * Every converter precomputes its tables once: the value of every character, every pair of digits so that
+ * formatting divides once per two digits, and the powers of the radix to size the output upfront. Power of two
+ * radixes shift instead of dividing, and inputs too short to overflow are parsed without overflow checks.
+ * Converters are immutable and can be shared between threads.
+ */
+public final class RadixConverter {
+
+    public static final int MIN_RADIX = 2;
+    public static final int MAX_RADIX = 36;
+
+    private static final String DIGITS = "0123456789abcdefghijklmnopqrstuvwxyz";
+    private static final String BASE_62 = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+    private static final String BASE_64 = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+
+    /**
+     * Filled lazily, a converter built twice by racing threads is harmless as all its fields are final.
+     */
+    private static final RadixConverter CONVERTERS[] = new RadixConverter[MAX_RADIX + 1];
+    private static final RadixConverter BASE_62_CONVERTER = new RadixConverter(BASE_62, false);
+    private static final RadixConverter BASE_64_CONVERTER = new RadixConverter(BASE_64, false);
+
+    private final int radix;
+    private final String name;
+    private final char digits[];
+    private final byte values[];
+    private final char pairs[];
+    /**
+     * log2 of the radix, or -1 when it is not a power of two.
+     */
+    private final int shift;
+    /**
+     * Powers of the radix up to {@code Long.MAX_VALUE}, {@code powers[k]} being {@code radix^k}.
+     */
+    private final long powers[];
+    /**
+     * Inputs with no more digits than these cannot overflow, and are read without checking.
+     */
+    private final int safeLongDigits;
+    private final int safeIntDigits;
+    /**
+     * Standard decimal digits, the JDK has dedicated code for them.
+     */
+    private final boolean decimal;
+    private final long longMultiplyMin;
+    private final long longMultiplyMinPositive;
+    private final int intMultiplyMin;
+    private final int intMultiplyMinPositive;
+
+    private RadixConverter(String alphabet, boolean ignoreCase) {
+        this.radix = alphabet.length();
+        this.name = "base " + radix;
+        this.digits = alphabet.toCharArray();
+        this.values = new byte[128];
+        Arrays.fill(values, (byte) -1);
+        for (int i = 0; i < radix; i++) {
+            char digit = digits[i];
+            if (digit >= values.length || digit == '-' || values[digit] >= 0) {
+                throw new IllegalArgumentException("invalid alphabet: " + alphabet);
+            }
+            values[digit] = (byte) i;
+            if (ignoreCase) {
+                values[Character.toUpperCase(digit)] = (byte) i;
+            }
+        }
+
+        this.pairs = new char[radix * radix * 2];
+        for (int i = 0; i < radix * radix; i++) {
+            pairs[i * 2] = digits[i / radix];
+            pairs[i * 2 + 1] = digits[i % radix];
+        }
+        this.shift = Integer.bitCount(radix) == 1 ? Integer.numberOfTrailingZeros(radix) : -1;
+
+        long power = 1;
+        int count = 1;
+        while (power <= Long.MAX_VALUE / radix) {
+            power *= radix;
+            count++;
+        }
+        this.powers = new long[count];
+        powers[0] = 1;
+        for (int k = 1; k < count; k++) {
+            powers[k] = powers[k - 1] * radix;
+        }
+
+        this.safeLongDigits = count - 1;
+        int safeIntDigits = 0;
+        while (safeIntDigits < count - 1 && powers[safeIntDigits + 1] <= Integer.MAX_VALUE) {
+            safeIntDigits++;
+        }
+        this.safeIntDigits = safeIntDigits;
+        this.decimal = alphabet.equals(DIGITS.substring(0, 10));
+
+        this.longMultiplyMin = Long.MIN_VALUE / radix;
+        this.longMultiplyMinPositive = -Long.MAX_VALUE / radix;
+        this.intMultiplyMin = Integer.MIN_VALUE / radix;
+        this.intMultiplyMinPositive = -Integer.MAX_VALUE / radix;
+    }
+
+    /**
+     * @param radix between {@link #MIN_RADIX} and {@link #MAX_RADIX}, with digits {@code 0-9} then {@code a-z},
+     *              read in either case.
+     */
+    public static RadixConverter of(int radix) {
+        if (radix < MIN_RADIX || radix > MAX_RADIX) {
+            throw new IllegalArgumentException("radix should be between " + MIN_RADIX + " and " + MAX_RADIX
+                    + ", not " + radix);
+        }
+        RadixConverter converter = CONVERTERS[radix];
+        if (converter == null) {
+            converter = new RadixConverter(DIGITS.substring(0, radix), true);
+            CONVERTERS[radix] = converter;
+        }
+        return converter;
+    }
+
+    /**
+     * Digits {@code 0-9}, {@code A-Z} then {@code a-z}, case sensitive.
+     */
+    public static RadixConverter base62() {
+        return BASE_62_CONVERTER;
+    }
+
+    /**
+     * Digits of RFC 4648 in their order of value: {@code A-Z}, {@code a-z}, {@code 0-9}, {@code +} and {@code /}.
+     */
+    public static RadixConverter base64() {
+        return BASE_64_CONVERTER;
+    }
+
+    /**
+     * @param alphabet the digits in order of value, ASCII and without {@code '-'}.
+     */
+    public static RadixConverter of(String alphabet) {
+        Objects.requireNonNull(alphabet, "alphabet should not be null.");
+        if (alphabet.length() < MIN_RADIX) {
+            throw new IllegalArgumentException("alphabet should hold at least " + MIN_RADIX + " digits.");
+        }
+        return new RadixConverter(alphabet, false);
+    }
+
+    public int radix() {
+        return radix;
+    }
+
+    public String toString(int value) {
+        if (decimal) {
+            return Integer.toString(value);
+        }
+        char buffer[] = new char[length(value)];
+        write(value, buffer, 0, buffer.length);
+        return new String(buffer);
+    }
+
+    public String toString(long value) {
+        if (decimal) {
+            return Long.toString(value);
+        }
+        char buffer[] = new char[length(value)];
+        write(value, buffer, 0, buffer.length);
+        return new String(buffer);
+    }
+
+    /**
+     * @return the number of characters written at {@code offset}.
+     */
+    public int write(int value, char buffer[], int offset) {
+        int length = length(value);
+        checkRange(buffer.length, offset, length);
+        write(value, buffer, offset, length);
+        return length;
+    }
+
+    /**
+     * @return the number of characters written at {@code offset}.
+     */
+    public int write(long value, char buffer[], int offset) {
+        int length = length(value);
+        checkRange(buffer.length, offset, length);
+        write(value, buffer, offset, length);
+        return length;
+    }
+
+    public int parseInt(CharSequence text) {
+        Objects.requireNonNull(text, "text should not be null.");
+        int length = text.length();
+        int index = start(text, length);
+        boolean negative = text.charAt(0) == '-';
+        if (length - index <= safeIntDigits) {
+            int result = 0;
+            for (; index < length; index++) {
+                result = result * radix + digit(text, index);
+            }
+            return negative ? -result : result;
+        }
+        int limit = negative ? Integer.MIN_VALUE : -Integer.MAX_VALUE;
+        int multiplyMin = negative ? intMultiplyMin : intMultiplyMinPositive;
+
+        // accumulates negatively, as the negative range is the larger one
+        int result = 0;
+        for (; index < length; index++) {
+            int digit = digit(text, index);
+            if (result < multiplyMin) {
+                throw overflow(text, "an int");
+            }
+            result *= radix;
+            if (result < limit + digit) {
+                throw overflow(text, "an int");
+            }
+            result -= digit;
+        }
+        return negative ? result : -result;
+    }
+
+    public long parseLong(CharSequence text) {
+        Objects.requireNonNull(text, "text should not be null.");
+        int length = text.length();
+        int index = start(text, length);
+        boolean negative = text.charAt(0) == '-';
+        if (length - index <= safeLongDigits) {
+            long result = 0;
+            for (; index < length; index++) {
+                result = result * radix + digit(text, index);
+            }
+            return negative ? -result : result;
+        }
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long multiplyMin = negative ? longMultiplyMin : longMultiplyMinPositive;
+
+        long result = 0;
+        for (; index < length; index++) {
+            int digit = digit(text, index);
+            if (result < multiplyMin) {
+                throw overflow(text, "a long");
+            }
+            result *= radix;
+            if (result < limit + digit) {
+                throw overflow(text, "a long");
+            }
+            result -= digit;
+        }
+        return negative ? result : -result;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    private int length(long value) {
+        int sign = value < 0 ? 1 : 0;
+        if (shift > 0) {
+            long magnitude = value < 0 ? -value : value;
+            return sign + Math.max(1, (Long.SIZE - Long.numberOfLeadingZeros(magnitude) + shift - 1) / shift);
+        }
+        long negative = value < 0 ? value : -value;
+        int length = 1;
+        while (length < powers.length && negative <= -powers[length]) {
+            length++;
+        }
+        return sign + length;
+    }
+
+    /**
+     * Writes the value right aligned within {@code [offset, offset + length)}.
+     */
+    private void write(long value, char buffer[], int offset, int length) {
+        int index = offset + length;
+        if (shift > 0) {
+            // the magnitude of Long.MIN_VALUE is itself, read as unsigned
+            long magnitude = value < 0 ? -value : value;
+            int mask = radix - 1;
+            do {
+                buffer[--index] = digits[(int) magnitude & mask];
+                magnitude >>>= shift;
+            } while (magnitude != 0);
+        } else {
+            long negative = value < 0 ? value : -value;
+            int square = radix * radix;
+            while (negative <= -square) {
+                long quotient = negative / square;
+                int pair = (int) (quotient * square - negative) * 2;
+                negative = quotient;
+                buffer[--index] = pairs[pair + 1];
+                buffer[--index] = pairs[pair];
+            }
+            if (negative <= -radix) {
+                int pair = (int) -negative * 2;
+                buffer[--index] = pairs[pair + 1];
+                buffer[--index] = pairs[pair];
+            } else {
+                buffer[--index] = digits[(int) -negative];
+            }
+        }
+        if (value < 0) {
+            buffer[--index] = '-';
+        }
+    }
+
+    /**
+     * Same as the {@code long} version with 32 bit divisions, which are faster.
+     */
+    private void write(int value, char buffer[], int offset, int length) {
+        int index = offset + length;
+        if (shift > 0) {
+            int magnitude = value < 0 ? -value : value;
+            int mask = radix - 1;
+            do {
+                buffer[--index] = digits[magnitude & mask];
+                magnitude >>>= shift;
+            } while (magnitude != 0);
+        } else {
+            int negative = value < 0 ? value : -value;
+            int square = radix * radix;
+            while (negative <= -square) {
+                int quotient = negative / square;
+                int pair = (quotient * square - negative) * 2;
+                negative = quotient;
+                buffer[--index] = pairs[pair + 1];
+                buffer[--index] = pairs[pair];
+            }
+            if (negative <= -radix) {
+                int pair = -negative * 2;
+                buffer[--index] = pairs[pair + 1];
+                buffer[--index] = pairs[pair];
+            } else {
+                buffer[--index] = digits[-negative];
+            }
+        }
+        if (value < 0) {
+            buffer[--index] = '-';
+        }
+    }
+
+    /**
+     * @return the index of the first digit, after the sign if any.
+     */
+    private int start(CharSequence text, int length) {
+        if (length == 0) {
+            throw new NumberFormatException("empty " + name + " number");
+        }
+        char first = text.charAt(0);
+        int index = first == '-' || (first == '+' && (first >= values.length || values[first] < 0)) ? 1 : 0;
+        if (index == length) {
+            throw new NumberFormatException("no digits in \"" + text + "\"");
+        }
+        return index;
+    }
+
+    private int digit(CharSequence text, int index) {
+        char character = text.charAt(index);
+        int digit = character < values.length ? values[character] : -1;
+        if (digit < 0) {
+            throw new NumberFormatException("invalid " + name + " digit '" + character + "' at index " + index
+                    + " in \"" + text + "\"");
+        }
+        return digit;
+    }
+
+    private NumberFormatException overflow(CharSequence text, String type) {
+        return new NumberFormatException("\"" + text + "\" does not fit in " + type + " (" + name + ")");
+    }
+
+    private static void checkRange(int size, int offset, int length) {
+        if (offset < 0 || offset > size - length) {
+            throw new IndexOutOfBoundsException("offset: " + offset + ", length: " + length + ", size: " + size);
+        }
+    }
+}
@@ -15,6 +15,58 @@ public class BubbleSort implements ISort {
                     list[i + 1] = list[i];
                     list[i] = elem;
                     hasChanged = true;
+                    SortRecorder.moved(2);
+                }
+            }
+        } while (hasChanged);
+    }
+
+    @Override
+    public void sort(int[] list) {
+        boolean hasChanged;
+        do {
+            hasChanged = false;
+            for (int i = 0; i < list.length - 1; i++) {
+                if (SortRecorder.less(list[i + 1], list[i])) {
+                    int elem = list[i + 1];
+                    list[i + 1] = list[i];
+                    list[i] = elem;
+                    hasChanged = true;
+                    SortRecorder.moved(2);
+                }
+            }
+        } while (hasChanged);
+    }
+
+    @Override
+    public void sort(long[] list) {
+        boolean hasChanged;
+        do {
+            hasChanged = false;
+            for (int i = 0; i < list.length - 1; i++) {
+                if (SortRecorder.less(list[i + 1], list[i])) {
+                    long elem = list[i + 1];
+                    list[i + 1] = list[i];
+                    list[i] = elem;
+                    hasChanged = true;
+                    SortRecorder.moved(2);
+                }
+            }
+        } while (hasChanged);
+    }
+
+    @Override
+    public void sort(double[] list) {
+        boolean hasChanged;
+        do {
+            hasChanged = false;
+            for (int i = 0; i < list.length - 1; i++) {
+                if (SortRecorder.less(list[i + 1], list[i])) {
+                    double elem = list[i + 1];
+                    list[i + 1] = list[i];
+                    list[i] = elem;
+                    hasChanged = true;
+                    SortRecorder.moved(2);
                 }
             }
         } while (hasChanged);
@@ -0,0 +1,128 @@
+package skatepark.shoveit.sort;
+
+import java.util.Arrays;
+import java.util.function.ToIntFunction;
+
+/**
+ * Counting sort of keys known to lie in {@code [min, max]}, in {@code O(n + max - min)} time. Worth it when the
+ * domain is not much larger than the input, {@link RadixSort} being the better choice otherwise.
+ * <p>
+ * Objects are sorted by key either stably through a buffer, or in place by cycling each element to its bucket.
+ * Buffers are kept from one call to the next, so an instance should not be shared between threads.
+ */
+public class CountingSort {
+
+    private final int min;
+    private final int max;
+    private final boolean stable;
+
+    private final int counts[];
+    /**
+     * Next free slot of each key when sorting in place.
+     */
+    private final int next[];
+    private int keys[] = new int[0];
+    private Object buffer[] = new Object[0];
+
+    public CountingSort(int min, int max) {
+        this(min, max, true);
+    }
+
+    /**
+     * @param stable whether objects are sorted through a buffer keeping equal keys in order, or in place.
+     * @throws IllegalArgumentException if the domain is empty or holds more than {@code Integer.MAX_VALUE - 1} keys.
+     */
+    public CountingSort(int min, int max, boolean stable) {
+        long domain = (long) max - min + 1;
+        if (domain < 1 || domain >= Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("invalid domain: [" + min + ", " + max + "]");
+        }
+        this.min = min;
+        this.max = max;
+        this.stable = stable;
+        this.counts = new int[(int) domain + 1];
+        this.next = stable ? null : new int[(int) domain];
+    }
+
+    /**
+     * @throws IllegalArgumentException if a value is out of the domain, in which case the list is left as it is.
+     */
+    public void sort(int[] list) {
+        Arrays.fill(counts, 0);
+        for (int value : list) {
+            counts[index(value) + 1]++;
+        }
+        int position = 0;
+        for (int i = 1; i < counts.length; i++) {
+            for (int end = position + counts[i]; position < end; position++) {
+                list[position] = min + i - 1;
+            }
+        }
+    }
+
+    /**
+     * Sorts by {@code key}, which is read once per element.
+     *
+     * @throws IllegalArgumentException if a key is out of the domain, in which case the list is left as it is.
+     */
+    public <T> void sortByKey(T[] list, ToIntFunction<? super T> key) {
+        int size = list.length;
+        if (keys.length < size) {
+            keys = new int[size];
+        }
+        Arrays.fill(counts, 0);
+        for (int i = 0; i < size; i++) {
+            int index = index(key.applyAsInt(list[i]));
+            keys[i] = index;
+            counts[index + 1]++;
+        }
+        // counts[k] becomes the first position of key k, and counts[k + 1] its end
+        for (int i = 1; i < counts.length; i++) {
+            counts[i] += counts[i - 1];
+        }
+
+        if (stable) {
+            if (buffer.length < size) {
+                buffer = new Object[size];
+            }
+            for (int i = 0; i < size; i++) {
+                buffer[counts[keys[i]]++] = list[i];
+            }
+            System.arraycopy(buffer, 0, list, 0, size);
+            Arrays.fill(buffer, 0, size, null);
+        } else {
+            permute(list);
+        }
+    }
+
+    /**
+     * Moves every misplaced element straight to the next free slot of its key, picking up the one it displaces, until
+     * each bucket is full.
+     */
+    private void permute(Object list[]) {
+        System.arraycopy(counts, 0, next, 0, next.length);
+        for (int k = 0; k < next.length; k++) {
+            while (next[k] < counts[k + 1]) {
+                int slot = next[k];
+                Object value = list[slot];
+                int target = keys[slot];
+                while (target != k) {
+                    int free = next[target]++;
+                    Object swap = list[free];
+                    list[free] = value;
+                    value = swap;
+                    target = keys[free];
+                }
+                list[slot] = value;
+                next[k]++;
+            }
+        }
+    }
+
+    private int index(int value) {
+        if (value < min || value > max) {
+            throw new IllegalArgumentException(value + " is out of [" + min + ", " + max + "]");
+        }
+        return value - min;
+    }
+}
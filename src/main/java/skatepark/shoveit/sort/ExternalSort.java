@@ -0,0 +1,541 @@
+package skatepark.shoveit.sort;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+
+/**
+ * Merge sort of more records than fit in memory. The input is cut into chunks of {@code chunkSize} records, each one
+ * sorted on a {@link ForkJoinPool} while the next is being read and spilled as a run to a temporary file. The runs
+ * are then merged {@code fanIn} at a time through a {@link LoserTree}, the last merge writing the output. The last
+ * chunk is never spilled, it joins the last merge straight from memory, so input fitting in one chunk never touches
+ * the disk.
+ * <p>
+ * Files are read and written through {@link FileChannel} with {@value #BUFFER_SIZE} byte buffers, every record
+ * being its length followed by the bytes of its {@link Serializer}. Input files are expected in that same format,
+ * which is the one of the output files.
+ * <p>
+ * At most {@code parallelism + 1} chunks are held in memory at once. The sort is stable, as runs keep the order of
+ * the input and ties go to the earliest one.
+ */
+public class ExternalSort<T> {
+
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+    public static final int DEFAULT_FAN_IN = 64;
+
+    static final int BUFFER_SIZE = 1 << 16;
+
+    private static final int INITIAL_CHUNK_SIZE = 1 << 10;
+
+    private final Serializer<T> serializer;
+    private final Comparator<T> comparator;
+    private final int chunkSize;
+    private final int fanIn;
+    private final Path tempDirectory;
+    private final ForkJoinPool pool;
+
+    /**
+     * Sorts in chunks of {@link #DEFAULT_CHUNK_SIZE} records on the common pool, merging {@link #DEFAULT_FAN_IN} runs
+     * at a time in the default temporary directory.
+     *
+     * @param comparator null for the natural order.
+     */
+    public ExternalSort(Serializer<T> serializer, Comparator<T> comparator) {
+        this(serializer, comparator, DEFAULT_CHUNK_SIZE, DEFAULT_FAN_IN,
+                Paths.get(System.getProperty("java.io.tmpdir")), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param comparator    null for the natural order.
+     * @param chunkSize     records sorted in memory at once, and so in every run.
+     * @param fanIn         runs merged at once, each one with its own read buffer.
+     * @param tempDirectory where runs are spilled, they are deleted once merged.
+     * @param pool          where chunks are sorted and spilled.
+     */
+    public ExternalSort(Serializer<T> serializer, Comparator<T> comparator, int chunkSize, int fanIn,
+                        Path tempDirectory, ForkJoinPool pool) {
+        Objects.requireNonNull(serializer, "serializer should not be null.");
+        Objects.requireNonNull(tempDirectory, "tempDirectory should not be null.");
+        Objects.requireNonNull(pool, "pool should not be null.");
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize should be at least 1.");
+        }
+        if (fanIn < 2) {
+            throw new IllegalArgumentException("fanIn should be at least 2.");
+        }
+        this.serializer = serializer;
+        this.comparator = comparator;
+        this.chunkSize = chunkSize;
+        this.fanIn = fanIn;
+        this.tempDirectory = tempDirectory;
+        this.pool = pool;
+    }
+
+    /**
+     * Sorts a file of records, as written by this class. The input is read to its end before the output is opened,
+     * so both may be the same file.
+     *
+     * @return the number of records.
+     */
+    public long sort(Path input, Path output) throws IOException {
+        Runs runs;
+        try (RunReader reader = new RunReader(input)) {
+            runs = spill(reader);
+        }
+        try (Runs merged = runs; RunWriter writer = new RunWriter(output)) {
+            return merged.merge(writer);
+        }
+    }
+
+    /**
+     * Passes the records of a file to {@code output} in order, the last merge feeding it directly instead of writing
+     * a file.
+     *
+     * @return the number of records.
+     */
+    public long sort(Path input, Consumer<? super T> output) throws IOException {
+        Runs runs;
+        try (RunReader reader = new RunReader(input)) {
+            runs = spill(reader);
+        }
+        try (Runs merged = runs) {
+            return merged.merge(output::accept);
+        }
+    }
+
+    /**
+     * @return the number of records.
+     */
+    public long sort(Iterator<? extends T> input, Path output) throws IOException {
+        try (Runs runs = spill(source(input)); RunWriter writer = new RunWriter(output)) {
+            return runs.merge(writer);
+        }
+    }
+
+    /**
+     * Passes the records of {@code input} to {@code output} in order.
+     *
+     * @return the number of records.
+     */
+    public long sort(Iterator<? extends T> input, Consumer<? super T> output) throws IOException {
+        try (Runs runs = spill(source(input))) {
+            return runs.merge(output::accept);
+        }
+    }
+
+    /**
+     * Reads chunks until the input is over, handing every full one to the pool. The reading thread only waits when
+     * {@code parallelism} chunks are already being sorted, their arrays being reused once they are spilled.
+     */
+    private Runs spill(Source<? extends T> input) throws IOException {
+        Runs runs = new Runs();
+        ArrayDeque<ForkJoinTask<Object[]>> pending = new ArrayDeque<>();
+        ArrayDeque<Object[]> free = new ArrayDeque<>();
+        try {
+            while (true) {
+                Object[] chunk = free.isEmpty() ? new Object[Math.min(chunkSize, INITIAL_CHUNK_SIZE)] : free.pop();
+                int size = 0;
+                while (size < chunkSize && input.hasNext()) {
+                    if (size == chunk.length) {
+                        chunk = Arrays.copyOf(chunk, (int) Math.min(chunkSize, size * 2L));
+                    }
+                    chunk[size++] = input.next();
+                }
+                if (!input.hasNext()) {
+                    runs.last = size == chunk.length ? chunk : Arrays.copyOf(chunk, size);
+                    sort(runs.last);
+                    break;
+                }
+
+                Object[] full = chunk;
+                Path run = runs.create();
+                pending.add(pool.submit(() -> {
+                    sort(full);
+                    try (RunWriter writer = new RunWriter(run)) {
+                        for (Object value : full) {
+                            writer.accept((T) value);
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    Arrays.fill(full, null);
+                    return full;
+                }));
+                if (pending.size() > pool.getParallelism()) {
+                    free.push(join(pending.poll()));
+                }
+            }
+            while (!pending.isEmpty()) {
+                join(pending.poll());
+            }
+            return runs;
+        } catch (IOException | RuntimeException | Error e) {
+            // runs still being written must be over before their files are deleted
+            for (ForkJoinTask<Object[]> task : pending) {
+                task.cancel(false);
+                task.quietlyJoin();
+            }
+            try {
+                runs.close();
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+    }
+
+    private void sort(Object[] chunk) {
+        new TimSort().sort((T[]) chunk, comparator);
+    }
+
+    /**
+     * Merges every source through a {@link LoserTree}, ties going to the earliest source.
+     *
+     * @return the number of records.
+     */
+    private long merge(List<Source<T>> sources, Output<T> output) throws IOException {
+        if (sources.isEmpty()) {
+            return 0;
+        }
+        Object heads[] = new Object[sources.size()];
+        boolean over[] = new boolean[sources.size()];
+        for (int i = 0; i < sources.size(); i++) {
+            advance(sources.get(i), i, heads, over);
+        }
+        LoserTree tree = new LoserTree(sources.size()) {
+            @Override
+            boolean less(int left, int right) {
+                if (over[left]) {
+                    return false;
+                }
+                if (over[right]) {
+                    return true;
+                }
+                int comparison = compare((T) heads[left], (T) heads[right]);
+                return comparison < 0 || comparison == 0 && left < right;
+            }
+        };
+        tree.build();
+
+        long count = 0;
+        for (int winner = tree.winner(); !over[winner]; winner = tree.winner()) {
+            output.accept((T) heads[winner]);
+            count++;
+            advance(sources.get(winner), winner, heads, over);
+            tree.replay(winner);
+        }
+        return count;
+    }
+
+    private static <T> void advance(Source<T> source, int index, Object heads[], boolean over[]) throws IOException {
+        if (source.hasNext()) {
+            heads[index] = source.next();
+        } else {
+            heads[index] = null;
+            over[index] = true;
+        }
+    }
+
+    private int compare(T left, T right) {
+        if (comparator != null) {
+            return comparator.compare(left, right);
+        }
+        return ((Comparable<T>) left).compareTo(right);
+    }
+
+    private static Object[] join(ForkJoinTask<Object[]> task) throws IOException {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while spilling runs.");
+        } catch (ExecutionException e) {
+            // the pool rethrows a copy of the exception thrown by the task, caused by the original
+            Throwable cause = e.getCause();
+            while (cause.getCause() != null && cause.getCause().getClass() == cause.getClass()) {
+                cause = cause.getCause();
+            }
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private static <T> Source<T> source(Iterator<? extends T> iterator) {
+        Objects.requireNonNull(iterator, "input should not be null.");
+        return new Source<T>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public T next() {
+                return iterator.next();
+            }
+        };
+    }
+
+    private static void closeAll(List<? extends Closeable> resources) throws IOException {
+        IOException failure = null;
+        for (Closeable resource : resources) {
+            try {
+                resource.close();
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private interface Source<T> {
+
+        boolean hasNext() throws IOException;
+
+        T next() throws IOException;
+    }
+
+    private interface Output<T> {
+
+        void accept(T value) throws IOException;
+    }
+
+    /**
+     * The spilled runs, in input order, and the last chunk sorted in memory. Closing deletes every file created.
+     */
+    private final class Runs implements Closeable {
+
+        private final List<Path> files = new ArrayList<>();
+        private final List<Path> created = new ArrayList<>();
+        private Object[] last = new Object[0];
+
+        private Path create() throws IOException {
+            Path run = Files.createTempFile(tempDirectory, "run", ".tmp");
+            created.add(run);
+            files.add(run);
+            return run;
+        }
+
+        /**
+         * Merges groups of {@code fanIn} files until they fit in the last merge along with the last chunk.
+         */
+        private long merge(Output<T> output) throws IOException {
+            List<Path> runs = new ArrayList<>(files);
+            while (runs.size() >= fanIn) {
+                List<Path> merged = new ArrayList<>();
+                for (int i = 0; i < runs.size(); i += fanIn) {
+                    List<Path> group = runs.subList(i, Math.min(i + fanIn, runs.size()));
+                    if (group.size() == 1) {
+                        merged.add(group.get(0));
+                        continue;
+                    }
+                    Path run = Files.createTempFile(tempDirectory, "run", ".tmp");
+                    created.add(run);
+                    try (RunWriter writer = new RunWriter(run)) {
+                        merge(group, null, writer);
+                    }
+                    for (Path file : group) {
+                        Files.delete(file);
+                    }
+                    merged.add(run);
+                }
+                runs = merged;
+            }
+            return merge(runs, last, output);
+        }
+
+        private long merge(List<Path> runs, Object[] chunk, Output<T> output) throws IOException {
+            List<RunReader> readers = new ArrayList<>();
+            try {
+                List<Source<T>> sources = new ArrayList<>();
+                for (Path run : runs) {
+                    RunReader reader = new RunReader(run);
+                    readers.add(reader);
+                    sources.add(reader);
+                }
+                if (chunk != null && chunk.length > 0) {
+                    sources.add(source(Arrays.asList((T[]) chunk).iterator()));
+                }
+                return ExternalSort.this.merge(sources, output);
+            } finally {
+                closeAll(readers);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            last = null;
+            IOException failure = null;
+            for (Path run : created) {
+                try {
+                    Files.deleteIfExists(run);
+                } catch (IOException e) {
+                    if (failure == null) {
+                        failure = e;
+                    } else {
+                        failure.addSuppressed(e);
+                    }
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    private final class RunWriter implements Output<T>, Closeable {
+
+        private final FileChannel channel;
+        private ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+        private RunWriter(Path path) throws IOException {
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        /**
+         * Writes the record after room for its length, which is filled in afterwards. A record which does not fit
+         * is written again after a flush, or into a larger buffer when it is alone.
+         */
+        @Override
+        public void accept(T value) throws IOException {
+            while (true) {
+                int start = buffer.position();
+                if (buffer.remaining() > Integer.BYTES) {
+                    buffer.position(start + Integer.BYTES);
+                    try {
+                        serializer.write(value, buffer);
+                        buffer.putInt(start, buffer.position() - start - Integer.BYTES);
+                        return;
+                    } catch (BufferOverflowException e) {
+                        buffer.position(start);
+                    }
+                }
+                if (start > 0) {
+                    flush();
+                } else {
+                    buffer = ByteBuffer.allocateDirect(buffer.capacity() * 2);
+                }
+            }
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    private final class RunReader implements Source<T>, Closeable {
+
+        private final Path path;
+        private final FileChannel channel;
+        private ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+        private RunReader(Path path) throws IOException {
+            this.path = path;
+            this.channel = FileChannel.open(path, StandardOpenOption.READ);
+            buffer.flip();
+        }
+
+        @Override
+        public boolean hasNext() throws IOException {
+            return fill(1);
+        }
+
+        @Override
+        public T next() throws IOException {
+            require(Integer.BYTES);
+            int length = buffer.getInt();
+            if (length < 0) {
+                throw new IOException("invalid record length " + length + " in " + path);
+            }
+            require(length);
+            int limit = buffer.limit();
+            int end = buffer.position() + length;
+            buffer.limit(end);
+            T value = serializer.read(buffer);
+            buffer.limit(limit);
+            buffer.position(end);
+            return value;
+        }
+
+        private void require(int bytes) throws IOException {
+            if (!fill(bytes)) {
+                throw new EOFException("truncated record in " + path);
+            }
+        }
+
+        /**
+         * @return whether {@code bytes} are buffered, once as many as possible have been read.
+         */
+        private boolean fill(int bytes) throws IOException {
+            if (buffer.remaining() >= bytes) {
+                return true;
+            }
+            if (buffer.capacity() < bytes) {
+                ByteBuffer larger = ByteBuffer.allocateDirect(Math.max(bytes, buffer.capacity() * 2));
+                larger.put(buffer);
+                buffer = larger;
+            } else {
+                buffer.compact();
+            }
+            while (buffer.position() < bytes) {
+                if (channel.read(buffer) < 0) {
+                    break;
+                }
+            }
+            buffer.flip();
+            return buffer.remaining() >= bytes;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package skatepark.shoveit.sort;
 
 import java.util.Comparator;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
 
 public interface ISort {
 
@@ -10,7 +13,29 @@ public interface ISort {
         sort(list, null);
     }
 
+    void sort(int[] list);
+
+    void sort(long[] list);
+
+    /**
+     * Sorts using the total order of {@link Double#compare(double, double)}, as {@link java.util.Arrays#sort(double[])}.
+     */
+    void sort(double[] list);
+
+    default <T> void sortByInt(T[] list, ToIntFunction<? super T> key) {
+        sort(list, Comparator.comparingInt(key));
+    }
+
+    default <T> void sortByLong(T[] list, ToLongFunction<? super T> key) {
+        sort(list, Comparator.comparingLong(key));
+    }
+
+    default <T> void sortByDouble(T[] list, ToDoubleFunction<? super T> key) {
+        sort(list, Comparator.comparingDouble(key));
+    }
+
     default <T> int compare(T obj1, T obj2, Comparator<T> comparator) {
+        SortRecorder.compared();
         if (comparator != null) {
             return comparator.compare(obj1, obj2);
         }
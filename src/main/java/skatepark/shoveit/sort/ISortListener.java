@@ -0,0 +1,10 @@
+package skatepark.shoveit.sort;
+
+/**
+ * Receives the metrics of every sort run through an {@link InstrumentedSort}, on the thread which called it.
+ */
+@FunctionalInterface
+public interface ISortListener {
+
+    void onSort(SortMetrics metrics);
+}
@@ -12,8 +12,51 @@ public class InsertionSort implements ISort {
                 T elem = list[j - 1];
                 list[j - 1] = list[j];
                 list[j] = elem;
+                SortRecorder.moved(2);
                 j--;
             }
         }
     }
+
+    @Override
+    public void sort(int[] list) {
+        for (int i = 1; i < list.length; i++) {
+            int elem = list[i];
+            int j = i;
+            while (j > 0 && SortRecorder.less(elem, list[j - 1])) {
+                list[j] = list[j - 1];
+                j--;
+            }
+            list[j] = elem;
+            SortRecorder.moved(i - j + 1);
+        }
+    }
+
+    @Override
+    public void sort(long[] list) {
+        for (int i = 1; i < list.length; i++) {
+            long elem = list[i];
+            int j = i;
+            while (j > 0 && SortRecorder.less(elem, list[j - 1])) {
+                list[j] = list[j - 1];
+                j--;
+            }
+            list[j] = elem;
+            SortRecorder.moved(i - j + 1);
+        }
+    }
+
+    @Override
+    public void sort(double[] list) {
+        for (int i = 1; i < list.length; i++) {
+            double elem = list[i];
+            int j = i;
+            while (j > 0 && SortRecorder.less(elem, list[j - 1])) {
+                list[j] = list[j - 1];
+                j--;
+            }
+            list[j] = elem;
+            SortRecorder.moved(i - j + 1);
+        }
+    }
 }
@@ -0,0 +1,125 @@
+package skatepark.shoveit.sort;
+
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.logging.Logger;
+
+/**
+ * Runs another sort and passes what it did to a listener: comparisons, moves, scratch bytes and elapsed time, see
+ * {@link SortMetrics}. Parallel sorts are measured across all of their threads.
+ * <p>
+ * Instrumentation is switched on with {@code -Dshoveit.sort.instrumentation=true}. Otherwise this class only
+ * delegates, the listener is never called, which is logged once as a warning, and the hooks in every sort cost
+ * nothing once compiled. With the flag on the cost is JVM-wide: every comparison, move and allocation of every sort
+ * reads a {@link ThreadLocal}, wrapped in an {@code InstrumentedSort} or not.
+ */
+public class InstrumentedSort implements ISort {
+
+    private static final Logger LOGGER = Logger.getLogger(InstrumentedSort.class.getName());
+    private static final AtomicBoolean WARNED = new AtomicBoolean();
+
+    private final ISort delegate;
+    private final ISortListener listener;
+
+    public InstrumentedSort(ISort delegate, ISortListener listener) {
+        Objects.requireNonNull(delegate, "delegate should not be null.");
+        Objects.requireNonNull(listener, "listener should not be null.");
+        this.delegate = delegate;
+        this.listener = listener;
+        if (!SortRecorder.ENABLED && WARNED.compareAndSet(false, true)) {
+            LOGGER.warning("shoveit.sort.instrumentation is not set, sorts are not instrumented and listeners are "
+                    + "never called.");
+        }
+    }
+
+    public static boolean isEnabled() {
+        return SortRecorder.ENABLED;
+    }
+
+    @Override
+    public <T> void sort(T[] list, Comparator<T> comparator) {
+        if (!SortRecorder.ENABLED) {
+            delegate.sort(list, comparator);
+            return;
+        }
+        record(list.length, () -> delegate.sort(list, comparator));
+    }
+
+    @Override
+    public void sort(int[] list) {
+        if (!SortRecorder.ENABLED) {
+            delegate.sort(list);
+            return;
+        }
+        record(list.length, () -> delegate.sort(list));
+    }
+
+    @Override
+    public void sort(long[] list) {
+        if (!SortRecorder.ENABLED) {
+            delegate.sort(list);
+            return;
+        }
+        record(list.length, () -> delegate.sort(list));
+    }
+
+    @Override
+    public void sort(double[] list) {
+        if (!SortRecorder.ENABLED) {
+            delegate.sort(list);
+            return;
+        }
+        record(list.length, () -> delegate.sort(list));
+    }
+
+    @Override
+    public <T> void sortByInt(T[] list, ToIntFunction<? super T> key) {
+        if (!SortRecorder.ENABLED) {
+            delegate.sortByInt(list, key);
+            return;
+        }
+        record(list.length, () -> delegate.sortByInt(list, key));
+    }
+
+    @Override
+    public <T> void sortByLong(T[] list, ToLongFunction<? super T> key) {
+        if (!SortRecorder.ENABLED) {
+            delegate.sortByLong(list, key);
+            return;
+        }
+        record(list.length, () -> delegate.sortByLong(list, key));
+    }
+
+    @Override
+    public <T> void sortByDouble(T[] list, ToDoubleFunction<? super T> key) {
+        if (!SortRecorder.ENABLED) {
+            delegate.sortByDouble(list, key);
+            return;
+        }
+        record(list.length, () -> delegate.sortByDouble(list, key));
+    }
+
+    /**
+     * Installs a fresh recorder around the sort, whose counts also go to the recorder of an enclosing sort.
+     */
+    private void record(int length, Runnable sort) {
+        SortRecorder recorder = new SortRecorder();
+        SortRecorder previous = SortRecorder.install(recorder);
+        long start = System.nanoTime();
+        try {
+            sort.run();
+        } finally {
+            SortRecorder.install(previous);
+        }
+        long elapsed = System.nanoTime() - start;
+        if (previous != null) {
+            previous.add(recorder);
+        }
+        listener.onSort(new SortMetrics(delegate.getClass().getSimpleName(), length, recorder.getComparisons(),
+                recorder.getMoves(), recorder.getScratchBytes(), elapsed));
+    }
+}
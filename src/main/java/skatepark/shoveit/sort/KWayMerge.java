@@ -0,0 +1,495 @@
+package skatepark.shoveit.sort;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Merges any number of sorted inputs, arrays or iterators, through a {@link LoserTree}, in {@code log k}
+ * comparisons per element for {@code k} inputs. Ties go to the earlier input, so the merge is stable.
+ * <p>
+ * Arrays can also be merged in parallel. The output is cut into parts of equal size, and where each part starts in
+ * every input is found by co-ranking, the k-way form of merge path, after which parts are merged independently.
+ * Locating a part takes {@code O(k^2 log^2 n)} comparisons, which is small next to the part itself.
+ */
+public class KWayMerge {
+
+    public static final int DEFAULT_CUTOFF = 1 << 16;
+
+    private final ForkJoinPool pool;
+    private final int cutoff;
+
+    /**
+     * Sequential merge.
+     */
+    public KWayMerge() {
+        this.pool = null;
+        this.cutoff = Integer.MAX_VALUE;
+    }
+
+    /**
+     * Parallel merge running on {@code pool} with {@link #DEFAULT_CUTOFF}.
+     */
+    public KWayMerge(ForkJoinPool pool) {
+        this(pool, DEFAULT_CUTOFF);
+    }
+
+    /**
+     * Parallel merge running on {@code pool}.
+     *
+     * @param cutoff smallest part merged by one task, smaller outputs being merged sequentially.
+     */
+    public KWayMerge(ForkJoinPool pool, int cutoff) {
+        Objects.requireNonNull(pool, "pool should not be null.");
+        if (cutoff < 1) {
+            throw new IllegalArgumentException("cutoff should be at least 1.");
+        }
+        this.pool = pool;
+        this.cutoff = cutoff;
+    }
+
+    /**
+     * @param comparator null for the natural order.
+     * @return a new array of the type of the inputs.
+     */
+    public <T> T[] merge(T[][] inputs, Comparator<T> comparator) {
+        int lengths[] = lengths(inputs);
+        T[] output = (T[]) Array.newInstance(inputs.getClass().getComponentType().getComponentType(), total(lengths));
+        merge(inputs, output, 0, comparator);
+        return output;
+    }
+
+    /**
+     * @param output holds the merged inputs from {@code offset}.
+     */
+    public <T> void merge(T[][] inputs, T[] output, int offset, Comparator<T> comparator) {
+        int lengths[] = lengths(inputs);
+        merge(new ObjectMerge<>(inputs, lengths, output, comparator), output.length, offset);
+    }
+
+    public int[] merge(int[]... inputs) {
+        int output[] = new int[total(lengths(inputs))];
+        merge(inputs, output, 0);
+        return output;
+    }
+
+    public void merge(int[][] inputs, int[] output, int offset) {
+        merge(new IntMerge(inputs, lengths(inputs), output), output.length, offset);
+    }
+
+    public long[] merge(long[]... inputs) {
+        long output[] = new long[total(lengths(inputs))];
+        merge(inputs, output, 0);
+        return output;
+    }
+
+    public void merge(long[][] inputs, long[] output, int offset) {
+        merge(new LongMerge(inputs, lengths(inputs), output), output.length, offset);
+    }
+
+    /**
+     * Lazily merges sorted iterators, each one being read one element ahead.
+     *
+     * @param comparator null for the natural order.
+     */
+    public static <T> Iterator<T> merge(List<? extends Iterator<? extends T>> inputs, Comparator<T> comparator) {
+        if (inputs.isEmpty()) {
+            return Collections.emptyIterator();
+        }
+        return new MergingIterator<>(inputs, comparator);
+    }
+
+    private void merge(ArrayMerge merge, int outputLength, int offset) {
+        int total = total(merge.lengths);
+        if (offset < 0 || offset > outputLength - total) {
+            throw new IndexOutOfBoundsException("offset: " + offset + ", merged: " + total + ", output: "
+                    + outputLength);
+        }
+        if (merge.lengths.length == 0 || total == 0) {
+            return;
+        }
+        int parts = pool == null ? 1 : Math.min(pool.getParallelism(), total / cutoff);
+        if (parts < 2 || merge.lengths.length == 1) {
+            merge.merge(new int[merge.lengths.length], merge.lengths, offset);
+            return;
+        }
+        pool.invoke(new MergeTask(merge, total, parts, offset, 0, parts));
+    }
+
+    private static int[] lengths(Object[] inputs) {
+        int lengths[] = new int[inputs.length];
+        for (int i = 0; i < inputs.length; i++) {
+            lengths[i] = Array.getLength(inputs[i]);
+        }
+        return lengths;
+    }
+
+    private static int total(int lengths[]) {
+        long total = 0;
+        for (int length : lengths) {
+            total += length;
+        }
+        if (total > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("inputs hold " + total + " elements, more than an array can.");
+        }
+        return (int) total;
+    }
+
+    private static <T> int compare(T left, T right, Comparator<T> comparator) {
+        if (comparator != null) {
+            return comparator.compare(left, right);
+        }
+        return ((Comparable<T>) left).compareTo(right);
+    }
+
+    /**
+     * Merges the parts from {@code first} to {@code last}, exclusive, splitting them in halves.
+     */
+    @SuppressWarnings("serial")
+    private static class MergeTask extends RecursiveAction {
+
+        private final ArrayMerge merge;
+        private final int total;
+        private final int parts;
+        private final int offset;
+        private final int first;
+        private final int last;
+
+        MergeTask(ArrayMerge merge, int total, int parts, int offset, int first, int last) {
+            this.merge = merge;
+            this.total = total;
+            this.parts = parts;
+            this.offset = offset;
+            this.first = first;
+            this.last = last;
+        }
+
+        @Override
+        protected void compute() {
+            if (last - first > 1) {
+                int middle = (first + last) >>> 1;
+                invokeAll(new MergeTask(merge, total, parts, offset, first, middle),
+                        new MergeTask(merge, total, parts, offset, middle, last));
+                return;
+            }
+            int start = (int) ((long) total * first / parts);
+            int end = (int) ((long) total * last / parts);
+            ArrayMerge part = merge.copy();
+            part.merge(merge.coRank(start), merge.coRank(end), offset + start);
+        }
+    }
+
+    /**
+     * Merge of sorted arrays, each element being addressed by its input and its index there.
+     */
+    private abstract static class ArrayMerge extends LoserTree {
+
+        final int lengths[];
+        private final int positions[];
+        private final int ends[];
+
+        ArrayMerge(int lengths[]) {
+            super(Math.max(1, lengths.length));
+            this.lengths = lengths;
+            this.positions = new int[lengths.length];
+            this.ends = new int[lengths.length];
+        }
+
+        abstract int compare(int left, int leftIndex, int right, int rightIndex);
+
+        /**
+         * Copies element {@code index} of input {@code source} to {@code target} in the output.
+         */
+        abstract void move(int source, int index, int target);
+
+        /**
+         * @return a merge of the same inputs into the same output, for another thread.
+         */
+        abstract ArrayMerge copy();
+
+        @Override
+        boolean less(int left, int right) {
+            if (positions[left] == ends[left]) {
+                return false;
+            }
+            if (positions[right] == ends[right]) {
+                return true;
+            }
+            int comparison = compare(left, positions[left], right, positions[right]);
+            return comparison < 0 || comparison == 0 && left < right;
+        }
+
+        /**
+         * Merges the elements from {@code from[i]} to {@code to[i]} of every input {@code i} into the output,
+         * starting at {@code target}.
+         */
+        void merge(int from[], int to[], int target) {
+            int count = 0;
+            for (int i = 0; i < lengths.length; i++) {
+                positions[i] = from[i];
+                ends[i] = to[i];
+                count += to[i] - from[i];
+            }
+            build();
+            for (int end = target + count; target < end; target++) {
+                int winner = winner();
+                move(winner, positions[winner]++, target);
+                replay(winner);
+            }
+        }
+
+        /**
+         * Finds the element the merged output has at {@code rank}, trying every input in turn with a binary search
+         * on the rank of its elements.
+         *
+         * @return for every input, how many of its elements come before {@code rank} in the output.
+         */
+        int[] coRank(int rank) {
+            int counts[] = new int[lengths.length];
+            if (rank == total(lengths)) {
+                System.arraycopy(lengths, 0, counts, 0, lengths.length);
+                return counts;
+            }
+            for (int source = 0; source < lengths.length; source++) {
+                int low = 0;
+                int high = lengths[source];
+                while (low < high) {
+                    int middle = (low + high) >>> 1;
+                    int before = rank(source, middle, counts);
+                    if (before == rank) {
+                        return counts;
+                    }
+                    if (before < rank) {
+                        low = middle + 1;
+                    } else {
+                        high = middle;
+                    }
+                }
+            }
+            throw new IllegalArgumentException("inputs should be sorted.");
+        }
+
+        /**
+         * @return how many elements come before element {@code index} of input {@code source} in the output, their
+         * number in every input being stored in {@code counts}.
+         */
+        private int rank(int source, int index, int counts[]) {
+            int rank = 0;
+            for (int i = 0; i < lengths.length; i++) {
+                if (i == source) {
+                    counts[i] = index;
+                } else {
+                    // elements equal to it come first when their input does
+                    int low = 0;
+                    int high = lengths[i];
+                    while (low < high) {
+                        int middle = (low + high) >>> 1;
+                        int comparison = compare(i, middle, source, index);
+                        if (comparison < 0 || comparison == 0 && i < source) {
+                            low = middle + 1;
+                        } else {
+                            high = middle;
+                        }
+                    }
+                    counts[i] = low;
+                }
+                rank += counts[i];
+            }
+            return rank;
+        }
+    }
+
+    private static final class ObjectMerge<T> extends ArrayMerge {
+
+        private final T[][] inputs;
+        private final T[] output;
+        private final Comparator<T> comparator;
+
+        ObjectMerge(T[][] inputs, int lengths[], T[] output, Comparator<T> comparator) {
+            super(lengths);
+            this.inputs = inputs;
+            this.output = output;
+            this.comparator = comparator;
+        }
+
+        @Override
+        int compare(int left, int leftIndex, int right, int rightIndex) {
+            return KWayMerge.compare(inputs[left][leftIndex], inputs[right][rightIndex], comparator);
+        }
+
+        @Override
+        void move(int source, int index, int target) {
+            output[target] = inputs[source][index];
+        }
+
+        @Override
+        ArrayMerge copy() {
+            return new ObjectMerge<>(inputs, lengths, output, comparator);
+        }
+    }
+
+    private static final class IntMerge extends ArrayMerge {
+
+        private final int inputs[][];
+        private final int output[];
+
+        IntMerge(int inputs[][], int lengths[], int output[]) {
+            super(lengths);
+            this.inputs = inputs;
+            this.output = output;
+        }
+
+        @Override
+        int compare(int left, int leftIndex, int right, int rightIndex) {
+            return Integer.compare(inputs[left][leftIndex], inputs[right][rightIndex]);
+        }
+
+        @Override
+        void move(int source, int index, int target) {
+            output[target] = inputs[source][index];
+        }
+
+        @Override
+        ArrayMerge copy() {
+            return new IntMerge(inputs, lengths, output);
+        }
+
+        /**
+         * Plays the tournament on keys holding the value in their high half and the input in their low half, so a
+         * single comparison orders both and ties still go to the earlier input. Nodes keep the losing keys
+         * themselves, and every match is a minimum and a maximum, with no branch to mispredict.
+         */
+        @Override
+        void merge(int from[], int to[], int target) {
+            int size = inputs.length;
+            int positions[] = Arrays.copyOf(from, size);
+            long nodes[] = new long[size];
+            long winners[] = new long[2 * size];
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                winners[size + i] = key(i, positions[i], to[i]);
+                count += to[i] - from[i];
+            }
+            for (int node = size - 1; node > 0; node--) {
+                long left = winners[2 * node];
+                long right = winners[2 * node + 1];
+                nodes[node] = Math.max(left, right);
+                winners[node] = Math.min(left, right);
+            }
+            // with a single input its leaf is node 1 as well
+            long winner = winners[1];
+
+            for (int end = target + count; target < end; target++) {
+                output[target] = (int) (winner >> 32);
+                int source = (int) winner;
+                winner = key(source, ++positions[source], to[source]);
+                for (int node = (size + source) >>> 1; node > 0; node >>>= 1) {
+                    long loser = nodes[node];
+                    nodes[node] = Math.max(loser, winner);
+                    winner = Math.min(loser, winner);
+                }
+            }
+        }
+
+        /**
+         * @return the key of the element at {@code position} in {@code source}, or the largest key past its end.
+         */
+        private long key(int source, int position, int end) {
+            return position < end ? (long) inputs[source][position] << 32 | source : Long.MAX_VALUE;
+        }
+    }
+
+    private static final class LongMerge extends ArrayMerge {
+
+        private final long inputs[][];
+        private final long output[];
+
+        LongMerge(long inputs[][], int lengths[], long output[]) {
+            super(lengths);
+            this.inputs = inputs;
+            this.output = output;
+        }
+
+        @Override
+        int compare(int left, int leftIndex, int right, int rightIndex) {
+            return Long.compare(inputs[left][leftIndex], inputs[right][rightIndex]);
+        }
+
+        @Override
+        void move(int source, int index, int target) {
+            output[target] = inputs[source][index];
+        }
+
+        @Override
+        ArrayMerge copy() {
+            return new LongMerge(inputs, lengths, output);
+        }
+    }
+
+    private static final class MergingIterator<T> extends LoserTree implements Iterator<T> {
+
+        private final List<Iterator<? extends T>> inputs;
+        private final Comparator<T> comparator;
+        private final Object heads[];
+        private final boolean over[];
+
+        MergingIterator(List<? extends Iterator<? extends T>> inputs, Comparator<T> comparator) {
+            super(inputs.size());
+            this.inputs = new ArrayList<>(inputs);
+            this.comparator = comparator;
+            this.heads = new Object[inputs.size()];
+            this.over = new boolean[inputs.size()];
+            for (int i = 0; i < heads.length; i++) {
+                advance(i);
+            }
+            build();
+        }
+
+        @Override
+        boolean less(int left, int right) {
+            if (over[left]) {
+                return false;
+            }
+            if (over[right]) {
+                return true;
+            }
+            int comparison = compare((T) heads[left], (T) heads[right], comparator);
+            return comparison < 0 || comparison == 0 && left < right;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !over[winner()];
+        }
+
+        @Override
+        public T next() {
+            int winner = winner();
+            if (over[winner]) {
+                throw new NoSuchElementException();
+            }
+            T value = (T) heads[winner];
+            advance(winner);
+            replay(winner);
+            return value;
+        }
+
+        private void advance(int source) {
+            Iterator<? extends T> input = inputs.get(source);
+            if (input.hasNext()) {
+                heads[source] = input.next();
+            } else {
+                heads[source] = null;
+                over[source] = true;
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package skatepark.shoveit.sort;
+
+/**
+ * Tournament between {@code size} sorted sources, which every node remembers the loser of. The overall winner is
+ * the source holding the smallest element, and once that source moves on only the matches on the path from its leaf
+ * to the root are replayed, one comparison each, against the losers kept there.
+ * <p>
+ * Subclasses define the order of sources through {@link #less}, which should put sources that are over last.
+ */
+abstract class LoserTree {
+
+    private final int size;
+    /**
+     * {@code tree[0]} is the winner and {@code tree[node]} the loser of the match at {@code node}, whose children are
+     * {@code 2 * node} and {@code 2 * node + 1}, leaves being {@code size + source}.
+     */
+    private final int tree[];
+
+    LoserTree(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("size should be at least 1.");
+        }
+        this.size = size;
+        this.tree = new int[size];
+    }
+
+    /**
+     * @return whether the current element of source {@code left} comes before the one of source {@code right}.
+     */
+    abstract boolean less(int left, int right);
+
+    /**
+     * Plays every match, once each source is at its first element.
+     */
+    void build() {
+        int winners[] = new int[2 * size];
+        for (int source = 0; source < size; source++) {
+            winners[size + source] = source;
+        }
+        for (int node = size - 1; node > 0; node--) {
+            int left = winners[2 * node];
+            int right = winners[2 * node + 1];
+            if (less(right, left)) {
+                winners[node] = right;
+                tree[node] = left;
+            } else {
+                winners[node] = left;
+                tree[node] = right;
+            }
+        }
+        tree[0] = size == 1 ? 0 : winners[1];
+    }
+
+    int winner() {
+        return tree[0];
+    }
+
+    /**
+     * Replays the matches of {@code source}, whose element changed, from its leaf up to the root.
+     */
+    void replay(int source) {
+        int winner = source;
+        for (int node = (size + source) >>> 1; node > 0; node >>>= 1) {
+            if (less(tree[node], winner)) {
+                int loser = winner;
+                winner = tree[node];
+                tree[node] = loser;
+            }
+        }
+        tree[0] = winner;
+    }
+}
@@ -1,53 +1,370 @@
 package skatepark.shoveit.sort;
 
 import java.util.Comparator;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 public class MergeSort implements ISort {
 
+    public static final int DEFAULT_CUTOFF = 1 << 13;
+
+    private final ForkJoinPool pool;
+    private final int cutoff;
+
+    /**
+     * Sequential merge sort.
+     */
+    public MergeSort() {
+        this.pool = null;
+        this.cutoff = Integer.MAX_VALUE;
+    }
+
+    /**
+     * Parallel merge sort running on {@code pool} with {@link #DEFAULT_CUTOFF}.
+     */
+    public MergeSort(ForkJoinPool pool) {
+        this(pool, DEFAULT_CUTOFF);
+    }
+
+    /**
+     * Parallel merge sort running on {@code pool}.
+     *
+     * @param cutoff ranges smaller than this are sorted sequentially.
+     */
+    public MergeSort(ForkJoinPool pool, int cutoff) {
+        Objects.requireNonNull(pool, "pool should not be null.");
+        if (cutoff < 2) {
+            throw new IllegalArgumentException("cutoff should be at least 2.");
+        }
+        this.pool = pool;
+        this.cutoff = cutoff;
+    }
+
     @Override
     public <T> void sort(T[] list, Comparator<T> comparator) {
-        sort(list, 0, list.length - 1, comparator);
+        if (list.length < 2) {
+            return;
+        }
+        Object[] buffer = new Object[list.length];
+        SortRecorder.allocated((long) list.length * SortRecorder.REFERENCE_BYTES);
+        if (pool == null || list.length < cutoff) {
+            sort(list, buffer, 0, list.length - 1, comparator);
+        } else {
+            pool.invoke(new SortTask<>(list, buffer, 0, list.length - 1, comparator));
+        }
+    }
+
+    @Override
+    public void sort(int[] list) {
+        if (list.length < 2) {
+            return;
+        }
+        int[] buffer = new int[list.length];
+        SortRecorder.allocated((long) list.length * Integer.BYTES);
+        if (pool == null || list.length < cutoff) {
+            sort(list, buffer, 0, list.length - 1);
+        } else {
+            pool.invoke(new IntSortTask(list, buffer, 0, list.length - 1));
+        }
+    }
+
+    @Override
+    public void sort(long[] list) {
+        if (list.length < 2) {
+            return;
+        }
+        long[] buffer = new long[list.length];
+        SortRecorder.allocated((long) list.length * Long.BYTES);
+        if (pool == null || list.length < cutoff) {
+            sort(list, buffer, 0, list.length - 1);
+        } else {
+            pool.invoke(new LongSortTask(list, buffer, 0, list.length - 1));
+        }
+    }
+
+    @Override
+    public void sort(double[] list) {
+        if (list.length < 2) {
+            return;
+        }
+        double[] buffer = new double[list.length];
+        SortRecorder.allocated((long) list.length * Double.BYTES);
+        if (pool == null || list.length < cutoff) {
+            sort(list, buffer, 0, list.length - 1);
+        } else {
+            pool.invoke(new DoubleSortTask(list, buffer, 0, list.length - 1));
+        }
     }
 
     /**
      * @param start inclusive
      * @param end   inclusive.
      */
-    private <T> void sort(T[] values, int start, int end, Comparator<T> comparator) {
+    private <T> void sort(T[] values, Object[] buffer, int start, int end, Comparator<T> comparator) {
         if (end - start < 1) {
             return;
         }
 
-        int middle = (end + start) / 2;
-        sort(values, start, middle, comparator);
-        sort(values, middle + 1, end, comparator);
+        int middle = (end + start) >>> 1;
+        sort(values, buffer, start, middle, comparator);
+        sort(values, buffer, middle + 1, end, comparator);
 
-        merge(values, start, end, middle, comparator);
+        merge(values, buffer, start, end, middle, comparator);
     }
 
-    private <T> void merge(T[] values, int start, int end, int middle, Comparator<T> comparator) {
-        Object[] sorted = new Object[end - start + 1];
-        int sIndex = 0;
+    /**
+     * Merges two adjacent sorted ranges. Only the left half is copied to {@code buffer}, the right half is merged
+     * in place. On ties the left element wins, which keeps the sort stable.
+     */
+    private <T> void merge(T[] values, Object[] buffer, int start, int end, int middle, Comparator<T> comparator) {
+        if (compare(values[middle], values[middle + 1], comparator) <= 0) {
+            return;
+        }
+        System.arraycopy(values, start, buffer, start, middle - start + 1);
 
-        int i = start, j = middle + 1;
+        int i = start, j = middle + 1, k = start;
         while (i <= middle && j <= end) {
-            if (compare(values[i], values[j], comparator) < 0) {
-                sorted[sIndex++] = values[i++];
+            if (compare(values[j], (T) buffer[i], comparator) < 0) {
+                values[k++] = values[j++];
             } else {
-                sorted[sIndex++] = values[j++];
+                values[k++] = (T) buffer[i++];
             }
         }
+        while (i <= middle) {
+            values[k++] = (T) buffer[i++];
+        }
+        SortRecorder.moved(middle - start + 1 + k - start);
+    }
 
-        while (j <= end) {
-            sorted[sIndex++] = values[j++];
+    private static void sort(int[] values, int[] buffer, int start, int end) {
+        if (end - start < 1) {
+            return;
+        }
+
+        int middle = (end + start) >>> 1;
+        sort(values, buffer, start, middle);
+        sort(values, buffer, middle + 1, end);
+
+        merge(values, buffer, start, end, middle);
+    }
+
+    private static void merge(int[] values, int[] buffer, int start, int end, int middle) {
+        if (!SortRecorder.less(values[middle + 1], values[middle])) {
+            return;
+        }
+        System.arraycopy(values, start, buffer, start, middle - start + 1);
+
+        int i = start, j = middle + 1, k = start;
+        while (i <= middle && j <= end) {
+            if (SortRecorder.less(values[j], buffer[i])) {
+                values[k++] = values[j++];
+            } else {
+                values[k++] = buffer[i++];
+            }
         }
         while (i <= middle) {
-            sorted[sIndex++] = values[i++];
+            values[k++] = buffer[i++];
+        }
+        SortRecorder.moved(middle - start + 1 + k - start);
+    }
+
+    private static void sort(long[] values, long[] buffer, int start, int end) {
+        if (end - start < 1) {
+            return;
         }
 
-        i = start;
-        for (Object v : sorted) {
-            values[i++] = (T) v;
+        int middle = (end + start) >>> 1;
+        sort(values, buffer, start, middle);
+        sort(values, buffer, middle + 1, end);
+
+        merge(values, buffer, start, end, middle);
+    }
+
+    private static void merge(long[] values, long[] buffer, int start, int end, int middle) {
+        if (!SortRecorder.less(values[middle + 1], values[middle])) {
+            return;
+        }
+        System.arraycopy(values, start, buffer, start, middle - start + 1);
+
+        int i = start, j = middle + 1, k = start;
+        while (i <= middle && j <= end) {
+            if (SortRecorder.less(values[j], buffer[i])) {
+                values[k++] = values[j++];
+            } else {
+                values[k++] = buffer[i++];
+            }
+        }
+        while (i <= middle) {
+            values[k++] = buffer[i++];
+        }
+        SortRecorder.moved(middle - start + 1 + k - start);
+    }
+
+    private static void sort(double[] values, double[] buffer, int start, int end) {
+        if (end - start < 1) {
+            return;
+        }
+
+        int middle = (end + start) >>> 1;
+        sort(values, buffer, start, middle);
+        sort(values, buffer, middle + 1, end);
+
+        merge(values, buffer, start, end, middle);
+    }
+
+    private static void merge(double[] values, double[] buffer, int start, int end, int middle) {
+        if (!SortRecorder.less(values[middle + 1], values[middle])) {
+            return;
+        }
+        System.arraycopy(values, start, buffer, start, middle - start + 1);
+
+        int i = start, j = middle + 1, k = start;
+        while (i <= middle && j <= end) {
+            if (SortRecorder.less(values[j], buffer[i])) {
+                values[k++] = values[j++];
+            } else {
+                values[k++] = buffer[i++];
+            }
+        }
+        while (i <= middle) {
+            values[k++] = buffer[i++];
+        }
+        SortRecorder.moved(middle - start + 1 + k - start);
+    }
+
+    /**
+     * Runs on the worker threads with the recorder of the thread which created the task.
+     */
+    @SuppressWarnings("serial")
+    private static abstract class RecordedTask extends RecursiveAction {
+
+        private final SortRecorder recorder = SortRecorder.current();
+
+        abstract void run();
+
+        @Override
+        protected final void compute() {
+            SortRecorder previous = SortRecorder.install(recorder);
+            try {
+                run();
+            } finally {
+                SortRecorder.install(previous);
+            }
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private class SortTask<T> extends RecordedTask {
+
+        private final T[] values;
+        private final Object[] buffer;
+        private final int start;
+        private final int end;
+        private final Comparator<T> comparator;
+
+        SortTask(T[] values, Object[] buffer, int start, int end, Comparator<T> comparator) {
+            this.values = values;
+            this.buffer = buffer;
+            this.start = start;
+            this.end = end;
+            this.comparator = comparator;
+        }
+
+        @Override
+        void run() {
+            if (end - start + 1 < cutoff) {
+                sort(values, buffer, start, end, comparator);
+                return;
+            }
+            int middle = (end + start) >>> 1;
+            invokeAll(new SortTask<>(values, buffer, start, middle, comparator),
+                    new SortTask<>(values, buffer, middle + 1, end, comparator));
+            merge(values, buffer, start, end, middle, comparator);
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private class IntSortTask extends RecordedTask {
+
+        private final int[] values;
+        private final int[] buffer;
+        private final int start;
+        private final int end;
+
+        IntSortTask(int[] values, int[] buffer, int start, int end) {
+            this.values = values;
+            this.buffer = buffer;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        void run() {
+            if (end - start + 1 < cutoff) {
+                sort(values, buffer, start, end);
+                return;
+            }
+            int middle = (end + start) >>> 1;
+            invokeAll(new IntSortTask(values, buffer, start, middle),
+                    new IntSortTask(values, buffer, middle + 1, end));
+            merge(values, buffer, start, end, middle);
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private class LongSortTask extends RecordedTask {
+
+        private final long[] values;
+        private final long[] buffer;
+        private final int start;
+        private final int end;
+
+        LongSortTask(long[] values, long[] buffer, int start, int end) {
+            this.values = values;
+            this.buffer = buffer;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        void run() {
+            if (end - start + 1 < cutoff) {
+                sort(values, buffer, start, end);
+                return;
+            }
+            int middle = (end + start) >>> 1;
+            invokeAll(new LongSortTask(values, buffer, start, middle),
+                    new LongSortTask(values, buffer, middle + 1, end));
+            merge(values, buffer, start, end, middle);
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private class DoubleSortTask extends RecordedTask {
+
+        private final double[] values;
+        private final double[] buffer;
+        private final int start;
+        private final int end;
+
+        DoubleSortTask(double[] values, double[] buffer, int start, int end) {
+            this.values = values;
+            this.buffer = buffer;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        void run() {
+            if (end - start + 1 < cutoff) {
+                sort(values, buffer, start, end);
+                return;
+            }
+            int middle = (end + start) >>> 1;
+            invokeAll(new DoubleSortTask(values, buffer, start, middle),
+                    new DoubleSortTask(values, buffer, middle + 1, end));
+            merge(values, buffer, start, end, middle);
         }
     }
 }
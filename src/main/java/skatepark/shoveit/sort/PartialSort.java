@@ -0,0 +1,576 @@
+package skatepark.shoveit.sort;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+
+/**
+ * Selection of the smallest elements, without sorting everything. Comparators follow {@link ISort}: null stands for
+ * the natural order, doubles follow {@link Double#compare(double, double)}, and reversing the comparator selects the
+ * largest elements instead.
+ * <p>
+ * {@code nthElement} is introselect: quickselect with median of 3 pivots and three-way partitioning, which turns to
+ * median of medians pivots once {@code 2 log n} rounds did not narrow the range down, so it runs in linear time even
+ * on inputs built against median of 3. {@code partialSort} then sorts the first {@code k} elements only.
+ * {@code topK} reads any number of elements through a bounded heap, holding {@code k} of them at most.
+ */
+public class PartialSort {
+
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+    private static final int GROUP_SIZE = 5;
+
+    /**
+     * Moves the element which would be at {@code n} once sorted there, with no greater element before it and no
+     * smaller element after it.
+     *
+     * @param comparator null for the natural order.
+     */
+    public <T> void nthElement(T[] list, int n, Comparator<T> comparator) {
+        checkIndex(n, list.length);
+        select(list, 0, list.length, n, comparator, budget(list.length));
+    }
+
+    public <T extends Comparable> void nthElement(T[] list, int n) {
+        nthElement(list, n, null);
+    }
+
+    /**
+     * @return the element which would be at {@code n} once sorted, the list being reordered as by
+     * {@link #nthElement(Object[], int, Comparator)}.
+     */
+    public <T> T select(T[] list, int n, Comparator<T> comparator) {
+        nthElement(list, n, comparator);
+        return list[n];
+    }
+
+    /**
+     * Sorts the {@code k} smallest elements at the front of the list, leaving the others after them in no order.
+     */
+    public <T> void partialSort(T[] list, int k, Comparator<T> comparator) {
+        checkCount(k, list.length);
+        if (k > 0 && k < list.length) {
+            select(list, 0, list.length, k - 1, comparator, budget(list.length));
+        }
+        Arrays.sort(list, 0, k, comparator == null ? (Comparator<T>) Comparator.naturalOrder() : comparator);
+    }
+
+    public void nthElement(int[] list, int n) {
+        checkIndex(n, list.length);
+        select(list, 0, list.length, n, budget(list.length));
+    }
+
+    public int select(int[] list, int n) {
+        nthElement(list, n);
+        return list[n];
+    }
+
+    public void partialSort(int[] list, int k) {
+        checkCount(k, list.length);
+        if (k > 0 && k < list.length) {
+            select(list, 0, list.length, k - 1, budget(list.length));
+        }
+        Arrays.sort(list, 0, k);
+    }
+
+    public void nthElement(long[] list, int n) {
+        checkIndex(n, list.length);
+        select(list, 0, list.length, n, budget(list.length));
+    }
+
+    public long select(long[] list, int n) {
+        nthElement(list, n);
+        return list[n];
+    }
+
+    public void partialSort(long[] list, int k) {
+        checkCount(k, list.length);
+        if (k > 0 && k < list.length) {
+            select(list, 0, list.length, k - 1, budget(list.length));
+        }
+        Arrays.sort(list, 0, k);
+    }
+
+    public void nthElement(double[] list, int n) {
+        checkIndex(n, list.length);
+        select(list, 0, list.length, n, budget(list.length));
+    }
+
+    public double select(double[] list, int n) {
+        nthElement(list, n);
+        return list[n];
+    }
+
+    public void partialSort(double[] list, int k) {
+        checkCount(k, list.length);
+        if (k > 0 && k < list.length) {
+            select(list, 0, list.length, k - 1, budget(list.length));
+        }
+        Arrays.sort(list, 0, k);
+    }
+
+    /**
+     * @return the {@code k} smallest elements in order, equal ones in the order they were read.
+     */
+    public <T> List<T> topK(Iterator<? extends T> input, int k, Comparator<T> comparator) {
+        TopK<T> top = new TopK<>(k, comparator);
+        while (input.hasNext()) {
+            top.add(input.next());
+        }
+        return top.toList();
+    }
+
+    /**
+     * @return the {@code k} smallest elements in order, equal ones in encounter order.
+     */
+    public <T> List<T> topK(Stream<? extends T> input, int k, Comparator<T> comparator) {
+        return input.collect(topK(k, comparator));
+    }
+
+    /**
+     * Collects the {@code k} smallest elements in order, equal ones in encounter order. Parallel streams fill one
+     * heap per thread and merge them.
+     */
+    public <T> Collector<T, ?, List<T>> topK(int k, Comparator<T> comparator) {
+        checkCount(k, Integer.MAX_VALUE);
+        return Collector.of(() -> new TopK<>(k, comparator), TopK::add, TopK::combine, TopK::toList);
+    }
+
+    /**
+     * Narrows {@code [from, to)} down around {@code n} by three-way partitions, spending {@code budget} rounds on
+     * median of 3 pivots before turning to median of medians.
+     */
+    static <T> void select(T[] list, int from, int to, int n, Comparator<T> comparator, int budget) {
+        while (to - from > INSERTION_SORT_THRESHOLD) {
+            int pivot = budget-- > 0 ? medianOf3(list, from, (from + to) >>> 1, to - 1, comparator)
+                    : medianOfMedians(list, from, to, comparator);
+            T value = list[pivot];
+            // [from, lower) is smaller than the pivot, [lower, i) equal to it and [upper, to) greater
+            int lower = from;
+            int upper = to;
+            int i = from;
+            while (i < upper) {
+                int comparison = compare(list[i], value, comparator);
+                if (comparison < 0) {
+                    swap(list, lower++, i++);
+                } else if (comparison > 0) {
+                    swap(list, i, --upper);
+                } else {
+                    i++;
+                }
+            }
+            if (n < lower) {
+                to = lower;
+            } else if (n >= upper) {
+                from = upper;
+            } else {
+                return;
+            }
+        }
+        insertionSort(list, from, to, comparator);
+    }
+
+    private static <T> int medianOf3(T[] list, int a, int b, int c, Comparator<T> comparator) {
+        if (compare(list[a], list[b], comparator) < 0) {
+            if (compare(list[b], list[c], comparator) < 0) {
+                return b;
+            }
+            return compare(list[a], list[c], comparator) < 0 ? c : a;
+        }
+        if (compare(list[a], list[c], comparator) < 0) {
+            return a;
+        }
+        return compare(list[b], list[c], comparator) < 0 ? c : b;
+    }
+
+    /**
+     * Moves the median of every group of 5 to the front of the range.
+     *
+     * @return the index of the median of those medians.
+     */
+    private static <T> int medianOfMedians(T[] list, int from, int to, Comparator<T> comparator) {
+        int medians = from;
+        for (int group = from; group + GROUP_SIZE <= to; group += GROUP_SIZE) {
+            insertionSort(list, group, group + GROUP_SIZE, comparator);
+            swap(list, medians++, group + GROUP_SIZE / 2);
+        }
+        int middle = (from + medians) >>> 1;
+        select(list, from, medians, middle, comparator, budget(medians - from));
+        return middle;
+    }
+
+    private static <T> void insertionSort(T[] list, int from, int to, Comparator<T> comparator) {
+        for (int i = from + 1; i < to; i++) {
+            T elem = list[i];
+            int j = i;
+            while (j > from && compare(elem, list[j - 1], comparator) < 0) {
+                list[j] = list[j - 1];
+                j--;
+            }
+            list[j] = elem;
+        }
+    }
+
+    private static <T> void swap(T[] list, int i, int j) {
+        T elem = list[i];
+        list[i] = list[j];
+        list[j] = elem;
+    }
+
+    static void select(int[] list, int from, int to, int n, int budget) {
+        while (to - from > INSERTION_SORT_THRESHOLD) {
+            int pivot = budget-- > 0 ? medianOf3(list, from, (from + to) >>> 1, to - 1)
+                    : medianOfMedians(list, from, to);
+            int value = list[pivot];
+            int lower = from;
+            int upper = to;
+            int i = from;
+            while (i < upper) {
+                int comparison = Integer.compare(list[i], value);
+                if (comparison < 0) {
+                    swap(list, lower++, i++);
+                } else if (comparison > 0) {
+                    swap(list, i, --upper);
+                } else {
+                    i++;
+                }
+            }
+            if (n < lower) {
+                to = lower;
+            } else if (n >= upper) {
+                from = upper;
+            } else {
+                return;
+            }
+        }
+        insertionSort(list, from, to);
+    }
+
+    private static int medianOf3(int[] list, int a, int b, int c) {
+        if (Integer.compare(list[a], list[b]) < 0) {
+            if (Integer.compare(list[b], list[c]) < 0) {
+                return b;
+            }
+            return Integer.compare(list[a], list[c]) < 0 ? c : a;
+        }
+        if (Integer.compare(list[a], list[c]) < 0) {
+            return a;
+        }
+        return Integer.compare(list[b], list[c]) < 0 ? c : b;
+    }
+
+    private static int medianOfMedians(int[] list, int from, int to) {
+        int medians = from;
+        for (int group = from; group + GROUP_SIZE <= to; group += GROUP_SIZE) {
+            insertionSort(list, group, group + GROUP_SIZE);
+            swap(list, medians++, group + GROUP_SIZE / 2);
+        }
+        int middle = (from + medians) >>> 1;
+        select(list, from, medians, middle, budget(medians - from));
+        return middle;
+    }
+
+    private static void insertionSort(int[] list, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            int elem = list[i];
+            int j = i;
+            while (j > from && Integer.compare(elem, list[j - 1]) < 0) {
+                list[j] = list[j - 1];
+                j--;
+            }
+            list[j] = elem;
+        }
+    }
+
+    private static void swap(int[] list, int i, int j) {
+        int elem = list[i];
+        list[i] = list[j];
+        list[j] = elem;
+    }
+
+    static void select(long[] list, int from, int to, int n, int budget) {
+        while (to - from > INSERTION_SORT_THRESHOLD) {
+            int pivot = budget-- > 0 ? medianOf3(list, from, (from + to) >>> 1, to - 1)
+                    : medianOfMedians(list, from, to);
+            long value = list[pivot];
+            int lower = from;
+            int upper = to;
+            int i = from;
+            while (i < upper) {
+                int comparison = Long.compare(list[i], value);
+                if (comparison < 0) {
+                    swap(list, lower++, i++);
+                } else if (comparison > 0) {
+                    swap(list, i, --upper);
+                } else {
+                    i++;
+                }
+            }
+            if (n < lower) {
+                to = lower;
+            } else if (n >= upper) {
+                from = upper;
+            } else {
+                return;
+            }
+        }
+        insertionSort(list, from, to);
+    }
+
+    private static int medianOf3(long[] list, int a, int b, int c) {
+        if (Long.compare(list[a], list[b]) < 0) {
+            if (Long.compare(list[b], list[c]) < 0) {
+                return b;
+            }
+            return Long.compare(list[a], list[c]) < 0 ? c : a;
+        }
+        if (Long.compare(list[a], list[c]) < 0) {
+            return a;
+        }
+        return Long.compare(list[b], list[c]) < 0 ? c : b;
+    }
+
+    private static int medianOfMedians(long[] list, int from, int to) {
+        int medians = from;
+        for (int group = from; group + GROUP_SIZE <= to; group += GROUP_SIZE) {
+            insertionSort(list, group, group + GROUP_SIZE);
+            swap(list, medians++, group + GROUP_SIZE / 2);
+        }
+        int middle = (from + medians) >>> 1;
+        select(list, from, medians, middle, budget(medians - from));
+        return middle;
+    }
+
+    private static void insertionSort(long[] list, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            long elem = list[i];
+            int j = i;
+            while (j > from && Long.compare(elem, list[j - 1]) < 0) {
+                list[j] = list[j - 1];
+                j--;
+            }
+            list[j] = elem;
+        }
+    }
+
+    private static void swap(long[] list, int i, int j) {
+        long elem = list[i];
+        list[i] = list[j];
+        list[j] = elem;
+    }
+
+    static void select(double[] list, int from, int to, int n, int budget) {
+        while (to - from > INSERTION_SORT_THRESHOLD) {
+            int pivot = budget-- > 0 ? medianOf3(list, from, (from + to) >>> 1, to - 1)
+                    : medianOfMedians(list, from, to);
+            double value = list[pivot];
+            int lower = from;
+            int upper = to;
+            int i = from;
+            while (i < upper) {
+                int comparison = Double.compare(list[i], value);
+                if (comparison < 0) {
+                    swap(list, lower++, i++);
+                } else if (comparison > 0) {
+                    swap(list, i, --upper);
+                } else {
+                    i++;
+                }
+            }
+            if (n < lower) {
+                to = lower;
+            } else if (n >= upper) {
+                from = upper;
+            } else {
+                return;
+            }
+        }
+        insertionSort(list, from, to);
+    }
+
+    private static int medianOf3(double[] list, int a, int b, int c) {
+        if (Double.compare(list[a], list[b]) < 0) {
+            if (Double.compare(list[b], list[c]) < 0) {
+                return b;
+            }
+            return Double.compare(list[a], list[c]) < 0 ? c : a;
+        }
+        if (Double.compare(list[a], list[c]) < 0) {
+            return a;
+        }
+        return Double.compare(list[b], list[c]) < 0 ? c : b;
+    }
+
+    private static int medianOfMedians(double[] list, int from, int to) {
+        int medians = from;
+        for (int group = from; group + GROUP_SIZE <= to; group += GROUP_SIZE) {
+            insertionSort(list, group, group + GROUP_SIZE);
+            swap(list, medians++, group + GROUP_SIZE / 2);
+        }
+        int middle = (from + medians) >>> 1;
+        select(list, from, medians, middle, budget(medians - from));
+        return middle;
+    }
+
+    private static void insertionSort(double[] list, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            double elem = list[i];
+            int j = i;
+            while (j > from && Double.compare(elem, list[j - 1]) < 0) {
+                list[j] = list[j - 1];
+                j--;
+            }
+            list[j] = elem;
+        }
+    }
+
+    private static void swap(double[] list, int i, int j) {
+        double elem = list[i];
+        list[i] = list[j];
+        list[j] = elem;
+    }
+
+    /**
+     * @return rounds of median of 3 pivots allowed on {@code length} elements.
+     */
+    private static int budget(int length) {
+        return 2 * (Integer.SIZE - Integer.numberOfLeadingZeros(length));
+    }
+
+    private static <T> int compare(T left, T right, Comparator<T> comparator) {
+        if (comparator != null) {
+            return comparator.compare(left, right);
+        }
+        return ((Comparable<T>) left).compareTo(right);
+    }
+
+    private static void checkIndex(int n, int length) {
+        if (n < 0 || n >= length) {
+            throw new IndexOutOfBoundsException("n: " + n + ", length: " + length);
+        }
+    }
+
+    private static void checkCount(int k, int length) {
+        if (k < 0 || k > length) {
+            throw new IllegalArgumentException("k should be between 0 and " + length + ", not " + k);
+        }
+    }
+
+    /**
+     * Bounded max-heap of the smallest elements read so far, ties being broken by the order they were read in.
+     */
+    private static final class TopK<T> {
+
+        private final int k;
+        private final Comparator<T> comparator;
+        private Object values[];
+        private long order[];
+        private int size;
+        private long read;
+
+        TopK(int k, Comparator<T> comparator) {
+            checkCount(k, Integer.MAX_VALUE);
+            this.k = k;
+            this.comparator = comparator;
+            this.values = new Object[Math.min(k, INSERTION_SORT_THRESHOLD)];
+            this.order = new long[values.length];
+        }
+
+        void add(T value) {
+            offer(value, read++);
+        }
+
+        /**
+         * Adds the elements of {@code other}, which were read after the ones of this heap.
+         */
+        TopK<T> combine(TopK<T> other) {
+            for (int i = 0; i < other.size; i++) {
+                offer((T) other.values[i], read + other.order[i]);
+            }
+            read += other.read;
+            return this;
+        }
+
+        /**
+         * Heap sort of the elements kept, which leaves the heap empty.
+         */
+        List<T> toList() {
+            for (int end = size - 1; end > 0; end--) {
+                swap(0, end);
+                siftDown(0, end);
+            }
+            List<T> list = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                list.add((T) values[i]);
+            }
+            size = 0;
+            return list;
+        }
+
+        private void offer(T value, long sequence) {
+            if (size < k) {
+                if (size == values.length) {
+                    int capacity = (int) Math.min(k, size * 2L);
+                    values = Arrays.copyOf(values, capacity);
+                    order = Arrays.copyOf(order, capacity);
+                }
+                values[size] = value;
+                order[size] = sequence;
+                siftUp(size++);
+            } else if (k > 0 && before(value, sequence, 0)) {
+                values[0] = value;
+                order[0] = sequence;
+                siftDown(0, size);
+            }
+        }
+
+        private boolean before(T value, long sequence, int index) {
+            int comparison = compare(value, (T) values[index], comparator);
+            return comparison < 0 || comparison == 0 && sequence < order[index];
+        }
+
+        private boolean before(int i, int j) {
+            return before((T) values[i], order[i], j);
+        }
+
+        private void siftUp(int index) {
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (!before(parent, index)) {
+                    break;
+                }
+                swap(parent, index);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int index, int size) {
+            while (true) {
+                int child = 2 * index + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && before(child, child + 1)) {
+                    child++;
+                }
+                if (!before(index, child)) {
+                    break;
+                }
+                swap(index, child);
+                index = child;
+            }
+        }
+
+        private void swap(int i, int j) {
+            Object value = values[i];
+            values[i] = values[j];
+            values[j] = value;
+            long sequence = order[i];
+            order[i] = order[j];
+            order[j] = sequence;
+        }
+    }
+}
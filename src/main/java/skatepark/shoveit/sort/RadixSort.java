@@ -0,0 +1,398 @@
+package skatepark.shoveit.sort;
+
+import java.util.Arrays;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Radix sorts, which never compare elements and run in linear time for fixed size keys. This is why they do not
+ * implement {@link ISort}, whose contract is any {@link java.util.Comparator}.
+ * <p>
+ * Numbers are sorted least significant byte first (LSD), one counting pass per byte, skipping the bytes all keys
+ * share, and so are objects by an {@code int} or {@code long} key. Those are always stable. Strings are sorted most
+ * significant byte first (MSD) in the order of {@link String#compareTo}, either stably through a buffer or in place
+ * without one.
+ * <p>
+ * Buffers are kept from one call to the next, so an instance should not be shared between threads.
+ */
+public class RadixSort {
+
+    private static final int RADIX = 256;
+    /**
+     * Ranges of strings up to this size are finished by insertion sort.
+     */
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+
+    private final boolean stable;
+
+    private final int counts[] = new int[Long.BYTES * RADIX];
+    private int intBuffer[] = new int[0];
+    private long longBuffer[] = new long[0];
+    private Object objectBuffer[] = new Object[0];
+    private String stringBuffer[] = new String[0];
+    /**
+     * Per string range, {@code bucketCounts[b + 2]} counts bucket {@code b}.
+     */
+    private final int bucketCounts[] = new int[RADIX + 3];
+    private final int bucketEnds[] = new int[RADIX + 1];
+    private int ranges[] = new int[3 * 64];
+
+    /**
+     * Stable sort of strings, through a buffer.
+     */
+    public RadixSort() {
+        this(true);
+    }
+
+    /**
+     * @param stable whether strings are sorted through a buffer keeping equal ones in order, or in place.
+     */
+    public RadixSort(boolean stable) {
+        this.stable = stable;
+    }
+
+    public void sort(int[] list) {
+        int size = list.length;
+        if (size < 2) {
+            return;
+        }
+        Arrays.fill(counts, 0, Integer.BYTES * RADIX, 0);
+        for (int value : list) {
+            // flipping the sign bit orders negative values first
+            int key = value ^ Integer.MIN_VALUE;
+            for (int pass = 0; pass < Integer.BYTES; pass++) {
+                counts[pass * RADIX + ((key >>> (pass * 8)) & 0xff)]++;
+            }
+        }
+
+        int from[] = list;
+        int to[] = intBuffer(size);
+        for (int pass = 0; pass < Integer.BYTES; pass++) {
+            int shift = pass * 8;
+            if (!positions(pass, size, ((from[0] ^ Integer.MIN_VALUE) >>> shift) & 0xff)) {
+                continue;
+            }
+            // the buffer may be longer than the list
+            for (int i = 0; i < size; i++) {
+                int value = from[i];
+                to[counts[pass * RADIX + (((value ^ Integer.MIN_VALUE) >>> shift) & 0xff)]++] = value;
+            }
+            int swap[] = from;
+            from = to;
+            to = swap;
+        }
+        if (from != list) {
+            System.arraycopy(from, 0, list, 0, size);
+        }
+    }
+
+    public void sort(long[] list) {
+        int size = list.length;
+        if (size < 2) {
+            return;
+        }
+        Arrays.fill(counts, 0, Long.BYTES * RADIX, 0);
+        for (long value : list) {
+            long key = value ^ Long.MIN_VALUE;
+            for (int pass = 0; pass < Long.BYTES; pass++) {
+                counts[pass * RADIX + (int) ((key >>> (pass * 8)) & 0xff)]++;
+            }
+        }
+
+        long from[] = list;
+        long to[] = longBuffer(size);
+        for (int pass = 0; pass < Long.BYTES; pass++) {
+            int shift = pass * 8;
+            if (!positions(pass, size, (int) (((from[0] ^ Long.MIN_VALUE) >>> shift) & 0xff))) {
+                continue;
+            }
+            for (int i = 0; i < size; i++) {
+                long value = from[i];
+                to[counts[pass * RADIX + (int) (((value ^ Long.MIN_VALUE) >>> shift) & 0xff)]++] = value;
+            }
+            long swap[] = from;
+            from = to;
+            to = swap;
+        }
+        if (from != list) {
+            System.arraycopy(from, 0, list, 0, size);
+        }
+    }
+
+    /**
+     * Stable sort by {@code key}, which is read once per element.
+     */
+    public <T> void sortByInt(T[] list, ToIntFunction<? super T> key) {
+        int size = list.length;
+        if (size < 2) {
+            return;
+        }
+        int keys[] = intBuffer(size * 2);
+        Arrays.fill(counts, 0, Integer.BYTES * RADIX, 0);
+        for (int i = 0; i < size; i++) {
+            int value = key.applyAsInt(list[i]) ^ Integer.MIN_VALUE;
+            keys[i] = value;
+            for (int pass = 0; pass < Integer.BYTES; pass++) {
+                counts[pass * RADIX + ((value >>> (pass * 8)) & 0xff)]++;
+            }
+        }
+
+        // keys move along with their elements, between both halves of the buffer
+        Object from[] = list;
+        Object to[] = objectBuffer(size);
+        int fromKeys = 0;
+        int toKeys = size;
+        for (int pass = 0; pass < Integer.BYTES; pass++) {
+            int shift = pass * 8;
+            if (!positions(pass, size, (keys[fromKeys] >>> shift) & 0xff)) {
+                continue;
+            }
+            for (int i = 0; i < size; i++) {
+                int value = keys[fromKeys + i];
+                int position = counts[pass * RADIX + ((value >>> shift) & 0xff)]++;
+                to[position] = from[i];
+                keys[toKeys + position] = value;
+            }
+            Object swap[] = from;
+            from = to;
+            to = swap;
+            int swapKeys = fromKeys;
+            fromKeys = toKeys;
+            toKeys = swapKeys;
+        }
+        if (from != list) {
+            System.arraycopy(from, 0, list, 0, size);
+        }
+        Arrays.fill(objectBuffer, 0, size, null);
+    }
+
+    /**
+     * Stable sort by {@code key}, which is read once per element.
+     */
+    public <T> void sortByLong(T[] list, ToLongFunction<? super T> key) {
+        int size = list.length;
+        if (size < 2) {
+            return;
+        }
+        long keys[] = longBuffer(size * 2);
+        Arrays.fill(counts, 0, Long.BYTES * RADIX, 0);
+        for (int i = 0; i < size; i++) {
+            long value = key.applyAsLong(list[i]) ^ Long.MIN_VALUE;
+            keys[i] = value;
+            for (int pass = 0; pass < Long.BYTES; pass++) {
+                counts[pass * RADIX + (int) ((value >>> (pass * 8)) & 0xff)]++;
+            }
+        }
+
+        Object from[] = list;
+        Object to[] = objectBuffer(size);
+        int fromKeys = 0;
+        int toKeys = size;
+        for (int pass = 0; pass < Long.BYTES; pass++) {
+            int shift = pass * 8;
+            if (!positions(pass, size, (int) ((keys[fromKeys] >>> shift) & 0xff))) {
+                continue;
+            }
+            for (int i = 0; i < size; i++) {
+                long value = keys[fromKeys + i];
+                int position = counts[pass * RADIX + (int) ((value >>> shift) & 0xff)]++;
+                to[position] = from[i];
+                keys[toKeys + position] = value;
+            }
+            Object swap[] = from;
+            from = to;
+            to = swap;
+            int swapKeys = fromKeys;
+            fromKeys = toKeys;
+            toKeys = swapKeys;
+        }
+        if (from != list) {
+            System.arraycopy(from, 0, list, 0, size);
+        }
+        Arrays.fill(objectBuffer, 0, size, null);
+    }
+
+    /**
+     * Sorts in the order of {@link String#compareTo}, two passes per character, high byte first. Ranges still to
+     * sort are kept on an explicit stack, so long common prefixes cannot overflow the call stack.
+     */
+    public void sort(String[] list) {
+        int size = list.length;
+        if (size < 2) {
+            return;
+        }
+        String buffer[] = stable ? stringBuffer(size) : null;
+        int count[] = bucketCounts;
+        int top = push(0, 0, size, 0);
+        while (top > 0) {
+            top -= 3;
+            int start = ranges[top];
+            int end = ranges[top + 1];
+            int digit = ranges[top + 2];
+            if (end - start <= INSERTION_SORT_THRESHOLD) {
+                insertionSort(list, start, end, digit / 2);
+                continue;
+            }
+
+            // bucket 0 holds the strings which are already over, bucket b + 1 the byte b
+            Arrays.fill(count, 0);
+            for (int i = start; i < end; i++) {
+                count[byteAt(list[i], digit) + 2]++;
+            }
+            if (count[byteAt(list[start], digit) + 2] == end - start) {
+                // all share this byte, unless they are all over
+                if (byteAt(list[start], digit) > 0) {
+                    top = push(top, start, end, digit + 1);
+                }
+                continue;
+            }
+            // count[b + 1] becomes the start of bucket b
+            for (int b = 0; b <= RADIX; b++) {
+                count[b + 1] += count[b];
+            }
+
+            if (stable) {
+                for (int i = start; i < end; i++) {
+                    buffer[count[byteAt(list[i], digit) + 1]++] = list[i];
+                }
+                System.arraycopy(buffer, 0, list, start, end - start);
+            } else {
+                permute(list, start, end, digit);
+            }
+
+            // and now its end, the strings which are over being left as they are
+            for (int b = 1; b <= RADIX; b++) {
+                int bucketStart = start + count[b];
+                int bucketEnd = start + count[b + 1];
+                if (bucketEnd - bucketStart > 1) {
+                    top = push(top, bucketStart, bucketEnd, digit + 1);
+                }
+            }
+        }
+        if (buffer != null) {
+            Arrays.fill(buffer, 0, size, null);
+        }
+    }
+
+    /**
+     * In place distribution into buckets, as in American flag sort: every misplaced string is swapped straight into
+     * its bucket, whose next free slot moves forward.
+     */
+    private void permute(String list[], int start, int end, int digit) {
+        int count[] = bucketCounts;
+        int ends[] = bucketEnds;
+        for (int b = 0; b < RADIX; b++) {
+            ends[b] = count[b + 2];
+        }
+        ends[RADIX] = end - start;
+        for (int b = 0; b <= RADIX; b++) {
+            while (count[b + 1] < ends[b]) {
+                String value = list[start + count[b + 1]];
+                int target = byteAt(value, digit);
+                while (target != b) {
+                    int slot = start + count[target + 1]++;
+                    String swap = list[slot];
+                    list[slot] = value;
+                    value = swap;
+                    target = byteAt(value, digit);
+                }
+                list[start + count[b + 1]++] = value;
+            }
+        }
+    }
+
+    /**
+     * @return byte {@code digit} of the string, high byte of each character first, plus one, or 0 past its end.
+     */
+    private static int byteAt(String value, int digit) {
+        int index = digit >>> 1;
+        if (index >= value.length()) {
+            return 0;
+        }
+        char character = value.charAt(index);
+        return ((digit & 1) == 0 ? character >>> 8 : character & 0xff) + 1;
+    }
+
+    /**
+     * Stable insertion sort of strings sharing their first {@code offset} characters.
+     */
+    private static void insertionSort(String list[], int start, int end, int offset) {
+        for (int i = start + 1; i < end; i++) {
+            String value = list[i];
+            int j = i - 1;
+            while (j >= start && compare(list[j], value, offset) > 0) {
+                list[j + 1] = list[j];
+                j--;
+            }
+            list[j + 1] = value;
+        }
+    }
+
+    private static int compare(String left, String right, int offset) {
+        int length = Math.min(left.length(), right.length());
+        for (int i = offset; i < length; i++) {
+            int difference = left.charAt(i) - right.charAt(i);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return left.length() - right.length();
+    }
+
+    /**
+     * Turns the counts of byte {@code pass} into the first position of each byte value.
+     *
+     * @return false when every key has the same byte, the pass then leaves the order as it is.
+     */
+    private boolean positions(int pass, int size, int anyByte) {
+        int offset = pass * RADIX;
+        if (counts[offset + anyByte] == size) {
+            return false;
+        }
+        int position = 0;
+        for (int b = offset; b < offset + RADIX; b++) {
+            int count = counts[b];
+            counts[b] = position;
+            position += count;
+        }
+        return true;
+    }
+
+    private int push(int top, int start, int end, int digit) {
+        if (top + 3 > ranges.length) {
+            ranges = Arrays.copyOf(ranges, ranges.length * 2);
+        }
+        ranges[top] = start;
+        ranges[top + 1] = end;
+        ranges[top + 2] = digit;
+        return top + 3;
+    }
+
+    private int[] intBuffer(int size) {
+        if (intBuffer.length < size) {
+            intBuffer = new int[size];
+        }
+        return intBuffer;
+    }
+
+    private long[] longBuffer(int size) {
+        if (longBuffer.length < size) {
+            longBuffer = new long[size];
+        }
+        return longBuffer;
+    }
+
+    private String[] stringBuffer(int size) {
+        if (stringBuffer.length < size) {
+            stringBuffer = new String[size];
+        }
+        return stringBuffer;
+    }
+
+    private Object[] objectBuffer(int size) {
+        if (objectBuffer.length < size) {
+            objectBuffer = new Object[size];
+        }
+        return objectBuffer;
+    }
+}
@@ -17,6 +17,58 @@ public class SelectionSort implements ISort {
             }
             list[cIndex] = list[i];
             list[i] = candidate;
+            SortRecorder.moved(2);
+        }
+    }
+
+    @Override
+    public void sort(int[] list) {
+        for (int i = 0; i < list.length - 1; i++) {
+            int candidate = list[i];
+            int cIndex = i;
+            for (int j = i + 1; j < list.length; j++) {
+                if (SortRecorder.less(list[j], candidate)) {
+                    candidate = list[j];
+                    cIndex = j;
+                }
+            }
+            list[cIndex] = list[i];
+            list[i] = candidate;
+            SortRecorder.moved(2);
+        }
+    }
+
+    @Override
+    public void sort(long[] list) {
+        for (int i = 0; i < list.length - 1; i++) {
+            long candidate = list[i];
+            int cIndex = i;
+            for (int j = i + 1; j < list.length; j++) {
+                if (SortRecorder.less(list[j], candidate)) {
+                    candidate = list[j];
+                    cIndex = j;
+                }
+            }
+            list[cIndex] = list[i];
+            list[i] = candidate;
+            SortRecorder.moved(2);
+        }
+    }
+
+    @Override
+    public void sort(double[] list) {
+        for (int i = 0; i < list.length - 1; i++) {
+            double candidate = list[i];
+            int cIndex = i;
+            for (int j = i + 1; j < list.length; j++) {
+                if (SortRecorder.less(list[j], candidate)) {
+                    candidate = list[j];
+                    cIndex = j;
+                }
+            }
+            list[cIndex] = list[i];
+            list[i] = candidate;
+            SortRecorder.moved(2);
         }
     }
 }
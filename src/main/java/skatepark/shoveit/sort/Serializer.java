@@ -0,0 +1,66 @@
+package skatepark.shoveit.sort;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes records to and reads them from the files of an {@link ExternalSort}. Records are framed by the sort, so a
+ * serializer only deals with the bytes of one record at a time. Chunks are spilled in parallel, so it is used by
+ * several threads at once.
+ */
+public interface Serializer<T> {
+
+    Serializer<Integer> INTEGER = new Serializer<Integer>() {
+        @Override
+        public void write(Integer value, ByteBuffer target) {
+            target.putInt(value);
+        }
+
+        @Override
+        public Integer read(ByteBuffer source) {
+            return source.getInt();
+        }
+    };
+
+    Serializer<Long> LONG = new Serializer<Long>() {
+        @Override
+        public void write(Long value, ByteBuffer target) {
+            target.putLong(value);
+        }
+
+        @Override
+        public Long read(ByteBuffer source) {
+            return source.getLong();
+        }
+    };
+
+    /**
+     * Strings as UTF-8.
+     */
+    Serializer<String> STRING = new Serializer<String>() {
+        @Override
+        public void write(String value, ByteBuffer target) {
+            target.put(value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public String read(ByteBuffer source) {
+            byte bytes[] = new byte[source.remaining()];
+            source.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    };
+
+    /**
+     * Writes {@code value} at the position of {@code target}.
+     *
+     * @throws java.nio.BufferOverflowException if it does not fit, the record is then written again into a larger
+     *                                          space, whatever was written the first time being dropped.
+     */
+    void write(T value, ByteBuffer target);
+
+    /**
+     * @param source holds exactly the bytes written for the record, from its position to its limit.
+     */
+    T read(ByteBuffer source);
+}
@@ -0,0 +1,56 @@
+package skatepark.shoveit.sort;
+
+/**
+ * What one sort did. Comparisons count every comparison between elements, through {@link ISort#compare} or between
+ * primitive values. Moves count elements written into the array or into scratch space, and scratch bytes the arrays
+ * allocated by the sort, references taking 4 bytes.
+ */
+public final class SortMetrics {
+
+    private final String algorithm;
+    private final int length;
+    private final long comparisons;
+    private final long moves;
+    private final long scratchBytes;
+    private final long elapsedNanos;
+
+    public SortMetrics(String algorithm, int length, long comparisons, long moves, long scratchBytes,
+                       long elapsedNanos) {
+        this.algorithm = algorithm;
+        this.length = length;
+        this.comparisons = comparisons;
+        this.moves = moves;
+        this.scratchBytes = scratchBytes;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public long getComparisons() {
+        return comparisons;
+    }
+
+    public long getMoves() {
+        return moves;
+    }
+
+    public long getScratchBytes() {
+        return scratchBytes;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return algorithm + "[length=" + length + ", comparisons=" + comparisons + ", moves=" + moves
+                + ", scratchBytes=" + scratchBytes + ", elapsedNanos=" + elapsedNanos + "]";
+    }
+}
@@ -0,0 +1,118 @@
+package skatepark.shoveit.sort;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of one sort, fed by hooks at the comparison, move and allocation sites of every {@link ISort}. Hooks
+ * report to the recorder installed on the current thread, if any, and do nothing at all unless
+ * {@code -Dshoveit.sort.instrumentation=true}: {@link #ENABLED} is then a false constant which the JIT folds, so a
+ * hook compiles to nothing, arguments included.
+ */
+final class SortRecorder {
+
+    static final boolean ENABLED = Boolean.getBoolean("shoveit.sort.instrumentation");
+    /**
+     * Size of a reference in scratch arrays, as with compressed oops.
+     */
+    static final int REFERENCE_BYTES = 4;
+
+    private static final ThreadLocal<SortRecorder> CURRENT = new ThreadLocal<>();
+
+    // parallel sorts report from every worker thread
+    private final LongAdder comparisons = new LongAdder();
+    private final LongAdder moves = new LongAdder();
+    private final LongAdder scratchBytes = new LongAdder();
+
+    static void compared() {
+        if (ENABLED) {
+            SortRecorder recorder = CURRENT.get();
+            if (recorder != null) {
+                recorder.comparisons.increment();
+            }
+        }
+    }
+
+    /**
+     * Compares two primitive values for a sort of primitives, counting the comparison. Doubles follow the total order
+     * of {@link Double#compare(double, double)}.
+     */
+    static boolean less(int left, int right) {
+        compared();
+        return left < right;
+    }
+
+    static boolean less(long left, long right) {
+        compared();
+        return left < right;
+    }
+
+    static boolean less(double left, double right) {
+        compared();
+        return Double.compare(left, right) < 0;
+    }
+
+    /**
+     * @param count elements written into the array being sorted or into its scratch space.
+     */
+    static void moved(long count) {
+        if (ENABLED) {
+            SortRecorder recorder = CURRENT.get();
+            if (recorder != null) {
+                recorder.moves.add(count);
+            }
+        }
+    }
+
+    static void allocated(long bytes) {
+        if (ENABLED) {
+            SortRecorder recorder = CURRENT.get();
+            if (recorder != null) {
+                recorder.scratchBytes.add(bytes);
+            }
+        }
+    }
+
+    /**
+     * @return the recorder of the current thread, which tasks forked from it should install where they run.
+     */
+    static SortRecorder current() {
+        return ENABLED ? CURRENT.get() : null;
+    }
+
+    /**
+     * @return the recorder installed before, to be installed back afterwards.
+     */
+    static SortRecorder install(SortRecorder recorder) {
+        if (!ENABLED) {
+            return null;
+        }
+        SortRecorder previous = CURRENT.get();
+        if (recorder == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(recorder);
+        }
+        return previous;
+    }
+
+    long getComparisons() {
+        return comparisons.sum();
+    }
+
+    long getMoves() {
+        return moves.sum();
+    }
+
+    long getScratchBytes() {
+        return scratchBytes.sum();
+    }
+
+    /**
+     * Adds the counts of a nested sort.
+     */
+    void add(SortRecorder other) {
+        comparisons.add(other.getComparisons());
+        moves.add(other.getMoves());
+        scratchBytes.add(other.getScratchBytes());
+    }
+}
@@ -0,0 +1,991 @@
+package skatepark.shoveit.sort;
+
+import java.util.Comparator;
+
+/**
+ * Adaptive, stable merge sort in the style of TimSort. Natural ascending and strictly descending runs are detected and
+ * kept, short runs are extended with binary insertion sort, and runs are merged with galloping, so presorted and
+ * partially ordered inputs take close to linear time and far fewer comparisons than {@link MergeSort}.
+ * <p>
+ * The primitive overloads share the run detection and the merge schedule, but merge with a plain linear merge once the
+ * runs are trimmed: comparing primitives is cheap enough that galloping does not pay off.
+ */
+public class TimSort implements ISort {
+
+    /**
+     * Arrays shorter than this are sorted with binary insertion sort alone.
+     */
+    private static final int MIN_MERGE = 32;
+
+    private static final int MIN_GALLOP = 7;
+
+    /**
+     * Upper bound of the run stack for any array length, given the invariants kept by {@link RunStack}.
+     */
+    private static final int MAX_RUNS = 49;
+
+    @Override
+    public <T> void sort(T[] list, Comparator<T> comparator) {
+        if (list.length > 1) {
+            new Merger<>(list, comparator).sort(list.length);
+        }
+    }
+
+    @Override
+    public void sort(int[] list) {
+        if (list.length > 1) {
+            new IntMerger(list).sort(list.length);
+        }
+    }
+
+    @Override
+    public void sort(long[] list) {
+        if (list.length > 1) {
+            new LongMerger(list).sort(list.length);
+        }
+    }
+
+    @Override
+    public void sort(double[] list) {
+        if (list.length > 1) {
+            new DoubleMerger(list).sort(list.length);
+        }
+    }
+
+    /**
+     * Smallest run length to extend short runs to, between {@code MIN_MERGE / 2} and {@code MIN_MERGE}, chosen so
+     * that {@code n / minRun} is a power of two or just below one.
+     */
+    private static int minRunLength(int n) {
+        int r = 0;
+        while (n >= MIN_MERGE) {
+            r |= (n & 1);
+            n >>= 1;
+        }
+        return n + r;
+    }
+
+    /**
+     * Run stack shared by the element type specializations. Keeps the run lengths growing at least as fast as the
+     * Fibonacci numbers, so the stack stays logarithmic and merges stay balanced.
+     */
+    private abstract static class RunStack {
+
+        private final int[] runBase = new int[MAX_RUNS];
+        private final int[] runLen = new int[MAX_RUNS];
+        private int stackSize;
+
+        /**
+         * Returns the length of the run starting at {@code lo}, reversing it first when it is strictly descending.
+         * Only strictly descending runs are reversed, so equal elements never swap places.
+         */
+        abstract int countRunAndMakeAscending(int lo, int hi);
+
+        /**
+         * Sorts {@code [lo, hi)} knowing that {@code [lo, start)} is already sorted.
+         */
+        abstract void binaryInsertionSort(int lo, int hi, int start);
+
+        /**
+         * Merges the adjacent sorted runs {@code [base1, base1 + len1)} and {@code [base2, base2 + len2)}.
+         */
+        abstract void merge(int base1, int len1, int base2, int len2);
+
+        void sort(int n) {
+            if (n < MIN_MERGE) {
+                int run = countRunAndMakeAscending(0, n);
+                binaryInsertionSort(0, n, run);
+                return;
+            }
+            int minRun = minRunLength(n);
+            int lo = 0;
+            int remaining = n;
+            do {
+                int run = countRunAndMakeAscending(lo, lo + remaining);
+                if (run < minRun) {
+                    int force = Math.min(remaining, minRun);
+                    binaryInsertionSort(lo, lo + force, lo + run);
+                    run = force;
+                }
+                runBase[stackSize] = lo;
+                runLen[stackSize] = run;
+                stackSize++;
+                mergeCollapse();
+
+                lo += run;
+                remaining -= run;
+            } while (remaining != 0);
+            mergeForceCollapse();
+        }
+
+        private void mergeCollapse() {
+            while (stackSize > 1) {
+                int n = stackSize - 2;
+                if (n > 0 && runLen[n - 1] <= runLen[n] + runLen[n + 1]
+                        || n > 1 && runLen[n - 2] <= runLen[n] + runLen[n - 1]) {
+                    if (runLen[n - 1] < runLen[n + 1]) {
+                        n--;
+                    }
+                } else if (runLen[n] > runLen[n + 1]) {
+                    break;
+                }
+                mergeAt(n);
+            }
+        }
+
+        private void mergeForceCollapse() {
+            while (stackSize > 1) {
+                int n = stackSize - 2;
+                if (n > 0 && runLen[n - 1] < runLen[n + 1]) {
+                    n--;
+                }
+                mergeAt(n);
+            }
+        }
+
+        private void mergeAt(int i) {
+            int base1 = runBase[i];
+            int len1 = runLen[i];
+            int base2 = runBase[i + 1];
+            int len2 = runLen[i + 1];
+
+            runLen[i] = len1 + len2;
+            if (i == stackSize - 3) {
+                runBase[i + 1] = runBase[i + 2];
+                runLen[i + 1] = runLen[i + 2];
+            }
+            stackSize--;
+            merge(base1, len1, base2, len2);
+        }
+    }
+
+    private class Merger<T> extends RunStack {
+
+        private final T[] a;
+        private final Comparator<T> comparator;
+        private T[] tmp;
+        private int minGallop = MIN_GALLOP;
+
+        Merger(T[] a, Comparator<T> comparator) {
+            this.a = a;
+            this.comparator = comparator;
+        }
+
+        @Override
+        int countRunAndMakeAscending(int lo, int hi) {
+            int runHi = lo + 1;
+            if (runHi == hi) {
+                return 1;
+            }
+            if (compare(a[runHi++], a[lo], comparator) < 0) {
+                while (runHi < hi && compare(a[runHi], a[runHi - 1], comparator) < 0) {
+                    runHi++;
+                }
+                reverse(lo, runHi);
+            } else {
+                while (runHi < hi && compare(a[runHi], a[runHi - 1], comparator) >= 0) {
+                    runHi++;
+                }
+            }
+            return runHi - lo;
+        }
+
+        private void reverse(int lo, int hi) {
+            SortRecorder.moved((hi - lo) / 2 * 2);
+            hi--;
+            while (lo < hi) {
+                T elem = a[lo];
+                a[lo++] = a[hi];
+                a[hi--] = elem;
+            }
+        }
+
+        @Override
+        void binaryInsertionSort(int lo, int hi, int start) {
+            if (start == lo) {
+                start++;
+            }
+            for (; start < hi; start++) {
+                T pivot = a[start];
+                int left = lo;
+                int right = start;
+                while (left < right) {
+                    int middle = (left + right) >>> 1;
+                    if (compare(pivot, a[middle], comparator) < 0) {
+                        right = middle;
+                    } else {
+                        left = middle + 1;
+                    }
+                }
+                System.arraycopy(a, left, a, left + 1, start - left);
+                a[left] = pivot;
+                SortRecorder.moved(start - left + 1);
+            }
+        }
+
+        @Override
+        void merge(int base1, int len1, int base2, int len2) {
+            // skip the prefix of the first run and the suffix of the second run that are already in place
+            int k = gallopRight(a[base2], a, base1, len1, 0);
+            base1 += k;
+            len1 -= k;
+            if (len1 == 0) {
+                return;
+            }
+            len2 = gallopLeft(a[base1 + len1 - 1], a, base2, len2, len2 - 1);
+            if (len2 == 0) {
+                return;
+            }
+            // the shorter run goes out to tmp and every element of both comes back
+            SortRecorder.moved(Math.min(len1, len2) + len1 + len2);
+            if (len1 <= len2) {
+                mergeLo(base1, len1, base2, len2);
+            } else {
+                mergeHi(base1, len1, base2, len2);
+            }
+        }
+
+        /**
+         * Returns the leftmost position at which {@code key} can be inserted in the sorted range
+         * {@code [base, base + length)}, searching outwards from {@code hint}.
+         */
+        private int gallopLeft(T key, T[] values, int base, int length, int hint) {
+            int lastOffset = 0;
+            int offset = 1;
+            if (compare(key, values[base + hint], comparator) > 0) {
+                int maxOffset = length - hint;
+                while (offset < maxOffset && compare(key, values[base + hint + offset], comparator) > 0) {
+                    lastOffset = offset;
+                    offset = (offset << 1) + 1;
+                    if (offset <= 0) {
+                        offset = maxOffset;
+                    }
+                }
+                if (offset > maxOffset) {
+                    offset = maxOffset;
+                }
+                lastOffset += hint;
+                offset += hint;
+            } else {
+                int maxOffset = hint + 1;
+                while (offset < maxOffset && compare(key, values[base + hint - offset], comparator) <= 0) {
+                    lastOffset = offset;
+                    offset = (offset << 1) + 1;
+                    if (offset <= 0) {
+                        offset = maxOffset;
+                    }
+                }
+                if (offset > maxOffset) {
+                    offset = maxOffset;
+                }
+                int elem = lastOffset;
+                lastOffset = hint - offset;
+                offset = hint - elem;
+            }
+
+            lastOffset++;
+            while (lastOffset < offset) {
+                int middle = lastOffset + ((offset - lastOffset) >>> 1);
+                if (compare(key, values[base + middle], comparator) > 0) {
+                    lastOffset = middle + 1;
+                } else {
+                    offset = middle;
+                }
+            }
+            return offset;
+        }
+
+        /**
+         * Like {@link #gallopLeft} but returns the rightmost position, after any element equal to {@code key}.
+         */
+        private int gallopRight(T key, T[] values, int base, int length, int hint) {
+            int lastOffset = 0;
+            int offset = 1;
+            if (compare(key, values[base + hint], comparator) < 0) {
+                int maxOffset = hint + 1;
+                while (offset < maxOffset && compare(key, values[base + hint - offset], comparator) < 0) {
+                    lastOffset = offset;
+                    offset = (offset << 1) + 1;
+                    if (offset <= 0) {
+                        offset = maxOffset;
+                    }
+                }
+                if (offset > maxOffset) {
+                    offset = maxOffset;
+                }
+                int elem = lastOffset;
+                lastOffset = hint - offset;
+                offset = hint - elem;
+            } else {
+                int maxOffset = length - hint;
+                while (offset < maxOffset && compare(key, values[base + hint + offset], comparator) >= 0) {
+                    lastOffset = offset;
+                    offset = (offset << 1) + 1;
+                    if (offset <= 0) {
+                        offset = maxOffset;
+                    }
+                }
+                if (offset > maxOffset) {
+                    offset = maxOffset;
+                }
+                lastOffset += hint;
+                offset += hint;
+            }
+
+            lastOffset++;
+            while (lastOffset < offset) {
+                int middle = lastOffset + ((offset - lastOffset) >>> 1);
+                if (compare(key, values[base + middle], comparator) < 0) {
+                    offset = middle;
+                } else {
+                    lastOffset = middle + 1;
+                }
+            }
+            return offset;
+        }
+
+        /**
+         * Merges two adjacent runs left to right, with the shorter first run copied to {@code tmp}. Requires
+         * {@code a[base1] > a[base2]} and the last element of the first run to be greater than every element of the
+         * second run, which {@link #merge} guarantees.
+         */
+        private void mergeLo(int base1, int len1, int base2, int len2) {
+            T[] tmp = ensureCapacity(len1);
+            System.arraycopy(a, base1, tmp, 0, len1);
+            int cursor1 = 0;
+            int cursor2 = base2;
+            int dest = base1;
+
+            a[dest++] = a[cursor2++];
+            if (--len2 == 0) {
+                System.arraycopy(tmp, cursor1, a, dest, len1);
+                return;
+            }
+            if (len1 == 1) {
+                System.arraycopy(a, cursor2, a, dest, len2);
+                a[dest + len2] = tmp[cursor1];
+                return;
+            }
+
+            int minGallop = this.minGallop;
+            outer:
+            while (true) {
+                int count1 = 0;
+                int count2 = 0;
+
+                // one element at a time, until one run starts winning consistently
+                do {
+                    if (compare(a[cursor2], tmp[cursor1], comparator) < 0) {
+                        a[dest++] = a[cursor2++];
+                        count2++;
+                        count1 = 0;
+                        if (--len2 == 0) {
+                            break outer;
+                        }
+                    } else {
+                        a[dest++] = tmp[cursor1++];
+                        count1++;
+                        count2 = 0;
+                        if (--len1 == 1) {
+                            break outer;
+                        }
+                    }
+                } while ((count1 | count2) < minGallop);
+
+                // galloping, until neither run wins by long stretches any more
+                do {
+                    count1 = gallopRight(a[cursor2], tmp, cursor1, len1, 0);
+                    if (count1 != 0) {
+                        System.arraycopy(tmp, cursor1, a, dest, count1);
+                        dest += count1;
+                        cursor1 += count1;
+                        len1 -= count1;
+                        if (len1 <= 1) {
+                            break outer;
+                        }
+                    }
+                    a[dest++] = a[cursor2++];
+                    if (--len2 == 0) {
+                        break outer;
+                    }
+
+                    count2 = gallopLeft(tmp[cursor1], a, cursor2, len2, 0);
+                    if (count2 != 0) {
+                        System.arraycopy(a, cursor2, a, dest, count2);
+                        dest += count2;
+                        cursor2 += count2;
+                        len2 -= count2;
+                        if (len2 == 0) {
+                            break outer;
+                        }
+                    }
+                    a[dest++] = tmp[cursor1++];
+                    if (--len1 == 1) {
+                        break outer;
+                    }
+                    minGallop--;
+                } while (count1 >= MIN_GALLOP | count2 >= MIN_GALLOP);
+                if (minGallop < 0) {
+                    minGallop = 0;
+                }
+                minGallop += 2;
+            }
+            this.minGallop = minGallop < 1 ? 1 : minGallop;
+
+            if (len1 == 1) {
+                System.arraycopy(a, cursor2, a, dest, len2);
+                a[dest + len2] = tmp[cursor1];
+            } else if (len1 == 0) {
+                throw new IllegalArgumentException("comparator violates its general contract.");
+            } else {
+                System.arraycopy(tmp, cursor1, a, dest, len1);
+            }
+        }
+
+        /**
+         * Mirror of {@link #mergeLo}, merging right to left with the shorter second run copied to {@code tmp}.
+         */
+        private void mergeHi(int base1, int len1, int base2, int len2) {
+            T[] tmp = ensureCapacity(len2);
+            System.arraycopy(a, base2, tmp, 0, len2);
+            int cursor1 = base1 + len1 - 1;
+            int cursor2 = len2 - 1;
+            int dest = base2 + len2 - 1;
+
+            a[dest--] = a[cursor1--];
+            if (--len1 == 0) {
+                System.arraycopy(tmp, 0, a, dest - (len2 - 1), len2);
+                return;
+            }
+            if (len2 == 1) {
+                dest -= len1;
+                cursor1 -= len1;
+                System.arraycopy(a, cursor1 + 1, a, dest + 1, len1);
+                a[dest] = tmp[cursor2];
+                return;
+            }
+
+            int minGallop = this.minGallop;
+            outer:
+            while (true) {
+                int count1 = 0;
+                int count2 = 0;
+
+                do {
+                    if (compare(tmp[cursor2], a[cursor1], comparator) < 0) {
+                        a[dest--] = a[cursor1--];
+                        count1++;
+                        count2 = 0;
+                        if (--len1 == 0) {
+                            break outer;
+                        }
+                    } else {
+                        a[dest--] = tmp[cursor2--];
+                        count2++;
+                        count1 = 0;
+                        if (--len2 == 1) {
+                            break outer;
+                        }
+                    }
+                } while ((count1 | count2) < minGallop);
+
+                do {
+                    count1 = len1 - gallopRight(tmp[cursor2], a, base1, len1, len1 - 1);
+                    if (count1 != 0) {
+                        dest -= count1;
+                        cursor1 -= count1;
+                        len1 -= count1;
+                        System.arraycopy(a, cursor1 + 1, a, dest + 1, count1);
+                        if (len1 == 0) {
+                            break outer;
+                        }
+                    }
+                    a[dest--] = tmp[cursor2--];
+                    if (--len2 == 1) {
+                        break outer;
+                    }
+
+                    count2 = len2 - gallopLeft(a[cursor1], tmp, 0, len2, len2 - 1);
+                    if (count2 != 0) {
+                        dest -= count2;
+                        cursor2 -= count2;
+                        len2 -= count2;
+                        System.arraycopy(tmp, cursor2 + 1, a, dest + 1, count2);
+                        if (len2 <= 1) {
+                            break outer;
+                        }
+                    }
+                    a[dest--] = a[cursor1--];
+                    if (--len1 == 0) {
+                        break outer;
+                    }
+                    minGallop--;
+                } while (count1 >= MIN_GALLOP | count2 >= MIN_GALLOP);
+                if (minGallop < 0) {
+                    minGallop = 0;
+                }
+                minGallop += 2;
+            }
+            this.minGallop = minGallop < 1 ? 1 : minGallop;
+
+            if (len2 == 1) {
+                dest -= len1;
+                cursor1 -= len1;
+                System.arraycopy(a, cursor1 + 1, a, dest + 1, len1);
+                a[dest] = tmp[cursor2];
+            } else if (len2 == 0) {
+                throw new IllegalArgumentException("comparator violates its general contract.");
+            } else {
+                System.arraycopy(tmp, 0, a, dest - (len2 - 1), len2);
+            }
+        }
+
+        /**
+         * The merge buffer grows by powers of two and never beyond half of the array, the longest run that is ever
+         * copied out.
+         */
+        private T[] ensureCapacity(int minCapacity) {
+            if (tmp == null || tmp.length < minCapacity) {
+                int capacity = Integer.highestOneBit(minCapacity) << 1;
+                if (capacity < 0 || capacity > a.length >>> 1) {
+                    capacity = Math.max(minCapacity, a.length >>> 1);
+                }
+                tmp = (T[]) new Object[capacity];
+                SortRecorder.allocated((long) capacity * SortRecorder.REFERENCE_BYTES);
+            }
+            return tmp;
+        }
+    }
+
+    private static class IntMerger extends RunStack {
+
+        private final int[] a;
+        private int[] tmp;
+
+        IntMerger(int[] a) {
+            this.a = a;
+        }
+
+        @Override
+        int countRunAndMakeAscending(int lo, int hi) {
+            int runHi = lo + 1;
+            if (runHi == hi) {
+                return 1;
+            }
+            if (SortRecorder.less(a[runHi++], a[lo])) {
+                while (runHi < hi && SortRecorder.less(a[runHi], a[runHi - 1])) {
+                    runHi++;
+                }
+                reverse(lo, runHi);
+            } else {
+                while (runHi < hi && !SortRecorder.less(a[runHi], a[runHi - 1])) {
+                    runHi++;
+                }
+            }
+            return runHi - lo;
+        }
+
+        private void reverse(int lo, int hi) {
+            SortRecorder.moved((hi - lo) / 2 * 2);
+            hi--;
+            while (lo < hi) {
+                int elem = a[lo];
+                a[lo++] = a[hi];
+                a[hi--] = elem;
+            }
+        }
+
+        @Override
+        void binaryInsertionSort(int lo, int hi, int start) {
+            if (start == lo) {
+                start++;
+            }
+            for (; start < hi; start++) {
+                int pivot = a[start];
+                int left = lo;
+                int right = start;
+                while (left < right) {
+                    int middle = (left + right) >>> 1;
+                    if (SortRecorder.less(pivot, a[middle])) {
+                        right = middle;
+                    } else {
+                        left = middle + 1;
+                    }
+                }
+                System.arraycopy(a, left, a, left + 1, start - left);
+                a[left] = pivot;
+                SortRecorder.moved(start - left + 1);
+            }
+        }
+
+        @Override
+        void merge(int base1, int len1, int base2, int len2) {
+            int k = upperBound(a[base2], base1, base1 + len1) - base1;
+            base1 += k;
+            len1 -= k;
+            if (len1 == 0) {
+                return;
+            }
+            len2 = lowerBound(a[base1 + len1 - 1], base2, base2 + len2) - base2;
+            if (len2 == 0) {
+                return;
+            }
+            // the shorter run goes out to tmp and every element of both comes back
+            SortRecorder.moved(Math.min(len1, len2) + len1 + len2);
+            if (len1 <= len2) {
+                int[] tmp = ensureCapacity(len1);
+                System.arraycopy(a, base1, tmp, 0, len1);
+                int i = 0;
+                int j = base2;
+                int dest = base1;
+                int end2 = base2 + len2;
+                while (i < len1 && j < end2) {
+                    if (SortRecorder.less(a[j], tmp[i])) {
+                        a[dest++] = a[j++];
+                    } else {
+                        a[dest++] = tmp[i++];
+                    }
+                }
+                System.arraycopy(tmp, i, a, dest, len1 - i);
+            } else {
+                int[] tmp = ensureCapacity(len2);
+                System.arraycopy(a, base2, tmp, 0, len2);
+                int i = base1 + len1 - 1;
+                int j = len2 - 1;
+                int dest = base2 + len2 - 1;
+                while (i >= base1 && j >= 0) {
+                    if (SortRecorder.less(tmp[j], a[i])) {
+                        a[dest--] = a[i--];
+                    } else {
+                        a[dest--] = tmp[j--];
+                    }
+                }
+                System.arraycopy(tmp, 0, a, dest - j, j + 1);
+            }
+        }
+
+        private int lowerBound(int key, int lo, int hi) {
+            while (lo < hi) {
+                int middle = (lo + hi) >>> 1;
+                if (SortRecorder.less(a[middle], key)) {
+                    lo = middle + 1;
+                } else {
+                    hi = middle;
+                }
+            }
+            return lo;
+        }
+
+        private int upperBound(int key, int lo, int hi) {
+            while (lo < hi) {
+                int middle = (lo + hi) >>> 1;
+                if (!SortRecorder.less(key, a[middle])) {
+                    lo = middle + 1;
+                } else {
+                    hi = middle;
+                }
+            }
+            return lo;
+        }
+
+        private int[] ensureCapacity(int minCapacity) {
+            if (tmp == null || tmp.length < minCapacity) {
+                int capacity = Integer.highestOneBit(minCapacity) << 1;
+                if (capacity < 0 || capacity > a.length >>> 1) {
+                    capacity = Math.max(minCapacity, a.length >>> 1);
+                }
+                tmp = new int[capacity];
+                SortRecorder.allocated((long) capacity * Integer.BYTES);
+            }
+            return tmp;
+        }
+    }
+
+    private static class LongMerger extends RunStack {
+
+        private final long[] a;
+        private long[] tmp;
+
+        LongMerger(long[] a) {
+            this.a = a;
+        }
+
+        @Override
+        int countRunAndMakeAscending(int lo, int hi) {
+            int runHi = lo + 1;
+            if (runHi == hi) {
+                return 1;
+            }
+            if (SortRecorder.less(a[runHi++], a[lo])) {
+                while (runHi < hi && SortRecorder.less(a[runHi], a[runHi - 1])) {
+                    runHi++;
+                }
+                reverse(lo, runHi);
+            } else {
+                while (runHi < hi && !SortRecorder.less(a[runHi], a[runHi - 1])) {
+                    runHi++;
+                }
+            }
+            return runHi - lo;
+        }
+
+        private void reverse(int lo, int hi) {
+            SortRecorder.moved((hi - lo) / 2 * 2);
+            hi--;
+            while (lo < hi) {
+                long elem = a[lo];
+                a[lo++] = a[hi];
+                a[hi--] = elem;
+            }
+        }
+
+        @Override
+        void binaryInsertionSort(int lo, int hi, int start) {
+            if (start == lo) {
+                start++;
+            }
+            for (; start < hi; start++) {
+                long pivot = a[start];
+                int left = lo;
+                int right = start;
+                while (left < right) {
+                    int middle = (left + right) >>> 1;
+                    if (SortRecorder.less(pivot, a[middle])) {
+                        right = middle;
+                    } else {
+                        left = middle + 1;
+                    }
+                }
+                System.arraycopy(a, left, a, left + 1, start - left);
+                a[left] = pivot;
+                SortRecorder.moved(start - left + 1);
+            }
+        }
+
+        @Override
+        void merge(int base1, int len1, int base2, int len2) {
+            int k = upperBound(a[base2], base1, base1 + len1) - base1;
+            base1 += k;
+            len1 -= k;
+            if (len1 == 0) {
+                return;
+            }
+            len2 = lowerBound(a[base1 + len1 - 1], base2, base2 + len2) - base2;
+            if (len2 == 0) {
+                return;
+            }
+            // the shorter run goes out to tmp and every element of both comes back
+            SortRecorder.moved(Math.min(len1, len2) + len1 + len2);
+            if (len1 <= len2) {
+                long[] tmp = ensureCapacity(len1);
+                System.arraycopy(a, base1, tmp, 0, len1);
+                int i = 0;
+                int j = base2;
+                int dest = base1;
+                int end2 = base2 + len2;
+                while (i < len1 && j < end2) {
+                    if (SortRecorder.less(a[j], tmp[i])) {
+                        a[dest++] = a[j++];
+                    } else {
+                        a[dest++] = tmp[i++];
+                    }
+                }
+                System.arraycopy(tmp, i, a, dest, len1 - i);
+            } else {
+                long[] tmp = ensureCapacity(len2);
+                System.arraycopy(a, base2, tmp, 0, len2);
+                int i = base1 + len1 - 1;
+                int j = len2 - 1;
+                int dest = base2 + len2 - 1;
+                while (i >= base1 && j >= 0) {
+                    if (SortRecorder.less(tmp[j], a[i])) {
+                        a[dest--] = a[i--];
+                    } else {
+                        a[dest--] = tmp[j--];
+                    }
+                }
+                System.arraycopy(tmp, 0, a, dest - j, j + 1);
+            }
+        }
+
+        private int lowerBound(long key, int lo, int hi) {
+            while (lo < hi) {
+                int middle = (lo + hi) >>> 1;
+                if (SortRecorder.less(a[middle], key)) {
+                    lo = middle + 1;
+                } else {
+                    hi = middle;
+                }
+            }
+            return lo;
+        }
+
+        private int upperBound(long key, int lo, int hi) {
+            while (lo < hi) {
+                int middle = (lo + hi) >>> 1;
+                if (!SortRecorder.less(key, a[middle])) {
+                    lo = middle + 1;
+                } else {
+                    hi = middle;
+                }
+            }
+            return lo;
+        }
+
+        private long[] ensureCapacity(int minCapacity) {
+            if (tmp == null || tmp.length < minCapacity) {
+                int capacity = Integer.highestOneBit(minCapacity) << 1;
+                if (capacity < 0 || capacity > a.length >>> 1) {
+                    capacity = Math.max(minCapacity, a.length >>> 1);
+                }
+                tmp = new long[capacity];
+                SortRecorder.allocated((long) capacity * Long.BYTES);
+            }
+            return tmp;
+        }
+    }
+
+    private static class DoubleMerger extends RunStack {
+
+        private final double[] a;
+        private double[] tmp;
+
+        DoubleMerger(double[] a) {
+            this.a = a;
+        }
+
+        @Override
+        int countRunAndMakeAscending(int lo, int hi) {
+            int runHi = lo + 1;
+            if (runHi == hi) {
+                return 1;
+            }
+            if (SortRecorder.less(a[runHi++], a[lo])) {
+                while (runHi < hi && SortRecorder.less(a[runHi], a[runHi - 1])) {
+                    runHi++;
+                }
+                reverse(lo, runHi);
+            } else {
+                while (runHi < hi && !SortRecorder.less(a[runHi], a[runHi - 1])) {
+                    runHi++;
+                }
+            }
+            return runHi - lo;
+        }
+
+        private void reverse(int lo, int hi) {
+            SortRecorder.moved((hi - lo) / 2 * 2);
+            hi--;
+            while (lo < hi) {
+                double elem = a[lo];
+                a[lo++] = a[hi];
+                a[hi--] = elem;
+            }
+        }
+
+        @Override
+        void binaryInsertionSort(int lo, int hi, int start) {
+            if (start == lo) {
+                start++;
+            }
+            for (; start < hi; start++) {
+                double pivot = a[start];
+                int left = lo;
+                int right = start;
+                while (left < right) {
+                    int middle = (left + right) >>> 1;
+                    if (SortRecorder.less(pivot, a[middle])) {
+                        right = middle;
+                    } else {
+                        left = middle + 1;
+                    }
+                }
+                System.arraycopy(a, left, a, left + 1, start - left);
+                a[left] = pivot;
+                SortRecorder.moved(start - left + 1);
+            }
+        }
+
+        @Override
+        void merge(int base1, int len1, int base2, int len2) {
+            int k = upperBound(a[base2], base1, base1 + len1) - base1;
+            base1 += k;
+            len1 -= k;
+            if (len1 == 0) {
+                return;
+            }
+            len2 = lowerBound(a[base1 + len1 - 1], base2, base2 + len2) - base2;
+            if (len2 == 0) {
+                return;
+            }
+            // the shorter run goes out to tmp and every element of both comes back
+            SortRecorder.moved(Math.min(len1, len2) + len1 + len2);
+            if (len1 <= len2) {
+                double[] tmp = ensureCapacity(len1);
+                System.arraycopy(a, base1, tmp, 0, len1);
+                int i = 0;
+                int j = base2;
+                int dest = base1;
+                int end2 = base2 + len2;
+                while (i < len1 && j < end2) {
+                    if (SortRecorder.less(a[j], tmp[i])) {
+                        a[dest++] = a[j++];
+                    } else {
+                        a[dest++] = tmp[i++];
+                    }
+                }
+                System.arraycopy(tmp, i, a, dest, len1 - i);
+            } else {
+                double[] tmp = ensureCapacity(len2);
+                System.arraycopy(a, base2, tmp, 0, len2);
+                int i = base1 + len1 - 1;
+                int j = len2 - 1;
+                int dest = base2 + len2 - 1;
+                while (i >= base1 && j >= 0) {
+                    if (SortRecorder.less(tmp[j], a[i])) {
+                        a[dest--] = a[i--];
+                    } else {
+                        a[dest--] = tmp[j--];
+                    }
+                }
+                System.arraycopy(tmp, 0, a, dest - j, j + 1);
+            }
+        }
+
+        private int lowerBound(double key, int lo, int hi) {
+            while (lo < hi) {
+                int middle = (lo + hi) >>> 1;
+                if (SortRecorder.less(a[middle], key)) {
+                    lo = middle + 1;
+                } else {
+                    hi = middle;
+                }
+            }
+            return lo;
+        }
+
+        private int upperBound(double key, int lo, int hi) {
+            while (lo < hi) {
+                int middle = (lo + hi) >>> 1;
+                if (!SortRecorder.less(key, a[middle])) {
+                    lo = middle + 1;
+                } else {
+                    hi = middle;
+                }
+            }
+            return lo;
+        }
+
+        private double[] ensureCapacity(int minCapacity) {
+            if (tmp == null || tmp.length < minCapacity) {
+                int capacity = Integer.highestOneBit(minCapacity) << 1;
+                if (capacity < 0 || capacity > a.length >>> 1) {
+                    capacity = Math.max(minCapacity, a.length >>> 1);
+                }
+                tmp = new double[capacity];
+                SortRecorder.allocated((long) capacity * Double.BYTES);
+            }
+            return tmp;
+        }
+    }
+}
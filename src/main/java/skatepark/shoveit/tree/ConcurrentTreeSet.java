@@ -0,0 +1,130 @@
+package skatepark.shoveit.tree;
+
+import java.util.Objects;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Thread-safe sorted set over a {@link RedBlackTree}. Writers take an exclusive lock while {@link #contains} and
+ * {@link #size} first read optimistically, without locking at all, and only fall back to the shared read lock when a
+ * writer got in the way. Lookups therefore scale with the number of readers as long as writes are rare.
+ */
+public class ConcurrentTreeSet<T extends Comparable<? super T>> {
+
+    /**
+     * A red-black tree of 2^31 values is at most 62 levels deep, a longer walk means a writer moved entries under us.
+     */
+    private static final int MAX_STEPS = 64;
+
+    private final RedBlackTree<T> tree = new RedBlackTree<>();
+    private final StampedLock lock = new StampedLock();
+
+    /**
+     * @return false if the value was already present.
+     */
+    public boolean add(T value) {
+        Objects.requireNonNull(value);
+        long stamp = lock.writeLock();
+        try {
+            return tree.add(value);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @return false if the value was not present.
+     */
+    public boolean remove(T value) {
+        Objects.requireNonNull(value);
+        long stamp = lock.writeLock();
+        try {
+            return tree.remove(value);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public boolean contains(T value) {
+        Objects.requireNonNull(value);
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            int result;
+            try {
+                result = tree.probe(value, MAX_STEPS);
+            } catch (RuntimeException e) {
+                // compareTo may see a value a writer has not fully published yet, so the read lock decides
+                result = RedBlackTree.UNKNOWN;
+            }
+            if (result != RedBlackTree.UNKNOWN && lock.validate(stamp)) {
+                return result == RedBlackTree.FOUND;
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return tree.contains(value);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public int size() {
+        long stamp = lock.tryOptimisticRead();
+        int size = tree.size();
+        if (stamp != 0 && lock.validate(stamp)) {
+            return size;
+        }
+        stamp = lock.readLock();
+        try {
+            return tree.size();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public T min() {
+        long stamp = lock.readLock();
+        try {
+            return tree.min();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public T max() {
+        long stamp = lock.readLock();
+        try {
+            return tree.max();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * @return how many values are smaller than {@code value}, see {@link RedBlackTree#rank}.
+     */
+    public int rank(T value) {
+        Objects.requireNonNull(value);
+        long stamp = lock.readLock();
+        try {
+            return tree.rank(value);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * @return how many values fall within {@code [from, to)}, see {@link RedBlackTree#count}.
+     */
+    public int count(T from, T to) {
+        long stamp = lock.readLock();
+        try {
+            return tree.count(from, to);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+}
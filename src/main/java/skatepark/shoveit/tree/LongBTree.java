@@ -0,0 +1,386 @@
+package skatepark.shoveit.tree;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Sorted set of {@code long} kept as a B-tree whose nodes live in flat arrays instead of objects. A node is a run of
+ * {@link #MAX_KEYS} consecutive slots in {@code keys}, searched by bisection, and only inner nodes own a block of
+ * child indexes, so an entry costs 9 to 16 bytes instead of the 48 or so of a {@link Node} and its boxed value, and a
+ * lookup in a million values touches 4 nodes.
+ * <p>
+ * Nodes are split on the way down when inserting and refilled on the way down when removing, so neither operation
+ * ever walks back up. Freed nodes are recycled.
+ */
+public class LongBTree {
+
+    /**
+     * Every node but the root holds between {@code MIN_DEGREE - 1} and {@code 2 * MIN_DEGREE - 1} keys.
+     */
+    static final int MIN_DEGREE = 32;
+    static final int MAX_KEYS = 2 * MIN_DEGREE - 1;
+
+    private static final int MAX_CHILDREN = MAX_KEYS + 1;
+    private static final int LEAF = -1;
+    private static final int NONE = -1;
+
+    private long[] keys;
+    private int[] counts;
+    /**
+     * Per node, index of its block in {@code children}, or {@link #LEAF}.
+     */
+    private int[] blocks;
+    private int[] children;
+
+    private int nodeCount;
+    private int blockCount;
+    /**
+     * Free nodes are chained through {@code counts}, free blocks through their first child slot.
+     */
+    private int freeNode = NONE;
+    private int freeBlock = NONE;
+
+    private int root;
+    private int size;
+
+    public LongBTree() {
+        this(MAX_KEYS);
+    }
+
+    /**
+     * @param expectedSize how many values to make room for upfront.
+     */
+    public LongBTree(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize should not be negative.");
+        }
+        int nodes = Math.max(1, expectedSize / (MIN_DEGREE - 1) + 1);
+        keys = new long[nodes * MAX_KEYS];
+        counts = new int[nodes];
+        blocks = new int[nodes];
+        children = new int[Math.max(1, nodes / MIN_DEGREE) * MAX_CHILDREN];
+        root = newNode(true);
+    }
+
+    /**
+     * @return false if the value was already present.
+     */
+    public boolean add(long value) {
+        if (counts[root] == MAX_KEYS) {
+            int node = newNode(false);
+            children[blocks[node] * MAX_CHILDREN] = root;
+            root = node;
+            split(node, 0);
+        }
+        int node = root;
+        while (true) {
+            int index = search(node, value);
+            if (index >= 0) {
+                return false;
+            }
+            index = -index - 1;
+            if (blocks[node] == LEAF) {
+                int base = node * MAX_KEYS;
+                System.arraycopy(keys, base + index, keys, base + index + 1, counts[node] - index);
+                keys[base + index] = value;
+                counts[node]++;
+                size++;
+                return true;
+            }
+            int child = child(node, index);
+            if (counts[child] == MAX_KEYS) {
+                split(node, index);
+                long separator = keys[node * MAX_KEYS + index];
+                if (value == separator) {
+                    return false;
+                }
+                if (value > separator) {
+                    child = child(node, index + 1);
+                }
+            }
+            node = child;
+        }
+    }
+
+    public boolean contains(long value) {
+        int node = root;
+        while (true) {
+            int index = search(node, value);
+            if (index >= 0) {
+                return true;
+            }
+            if (blocks[node] == LEAF) {
+                return false;
+            }
+            node = child(node, -index - 1);
+        }
+    }
+
+    /**
+     * @return false if the value was not present.
+     */
+    public boolean remove(long value) {
+        int node = root;
+        while (true) {
+            int index = search(node, value);
+            boolean leaf = blocks[node] == LEAF;
+            if (index >= 0 && leaf) {
+                int base = node * MAX_KEYS;
+                System.arraycopy(keys, base + index + 1, keys, base + index, counts[node] - index - 1);
+                counts[node]--;
+                size--;
+                return true;
+            }
+            if (leaf) {
+                return false;
+            }
+            if (index >= 0) {
+                // an inner value is replaced by its predecessor or successor, which is then removed from below
+                int left = child(node, index);
+                int right = child(node, index + 1);
+                if (counts[left] >= MIN_DEGREE) {
+                    value = last(left);
+                    keys[node * MAX_KEYS + index] = value;
+                    node = left;
+                } else if (counts[right] >= MIN_DEGREE) {
+                    value = first(right);
+                    keys[node * MAX_KEYS + index] = value;
+                    node = right;
+                } else {
+                    node = merge(node, index);
+                }
+                continue;
+            }
+            index = -index - 1;
+            int child = child(node, index);
+            if (counts[child] < MIN_DEGREE) {
+                // make sure the next node can spare a value
+                if (index > 0 && counts[child(node, index - 1)] >= MIN_DEGREE) {
+                    rotateRight(node, index - 1);
+                } else if (index < counts[node] && counts[child(node, index + 1)] >= MIN_DEGREE) {
+                    rotateLeft(node, index);
+                } else {
+                    child = merge(node, index < counts[node] ? index : index - 1);
+                }
+            }
+            node = child;
+        }
+    }
+
+    public long min() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return first(root);
+    }
+
+    public long max() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return last(root);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return the number of levels, all leaves being at the same depth.
+     */
+    int height() {
+        int height = 1;
+        for (int node = root; blocks[node] != LEAF; node = child(node, 0)) {
+            height++;
+        }
+        return height;
+    }
+
+    /**
+     * @return the index of {@code value} in the node, or {@code -(insertion point) - 1}.
+     */
+    private int search(int node, long value) {
+        int low = node * MAX_KEYS;
+        int high = low + counts[node] - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long key = keys[middle];
+            if (key < value) {
+                low = middle + 1;
+            } else if (key > value) {
+                high = middle - 1;
+            } else {
+                return middle - node * MAX_KEYS;
+            }
+        }
+        return -(low - node * MAX_KEYS) - 1;
+    }
+
+    private int child(int node, int index) {
+        return children[blocks[node] * MAX_CHILDREN + index];
+    }
+
+    private long first(int node) {
+        while (blocks[node] != LEAF) {
+            node = child(node, 0);
+        }
+        return keys[node * MAX_KEYS];
+    }
+
+    private long last(int node) {
+        while (blocks[node] != LEAF) {
+            node = child(node, counts[node]);
+        }
+        return keys[node * MAX_KEYS + counts[node] - 1];
+    }
+
+    /**
+     * Splits the full child at {@code index} around its median, which moves up into {@code parent}.
+     */
+    private void split(int parent, int index) {
+        int left = child(parent, index);
+        int right = newNode(blocks[left] == LEAF);
+        int leftBase = left * MAX_KEYS;
+
+        System.arraycopy(keys, leftBase + MIN_DEGREE, keys, right * MAX_KEYS, MIN_DEGREE - 1);
+        if (blocks[left] != LEAF) {
+            System.arraycopy(children, blocks[left] * MAX_CHILDREN + MIN_DEGREE,
+                    children, blocks[right] * MAX_CHILDREN, MIN_DEGREE);
+        }
+        counts[left] = MIN_DEGREE - 1;
+        counts[right] = MIN_DEGREE - 1;
+
+        int parentBase = parent * MAX_KEYS;
+        int parentBlock = blocks[parent] * MAX_CHILDREN;
+        int count = counts[parent];
+        System.arraycopy(keys, parentBase + index, keys, parentBase + index + 1, count - index);
+        System.arraycopy(children, parentBlock + index + 1, children, parentBlock + index + 2, count - index);
+        keys[parentBase + index] = keys[leftBase + MIN_DEGREE - 1];
+        children[parentBlock + index + 1] = right;
+        counts[parent] = count + 1;
+    }
+
+    /**
+     * Merges the children around the value at {@code index}, together with that value, into the left one.
+     *
+     * @return the merged node.
+     */
+    private int merge(int parent, int index) {
+        int left = child(parent, index);
+        int right = child(parent, index + 1);
+        int leftBase = left * MAX_KEYS;
+        int leftCount = counts[left];
+        int rightCount = counts[right];
+        int parentBase = parent * MAX_KEYS;
+        int parentBlock = blocks[parent] * MAX_CHILDREN;
+
+        keys[leftBase + leftCount] = keys[parentBase + index];
+        System.arraycopy(keys, right * MAX_KEYS, keys, leftBase + leftCount + 1, rightCount);
+        if (blocks[left] != LEAF) {
+            System.arraycopy(children, blocks[right] * MAX_CHILDREN,
+                    children, blocks[left] * MAX_CHILDREN + leftCount + 1, rightCount + 1);
+        }
+        counts[left] = leftCount + 1 + rightCount;
+
+        int count = counts[parent];
+        System.arraycopy(keys, parentBase + index + 1, keys, parentBase + index, count - index - 1);
+        System.arraycopy(children, parentBlock + index + 2, children, parentBlock + index + 1, count - index - 1);
+        counts[parent] = count - 1;
+        freeNode(right);
+
+        if (parent == root && counts[parent] == 0) {
+            freeNode(parent);
+            root = left;
+        }
+        return left;
+    }
+
+    /**
+     * Moves the last value of the child at {@code index} up into the parent, and the parent value down into the next
+     * child.
+     */
+    private void rotateRight(int parent, int index) {
+        int left = child(parent, index);
+        int right = child(parent, index + 1);
+        int leftCount = counts[left];
+        int rightBase = right * MAX_KEYS;
+
+        System.arraycopy(keys, rightBase, keys, rightBase + 1, counts[right]);
+        keys[rightBase] = keys[parent * MAX_KEYS + index];
+        keys[parent * MAX_KEYS + index] = keys[left * MAX_KEYS + leftCount - 1];
+        if (blocks[right] != LEAF) {
+            int rightBlock = blocks[right] * MAX_CHILDREN;
+            System.arraycopy(children, rightBlock, children, rightBlock + 1, counts[right] + 1);
+            children[rightBlock] = child(left, leftCount);
+        }
+        counts[left] = leftCount - 1;
+        counts[right]++;
+    }
+
+    /**
+     * Moves the first value of the child at {@code index + 1} up into the parent, and the parent value down into the
+     * previous child.
+     */
+    private void rotateLeft(int parent, int index) {
+        int left = child(parent, index);
+        int right = child(parent, index + 1);
+        int leftCount = counts[left];
+        int rightCount = counts[right];
+        int rightBase = right * MAX_KEYS;
+
+        keys[left * MAX_KEYS + leftCount] = keys[parent * MAX_KEYS + index];
+        keys[parent * MAX_KEYS + index] = keys[rightBase];
+        System.arraycopy(keys, rightBase + 1, keys, rightBase, rightCount - 1);
+        if (blocks[right] != LEAF) {
+            int rightBlock = blocks[right] * MAX_CHILDREN;
+            children[blocks[left] * MAX_CHILDREN + leftCount + 1] = children[rightBlock];
+            System.arraycopy(children, rightBlock + 1, children, rightBlock, rightCount);
+        }
+        counts[left] = leftCount + 1;
+        counts[right] = rightCount - 1;
+    }
+
+    private int newNode(boolean leaf) {
+        int node;
+        if (freeNode != NONE) {
+            node = freeNode;
+            freeNode = counts[node];
+        } else {
+            if (nodeCount == counts.length) {
+                int capacity = nodeCount * 2;
+                keys = Arrays.copyOf(keys, capacity * MAX_KEYS);
+                counts = Arrays.copyOf(counts, capacity);
+                blocks = Arrays.copyOf(blocks, capacity);
+            }
+            node = nodeCount++;
+        }
+        counts[node] = 0;
+        blocks[node] = leaf ? LEAF : newBlock();
+        return node;
+    }
+
+    private int newBlock() {
+        if (freeBlock != NONE) {
+            int block = freeBlock;
+            freeBlock = children[block * MAX_CHILDREN];
+            return block;
+        }
+        if ((blockCount + 1) * MAX_CHILDREN > children.length) {
+            children = Arrays.copyOf(children, children.length * 2);
+        }
+        return blockCount++;
+    }
+
+    private void freeNode(int node) {
+        if (blocks[node] != LEAF) {
+            children[blocks[node] * MAX_CHILDREN] = freeBlock;
+            freeBlock = blocks[node];
+        }
+        counts[node] = freeNode;
+        freeNode = node;
+    }
+}
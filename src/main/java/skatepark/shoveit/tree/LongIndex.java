@@ -0,0 +1,229 @@
+package skatepark.shoveit.tree;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only sorted map of {@code long} to {@code long} living in a memory-mapped file written by
+ * {@link LongIndexWriter}. Opening an index only maps the file, so it is ready at once whatever its size, and the
+ * operating system pages it in on demand, out of the heap.
+ * <p>
+ * The file is a static B+-tree laid out level by level: the sorted keys, their values, then inner levels holding
+ * the first key of every block of the level below, up to a level that fits in a single block. A lookup bisects one
+ * block per level, that is one 4 KB page with the default block size, and allocates nothing.
+ * <p>
+ * Files larger than 2 GB are mapped in several segments. All numbers are little endian:
+ * <pre>
+ * header  magic, version (int), block size (int), count (long), padded to 64 bytes
+ * keys    count longs, ascending
+ * values  count longs
+ * levels  inner levels, from the one right above the keys to the top
+ * </pre>
+ */
+public final class LongIndex {
+
+    /**
+     * "SHOVEIDX" in ASCII, written last so an index whose writer did not finish cannot be opened.
+     */
+    static final long MAGIC = 0x58444945564f4853L;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+
+    private static final int SEGMENT_SHIFT = 30;
+
+    private final ByteBuffer[] segments;
+    private final int segmentShift;
+    private final long segmentMask;
+
+    private final long size;
+    private final int blockSize;
+    /**
+     * Offsets and sizes of each level, level 0 being the keys.
+     */
+    private final long[] levelOffsets;
+    private final long[] levelSizes;
+    private final long valuesOffset;
+
+    private LongIndex(ByteBuffer[] segments, int segmentShift, long size, int blockSize) {
+        this.segments = segments;
+        this.segmentShift = segmentShift;
+        this.segmentMask = (1L << segmentShift) - 1;
+        this.size = size;
+        this.blockSize = blockSize;
+        this.levelSizes = levelSizes(size, blockSize);
+        this.levelOffsets = new long[levelSizes.length];
+        this.valuesOffset = HEADER_SIZE + size * Long.BYTES;
+        levelOffsets[0] = HEADER_SIZE;
+        long offset = valuesOffset + size * Long.BYTES;
+        for (int level = 1; level < levelSizes.length; level++) {
+            levelOffsets[level] = offset;
+            offset += levelSizes[level] * Long.BYTES;
+        }
+    }
+
+    public static LongIndex open(Path path) throws IOException {
+        return open(path, SEGMENT_SHIFT);
+    }
+
+    /**
+     * @param segmentShift each mapping spans {@code 2^segmentShift} bytes, at least 8 so no value straddles two.
+     */
+    static LongIndex open(Path path, int segmentShift) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < HEADER_SIZE) {
+                throw new IOException(path + " is not an index, it is too short.");
+            }
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0) {
+                    throw new EOFException(path.toString());
+                }
+            }
+            if (header.getLong(0) != MAGIC) {
+                throw new IOException(path + " is not an index, or it was not closed properly.");
+            }
+            if (header.getInt(8) != VERSION) {
+                throw new IOException(path + " has an unsupported version: " + header.getInt(8));
+            }
+            int blockSize = header.getInt(12);
+            long size = header.getLong(16);
+            if (blockSize < 2 || size < 0 || length != fileSize(size, blockSize)) {
+                throw new IOException(path + " is corrupted, its length does not match its header.");
+            }
+
+            int count = (int) ((length - 1) >>> segmentShift) + 1;
+            ByteBuffer[] segments = new ByteBuffer[count];
+            for (int i = 0; i < count; i++) {
+                long position = (long) i << segmentShift;
+                long mapped = Math.min(1L << segmentShift, length - position);
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, mapped)
+                        .order(ByteOrder.LITTLE_ENDIAN);
+            }
+            return new LongIndex(segments, segmentShift, size, blockSize);
+        }
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(long key) {
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * @return the value of {@code key}, or {@code missing} if there is none.
+     */
+    public long get(long key, long missing) {
+        long index = indexOf(key);
+        return index >= 0 ? valueAt(index) : missing;
+    }
+
+    /**
+     * @return the position of {@code key} among the sorted keys, or {@code -(insertion point) - 1} like
+     * {@link java.util.Arrays#binarySearch(long[], long)}.
+     */
+    public long indexOf(long key) {
+        int top = levelSizes.length - 1;
+        long start = 0;
+        long end = levelSizes[top];
+        for (int level = top; level > 0; level--) {
+            long block = floor(levelOffsets[level], start, end, key);
+            if (block < start) {
+                return -1;
+            }
+            start = block * blockSize;
+            end = Math.min(start + blockSize, levelSizes[level - 1]);
+        }
+
+        long low = start;
+        long high = end - 1;
+        while (low <= high) {
+            long middle = (low + high) >>> 1;
+            long value = readLong(HEADER_SIZE + middle * Long.BYTES);
+            if (value < key) {
+                low = middle + 1;
+            } else if (value > key) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -(low + 1);
+    }
+
+    /**
+     * Keys and values can also be read by position, e.g. to scan a range from {@link #indexOf}.
+     */
+    public long keyAt(long index) {
+        checkIndex(index);
+        return readLong(HEADER_SIZE + index * Long.BYTES);
+    }
+
+    public long valueAt(long index) {
+        checkIndex(index);
+        return readLong(valuesOffset + index * Long.BYTES);
+    }
+
+    /**
+     * @return the position of the last key not greater than {@code key} within {@code [start, end)}, or
+     * {@code start - 1}.
+     */
+    private long floor(long offset, long start, long end, long key) {
+        long low = start;
+        long high = end - 1;
+        while (low <= high) {
+            long middle = (low + high) >>> 1;
+            if (readLong(offset + middle * Long.BYTES) <= key) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low - 1;
+    }
+
+    private long readLong(long position) {
+        return segments[(int) (position >>> segmentShift)].getLong((int) (position & segmentMask));
+    }
+
+    private void checkIndex(long index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+        }
+    }
+
+    /**
+     * @return the number of keys of each level, from the keys themselves up to the first level that fits in a block.
+     */
+    static long[] levelSizes(long size, int blockSize) {
+        int levels = 1;
+        for (long count = size; count > blockSize; count = (count - 1) / blockSize + 1) {
+            levels++;
+        }
+        long[] sizes = new long[levels];
+        sizes[0] = size;
+        for (int level = 1; level < levels; level++) {
+            sizes[level] = (sizes[level - 1] - 1) / blockSize + 1;
+        }
+        return sizes;
+    }
+
+    static long fileSize(long size, int blockSize) {
+        long total = HEADER_SIZE + size * Long.BYTES;
+        for (long count : levelSizes(size, blockSize)) {
+            total += count * Long.BYTES;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,197 @@
+package skatepark.shoveit.tree;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Streams ascending keys and their values into a {@link LongIndex} file. Keys go straight to the file and values to
+ * a temporary file next to it, so the only thing kept in memory is the first key of every block, which is
+ * {@code 1 / blockSize} of the keys. The inner levels and the header are written by {@link #close}.
+ * <p>
+ * An index is only published complete: once {@link #add} fails, or {@link #abort} is called because the source of
+ * the keys failed, closing deletes the file instead of writing its header.
+ */
+public class LongIndexWriter implements Closeable {
+
+    public static final int DEFAULT_BLOCK_SIZE = 512;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Path path;
+    private final FileChannel keys;
+    private final FileChannel values;
+    private final Path valuesPath;
+    private final ByteBuffer keyBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private final ByteBuffer valueBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private final int blockSize;
+
+    private long[] firstKeys = new long[16];
+    private long size;
+    private long lastKey;
+    private boolean closed;
+    private boolean aborted;
+
+    public LongIndexWriter(Path path) throws IOException {
+        this(path, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * @param blockSize keys per block, searched as a whole at every level.
+     */
+    public LongIndexWriter(Path path, int blockSize) throws IOException {
+        if (blockSize < 2) {
+            throw new IllegalArgumentException("blockSize should be at least 2.");
+        }
+        this.blockSize = blockSize;
+        this.path = path;
+        Path directory = path.toAbsolutePath().getParent();
+        this.valuesPath = Files.createTempFile(directory, path.getFileName().toString(), ".values");
+        this.values = FileChannel.open(valuesPath, StandardOpenOption.WRITE, StandardOpenOption.READ,
+                StandardOpenOption.DELETE_ON_CLOSE);
+        try {
+            this.keys = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            keys.position(LongIndex.HEADER_SIZE);
+        } catch (IOException e) {
+            values.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @param key greater than every key added before.
+     */
+    public void add(long key, long value) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("writer is closed.");
+        }
+        if (aborted) {
+            throw new IllegalStateException("writer is aborted.");
+        }
+        if (size > 0 && key <= lastKey) {
+            aborted = true;
+            throw new IllegalArgumentException("keys should be ascending, " + key + " comes after " + lastKey);
+        }
+        try {
+            append(key, value);
+        } catch (IOException | RuntimeException e) {
+            aborted = true;
+            throw e;
+        }
+    }
+
+    private void append(long key, long value) throws IOException {
+        if (size % blockSize == 0) {
+            int block = (int) (size / blockSize);
+            if (block == firstKeys.length) {
+                firstKeys = Arrays.copyOf(firstKeys, block * 2);
+            }
+            firstKeys[block] = key;
+        }
+        if (!keyBuffer.hasRemaining()) {
+            flush(keyBuffer, keys);
+            flush(valueBuffer, values);
+        }
+        keyBuffer.putLong(key);
+        valueBuffer.putLong(value);
+        lastKey = key;
+        size++;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Gives up the index, whose file {@link #close} deletes. Meant for a {@code catch} around the keys being added.
+     */
+    public void abort() {
+        aborted = true;
+    }
+
+    public boolean isAborted() {
+        return aborted;
+    }
+
+    /**
+     * Completes the index, which can be opened afterwards, or deletes it if the writer was aborted.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (aborted) {
+            try {
+                values.close();
+                keys.close();
+            } finally {
+                Files.deleteIfExists(valuesPath);
+                Files.deleteIfExists(path);
+            }
+            return;
+        }
+        boolean complete = false;
+        try {
+            flush(keyBuffer, keys);
+            flush(valueBuffer, values);
+            for (long position = 0; position < values.size(); ) {
+                position += values.transferTo(position, values.size() - position, keys);
+            }
+
+            long[] levelSizes = LongIndex.levelSizes(size, blockSize);
+            long[] level = firstKeys;
+            for (int i = 1; i < levelSizes.length; i++) {
+                int count = (int) levelSizes[i];
+                for (int j = 0; j < count; j++) {
+                    if (!keyBuffer.hasRemaining()) {
+                        flush(keyBuffer, keys);
+                    }
+                    keyBuffer.putLong(level[j]);
+                }
+                // each level above holds the first key of every block of this one
+                long[] next = new long[(count - 1) / blockSize + 1];
+                for (int j = 0; j < next.length; j++) {
+                    next[j] = level[j * blockSize];
+                }
+                level = next;
+            }
+            flush(keyBuffer, keys);
+
+            ByteBuffer header = ByteBuffer.allocate(LongIndex.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putLong(0, LongIndex.MAGIC)
+                    .putInt(8, LongIndex.VERSION)
+                    .putInt(12, blockSize)
+                    .putLong(16, size);
+            keys.force(false);
+            while (header.hasRemaining()) {
+                keys.write(header, header.position());
+            }
+            keys.force(false);
+            complete = true;
+        } finally {
+            values.close();
+            keys.close();
+            Files.deleteIfExists(valuesPath);
+            if (!complete) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private static void flush(ByteBuffer buffer, FileChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -1,18 +1,60 @@
 package skatepark.shoveit.tree;
 
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 
-public class Node<T extends Comparable> {
+public class Node<T extends Comparable> implements Iterable<T> {
 
     private Node<T> left;
     private Node<T> right;
     private T value;
+    private int size = 1;
 
     public Node(T value) {
         Objects.requireNonNull(value);
         this.value = value;
     }
 
+    /**
+     * Builds a balanced tree from {@code values} in O(n), each middle value becoming the root of its range.
+     *
+     * @param values in ascending order, duplicates allowed.
+     */
+    public static <T extends Comparable> Node<T> of(List<? extends T> values) {
+        if (values.isEmpty()) {
+            throw new IllegalArgumentException("values should not be empty.");
+        }
+        T previous = Objects.requireNonNull(values.get(0));
+        for (int i = 1; i < values.size(); i++) {
+            T value = Objects.requireNonNull(values.get(i));
+            if (previous.compareTo(value) > 0) {
+                throw new IllegalArgumentException("values should be sorted, " + previous + " comes before " + value);
+            }
+            previous = value;
+        }
+        return build(values, 0, values.size() - 1);
+    }
+
+    /**
+     * @param start inclusive
+     * @param end   inclusive.
+     */
+    private static <T extends Comparable> Node<T> build(List<? extends T> values, int start, int end) {
+        if (start > end) {
+            return null;
+        }
+        // a run of duplicates is split like any other range, search and iteration find equal values on both sides
+        int middle = (start + end) >>> 1;
+        Node<T> node = new Node<>(values.get(middle));
+        node.left = build(values, start, middle - 1);
+        node.right = build(values, middle + 1, end);
+        node.size = end - start + 1;
+        return node;
+    }
+
     public Node<T> getLeft() {
         return left;
     }
@@ -26,6 +68,7 @@ public class Node<T extends Comparable> {
     }
 
     public void add(T value) {
+        size++;
         if (this.value.compareTo(value) > 0) {
             if (left != null) {
                 left.add(value);
@@ -52,10 +95,11 @@ public class Node<T extends Comparable> {
         return right != null && right.contains(value);
     }
 
+    /**
+     * Size of this subtree, kept up to date by {@link #add} and {@link #remove}.
+     */
     public int size() {
-        int leftSize = left == null ? 0 : left.size();
-        int rightSize = right == null ? 0 : right.size();
-        return leftSize + rightSize + 1;
+        return size;
     }
 
     public T min() {
@@ -67,29 +111,122 @@ public class Node<T extends Comparable> {
     }
 
     public boolean remove(T value, Node<T> parent) {
+        boolean removed;
         if (value.compareTo(this.value) < 0) {
-            if (left != null) {
-                return left.remove(value, this);
-            } else {
-                return false;
-            }
+            removed = left != null && left.remove(value, this);
         } else if (value.compareTo(this.value) > 0) {
-            if (right != null) {
-                return right.remove(value, this);
-            } else {
-                return false;
-            }
+            removed = right != null && right.remove(value, this);
         } else {
+            removed = true;
             if (left != null && right != null) {
                 this.value = right.min();
                 right.remove(this.value, this);
-            } else if (parent.left == this) {
+            } else if (parent != null && parent.left == this) {
                 parent.left = left != null ? left : right;
-            } else if (parent.right == this) {
+            } else if (parent != null && parent.right == this) {
                 parent.right = left != null ? left : right;
+            } else if (left != null || right != null) {
+                // this is the root, it takes over its only child
+                Node<T> child = left != null ? left : right;
+                this.value = child.value;
+                this.left = child.left;
+                this.right = child.right;
+            } else {
+                // the root alone holds the last value, which a node cannot give up
+                removed = false;
+            }
+        }
+        if (removed) {
+            size--;
+        }
+        return removed;
+    }
+
+    /**
+     * Values in ascending order. The iterators keep an explicit stack as deep as the tree, and nothing else, so
+     * a scan does not allocate per value. Changing the tree during a scan leaves them in an undefined state.
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new Ascending<>(this, null, null);
+    }
+
+    /**
+     * Values within {@code [from, to)} in ascending order, reached in O(height) without visiting smaller ones.
+     */
+    public Iterator<T> iterator(T from, T to) {
+        Objects.requireNonNull(from);
+        Objects.requireNonNull(to);
+        return new Ascending<>(this, from, to);
+    }
+
+    /**
+     * Values in descending order.
+     */
+    public Iterator<T> descendingIterator() {
+        return new Descending<>(this);
+    }
+
+    private static class Ascending<T extends Comparable> implements Iterator<T> {
+
+        private final ArrayDeque<Node<T>> stack = new ArrayDeque<>();
+        private final T to;
+
+        Ascending(Node<T> root, T from, T to) {
+            this.to = to;
+            for (Node<T> node = root; node != null; ) {
+                if (from != null && node.value.compareTo(from) < 0) {
+                    node = node.right;
+                } else {
+                    stack.push(node);
+                    node = node.left;
+                }
             }
-            return true;
         }
 
+        @Override
+        public boolean hasNext() {
+            return !stack.isEmpty() && (to == null || stack.peek().value.compareTo(to) < 0);
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Node<T> node = stack.pop();
+            for (Node<T> next = node.right; next != null; next = next.left) {
+                stack.push(next);
+            }
+            return node.value;
+        }
+    }
+
+    private static class Descending<T extends Comparable> implements Iterator<T> {
+
+        private final ArrayDeque<Node<T>> stack = new ArrayDeque<>();
+
+        Descending(Node<T> root) {
+            for (Node<T> node = root; node != null; node = node.right) {
+                stack.push(node);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !stack.isEmpty();
+        }
+
+        @Override
+        public T next() {
+            if (stack.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            Node<T> node = stack.pop();
+            for (Node<T> next = node.left; next != null; next = next.right) {
+                stack.push(next);
+            }
+            return node.value;
+        }
     }
 }
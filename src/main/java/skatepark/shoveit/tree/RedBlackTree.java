@@ -0,0 +1,459 @@
+package skatepark.shoveit.tree;
+
+import java.util.ArrayDeque;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * Sorted set kept balanced as a red-black tree, so its height never exceeds {@code 2 log2(n + 1)} whatever the
+ * order of insertion. Every operation walks the tree iteratively, following parent links on the way back up, so deep
+ * trees cannot overflow the call stack.
+ * <p>
+ * Each entry also records the size of its subtree, which makes {@link #rank}, {@link #select} and {@link #count}
+ * run in {@code O(log n)}.
+ */
+public class RedBlackTree<T extends Comparable<? super T>> {
+
+    private static final boolean RED = false;
+    private static final boolean BLACK = true;
+
+    static final int ABSENT = 0;
+    static final int FOUND = 1;
+    static final int UNKNOWN = -1;
+
+    private Entry<T> root;
+
+    /**
+     * @return false if the value was already present.
+     */
+    public boolean add(T value) {
+        Objects.requireNonNull(value);
+        if (root == null) {
+            root = new Entry<>(value, null);
+            root.color = BLACK;
+            return true;
+        }
+        Entry<T> parent;
+        Entry<T> current = root;
+        int result;
+        do {
+            parent = current;
+            result = value.compareTo(current.value);
+            if (result < 0) {
+                current = current.left;
+            } else if (result > 0) {
+                current = current.right;
+            } else {
+                return false;
+            }
+        } while (current != null);
+
+        Entry<T> entry = new Entry<>(value, parent);
+        if (result < 0) {
+            parent.left = entry;
+        } else {
+            parent.right = entry;
+        }
+        for (Entry<T> ancestor = parent; ancestor != null; ancestor = ancestor.parent) {
+            ancestor.size++;
+        }
+        fixAfterInsertion(entry);
+        return true;
+    }
+
+    public boolean contains(T value) {
+        return find(value) != null;
+    }
+
+    /**
+     * @return false if the value was not present.
+     */
+    public boolean remove(T value) {
+        Entry<T> entry = find(value);
+        if (entry == null) {
+            return false;
+        }
+        delete(entry);
+        return true;
+    }
+
+    public T min() {
+        if (root == null) {
+            throw new NoSuchElementException();
+        }
+        return first(root).value;
+    }
+
+    public T max() {
+        if (root == null) {
+            throw new NoSuchElementException();
+        }
+        return last(root).value;
+    }
+
+    public int size() {
+        return sizeOf(root);
+    }
+
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    /**
+     * @return how many values are smaller than {@code value}, whether it is present or not.
+     */
+    public int rank(T value) {
+        Objects.requireNonNull(value);
+        int rank = 0;
+        Entry<T> current = root;
+        while (current != null) {
+            int result = value.compareTo(current.value);
+            if (result < 0) {
+                current = current.left;
+            } else if (result > 0) {
+                rank += sizeOf(current.left) + 1;
+                current = current.right;
+            } else {
+                return rank + sizeOf(current.left);
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * @return the value of the given rank, the smallest one being of rank 0.
+     */
+    public T select(int rank) {
+        if (rank < 0 || rank >= size()) {
+            throw new IndexOutOfBoundsException("rank: " + rank + ", size: " + size());
+        }
+        Entry<T> current = root;
+        while (true) {
+            int leftSize = sizeOf(current.left);
+            if (rank < leftSize) {
+                current = current.left;
+            } else if (rank > leftSize) {
+                rank -= leftSize + 1;
+                current = current.right;
+            } else {
+                return current.value;
+            }
+        }
+    }
+
+    /**
+     * @return how many values fall within {@code [from, to)}.
+     */
+    public int count(T from, T to) {
+        if (from.compareTo(to) >= 0) {
+            return 0;
+        }
+        return rank(to) - rank(from);
+    }
+
+    /**
+     * Lookup that tolerates a tree being modified concurrently, for optimistic readers: it may answer wrongly, but
+     * it never fails and gives up with {@link #UNKNOWN} after {@code maxSteps} entries or on a half published one.
+     */
+    int probe(T value, int maxSteps) {
+        Entry<T> current = root;
+        for (int steps = 0; current != null; steps++) {
+            T other = current.value;
+            if (other == null || steps == maxSteps) {
+                return UNKNOWN;
+            }
+            int result = value.compareTo(other);
+            if (result < 0) {
+                current = current.left;
+            } else if (result > 0) {
+                current = current.right;
+            } else {
+                return FOUND;
+            }
+        }
+        return ABSENT;
+    }
+
+    private Entry<T> find(T value) {
+        Objects.requireNonNull(value);
+        Entry<T> current = root;
+        while (current != null) {
+            int result = value.compareTo(current.value);
+            if (result < 0) {
+                current = current.left;
+            } else if (result > 0) {
+                current = current.right;
+            } else {
+                return current;
+            }
+        }
+        return null;
+    }
+
+    private static <T> Entry<T> first(Entry<T> entry) {
+        while (entry.left != null) {
+            entry = entry.left;
+        }
+        return entry;
+    }
+
+    private static <T> Entry<T> last(Entry<T> entry) {
+        while (entry.right != null) {
+            entry = entry.right;
+        }
+        return entry;
+    }
+
+    private void delete(Entry<T> entry) {
+        // an inner entry takes the value of its successor, which has at most one child, and the successor goes
+        if (entry.left != null && entry.right != null) {
+            Entry<T> successor = first(entry.right);
+            entry.value = successor.value;
+            entry = successor;
+        }
+        // sizes are final before the fix up rotations, which recompute them from the children
+        entry.size--;
+        for (Entry<T> ancestor = entry.parent; ancestor != null; ancestor = ancestor.parent) {
+            ancestor.size--;
+        }
+
+        Entry<T> replacement = entry.left != null ? entry.left : entry.right;
+        if (replacement != null) {
+            replacement.parent = entry.parent;
+            if (entry.parent == null) {
+                root = replacement;
+            } else if (entry == entry.parent.left) {
+                entry.parent.left = replacement;
+            } else {
+                entry.parent.right = replacement;
+            }
+            entry.left = entry.right = entry.parent = null;
+            if (entry.color == BLACK) {
+                fixAfterDeletion(replacement);
+            }
+        } else if (entry.parent == null) {
+            root = null;
+        } else {
+            // a leaf is fixed up while it is still in the tree, then unlinked
+            if (entry.color == BLACK) {
+                fixAfterDeletion(entry);
+            }
+            if (entry.parent != null) {
+                if (entry == entry.parent.left) {
+                    entry.parent.left = null;
+                } else if (entry == entry.parent.right) {
+                    entry.parent.right = null;
+                }
+                entry.parent = null;
+            }
+        }
+    }
+
+    private void fixAfterInsertion(Entry<T> x) {
+        x.color = RED;
+        while (x != null && x != root && x.parent.color == RED) {
+            if (parentOf(x) == leftOf(parentOf(parentOf(x)))) {
+                Entry<T> y = rightOf(parentOf(parentOf(x)));
+                if (colorOf(y) == RED) {
+                    setColor(parentOf(x), BLACK);
+                    setColor(y, BLACK);
+                    setColor(parentOf(parentOf(x)), RED);
+                    x = parentOf(parentOf(x));
+                } else {
+                    if (x == rightOf(parentOf(x))) {
+                        x = parentOf(x);
+                        rotateLeft(x);
+                    }
+                    setColor(parentOf(x), BLACK);
+                    setColor(parentOf(parentOf(x)), RED);
+                    rotateRight(parentOf(parentOf(x)));
+                }
+            } else {
+                Entry<T> y = leftOf(parentOf(parentOf(x)));
+                if (colorOf(y) == RED) {
+                    setColor(parentOf(x), BLACK);
+                    setColor(y, BLACK);
+                    setColor(parentOf(parentOf(x)), RED);
+                    x = parentOf(parentOf(x));
+                } else {
+                    if (x == leftOf(parentOf(x))) {
+                        x = parentOf(x);
+                        rotateRight(x);
+                    }
+                    setColor(parentOf(x), BLACK);
+                    setColor(parentOf(parentOf(x)), RED);
+                    rotateLeft(parentOf(parentOf(x)));
+                }
+            }
+        }
+        root.color = BLACK;
+    }
+
+    private void fixAfterDeletion(Entry<T> x) {
+        while (x != root && colorOf(x) == BLACK) {
+            if (x == leftOf(parentOf(x))) {
+                Entry<T> sibling = rightOf(parentOf(x));
+                if (colorOf(sibling) == RED) {
+                    setColor(sibling, BLACK);
+                    setColor(parentOf(x), RED);
+                    rotateLeft(parentOf(x));
+                    sibling = rightOf(parentOf(x));
+                }
+                if (colorOf(leftOf(sibling)) == BLACK && colorOf(rightOf(sibling)) == BLACK) {
+                    setColor(sibling, RED);
+                    x = parentOf(x);
+                } else {
+                    if (colorOf(rightOf(sibling)) == BLACK) {
+                        setColor(leftOf(sibling), BLACK);
+                        setColor(sibling, RED);
+                        rotateRight(sibling);
+                        sibling = rightOf(parentOf(x));
+                    }
+                    setColor(sibling, colorOf(parentOf(x)));
+                    setColor(parentOf(x), BLACK);
+                    setColor(rightOf(sibling), BLACK);
+                    rotateLeft(parentOf(x));
+                    x = root;
+                }
+            } else {
+                Entry<T> sibling = leftOf(parentOf(x));
+                if (colorOf(sibling) == RED) {
+                    setColor(sibling, BLACK);
+                    setColor(parentOf(x), RED);
+                    rotateRight(parentOf(x));
+                    sibling = leftOf(parentOf(x));
+                }
+                if (colorOf(rightOf(sibling)) == BLACK && colorOf(leftOf(sibling)) == BLACK) {
+                    setColor(sibling, RED);
+                    x = parentOf(x);
+                } else {
+                    if (colorOf(leftOf(sibling)) == BLACK) {
+                        setColor(rightOf(sibling), BLACK);
+                        setColor(sibling, RED);
+                        rotateLeft(sibling);
+                        sibling = leftOf(parentOf(x));
+                    }
+                    setColor(sibling, colorOf(parentOf(x)));
+                    setColor(parentOf(x), BLACK);
+                    setColor(leftOf(sibling), BLACK);
+                    rotateRight(parentOf(x));
+                    x = root;
+                }
+            }
+        }
+        setColor(x, BLACK);
+    }
+
+    private void rotateLeft(Entry<T> p) {
+        if (p == null) {
+            return;
+        }
+        Entry<T> r = p.right;
+        p.right = r.left;
+        if (r.left != null) {
+            r.left.parent = p;
+        }
+        r.parent = p.parent;
+        if (p.parent == null) {
+            root = r;
+        } else if (p.parent.left == p) {
+            p.parent.left = r;
+        } else {
+            p.parent.right = r;
+        }
+        r.left = p;
+        p.parent = r;
+        r.size = p.size;
+        p.size = sizeOf(p.left) + sizeOf(p.right) + 1;
+    }
+
+    private void rotateRight(Entry<T> p) {
+        if (p == null) {
+            return;
+        }
+        Entry<T> l = p.left;
+        p.left = l.right;
+        if (l.right != null) {
+            l.right.parent = p;
+        }
+        l.parent = p.parent;
+        if (p.parent == null) {
+            root = l;
+        } else if (p.parent.right == p) {
+            p.parent.right = l;
+        } else {
+            p.parent.left = l;
+        }
+        l.right = p;
+        p.parent = l;
+        l.size = p.size;
+        p.size = sizeOf(p.left) + sizeOf(p.right) + 1;
+    }
+
+    // null-safe accessors, missing children count as black leaves
+
+    private static <T> int sizeOf(Entry<T> entry) {
+        return entry == null ? 0 : entry.size;
+    }
+
+    private static <T> boolean colorOf(Entry<T> entry) {
+        return entry == null ? BLACK : entry.color;
+    }
+
+    private static <T> Entry<T> parentOf(Entry<T> entry) {
+        return entry == null ? null : entry.parent;
+    }
+
+    private static <T> void setColor(Entry<T> entry, boolean color) {
+        if (entry != null) {
+            entry.color = color;
+        }
+    }
+
+    private static <T> Entry<T> leftOf(Entry<T> entry) {
+        return entry == null ? null : entry.left;
+    }
+
+    private static <T> Entry<T> rightOf(Entry<T> entry) {
+        return entry == null ? null : entry.right;
+    }
+
+    /**
+     * Walks the whole tree level by level, for tests only.
+     */
+    int height() {
+        int height = 0;
+        ArrayDeque<Entry<T>> level = new ArrayDeque<>();
+        if (root != null) {
+            level.add(root);
+        }
+        while (!level.isEmpty()) {
+            height++;
+            for (int i = level.size(); i > 0; i--) {
+                Entry<T> entry = level.poll();
+                if (entry.left != null) {
+                    level.add(entry.left);
+                }
+                if (entry.right != null) {
+                    level.add(entry.right);
+                }
+            }
+        }
+        return height;
+    }
+
+    private static class Entry<T> {
+
+        private T value;
+        private Entry<T> left;
+        private Entry<T> right;
+        private Entry<T> parent;
+        private boolean color = BLACK;
+        private int size = 1;
+
+        Entry(T value, Entry<T> parent) {
+            this.value = value;
+            this.parent = parent;
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package skatepark.shoveit.backtracking;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+public class CspSolverTest {
+
+    private final CspSolver[] solvers = {new CspSolver(),
+            new CspSolver(CspSolver.VariableOrder.INPUT, null),
+            new CspSolver(CspSolver.VariableOrder.MIN_DOMAIN, (search, variable, values, count) -> {
+                // descending
+                for (int i = 0, j = count - 1; i < j; i++, j--) {
+                    int value = values[i];
+                    values[i] = values[j];
+                    values[j] = value;
+                }
+            })};
+
+    @Test
+    public void testQueens() {
+        for (CspSolver solver : solvers) {
+            for (int size = 0; size < 10; size++) {
+                Assert.assertEquals("size " + size, new NQueens().count(size), solver.count(CspPuzzles.queens(size)));
+
+                List<int[]> solutions = solver.solutions(CspPuzzles.queens(size)).collect(Collectors.toList());
+                Set<String> distinct = new HashSet<>();
+                for (int[] solution : solutions) {
+                    Assert.assertTrue(isQueens(solution));
+                    distinct.add(Arrays.toString(solution));
+                }
+                Assert.assertEquals(solutions.size(), distinct.size());
+            }
+            Assert.assertNull(solver.first(CspPuzzles.queens(3)));
+        }
+        // in input order the first solution of 30 queens takes millions of nodes, with MRV a few hundred
+        CspSearch search = new CspSolver().search(CspPuzzles.queens(30));
+        Assert.assertTrue(search.next());
+        Assert.assertTrue(isQueens(search.solution()));
+        Assert.assertTrue(search.getNodes() < 1000);
+    }
+
+    @Test
+    public void testKnightTour() {
+        CspSolver solver = new CspSolver(CspSolver.VariableOrder.INPUT, CspPuzzles.warnsdorff(8, 8));
+        int[] solution = solver.first(CspPuzzles.knightTour(8, 8, 0, 0));
+        Assert.assertTrue(isTour(CspPuzzles.toBoard(8, 8, solution)));
+
+        solver = new CspSolver(CspSolver.VariableOrder.INPUT, CspPuzzles.warnsdorff(5, 5));
+        int[][] board = CspPuzzles.toBoard(5, 5, solver.first(CspPuzzles.knightTour(5, 5, 2, 2)));
+        Assert.assertTrue(isTour(board));
+        Assert.assertEquals(0, board[2][2]);
+
+        // open tours on a 5x5 board only start on squares of the majority colour
+        CspSearch search = solver.search(CspPuzzles.knightTour(5, 5, 0, 1));
+        Assert.assertFalse(search.next());
+        Assert.assertFalse(search.isBudgetExceeded());
+
+        // there are 304 tours from a corner of the 5x5 board
+        Assert.assertEquals(304, solver.count(CspPuzzles.knightTour(5, 5, 0, 0)));
+    }
+
+    @Test
+    public void testSubsetSum() {
+        Random random = new Random(1);
+        for (int round = 0; round < 20; round++) {
+            int[] values = random.ints(random.nextInt(14), -20, 21).toArray();
+            long target = random.nextInt(21) - 10;
+            long expected = new SubsetSum().count(values, target);
+            for (CspSolver solver : solvers) {
+                List<int[]> solutions = solver.solutions(CspPuzzles.subsetSum(values, target))
+                        .collect(Collectors.toList());
+                Assert.assertEquals(expected, solutions.size());
+                for (int[] taken : solutions) {
+                    long sum = 0;
+                    for (int i = 0; i < values.length; i++) {
+                        sum += taken[i] * values[i];
+                    }
+                    Assert.assertEquals(target, sum);
+                    Assert.assertTrue(Arrays.stream(taken).sum() > 0);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testBudget() {
+        // the solutions found within the budget are those an unlimited search finds in as many nodes
+        CspSearch unlimited = new CspSolver(CspSolver.VariableOrder.INPUT, null).search(CspPuzzles.queens(12));
+        long expected = 0;
+        while (unlimited.next() && unlimited.getNodes() <= 5000) {
+            expected++;
+        }
+        Assert.assertTrue(expected > 0);
+
+        CspSolver nodes = new CspSolver(CspSolver.VariableOrder.INPUT, null, 5000, 0, TimeUnit.SECONDS);
+        CspSearch search = nodes.search(CspPuzzles.queens(12));
+        long count = 0;
+        while (search.next()) {
+            count++;
+        }
+        Assert.assertTrue(search.isBudgetExceeded());
+        Assert.assertEquals(5000, search.getNodes());
+        Assert.assertEquals(expected, count);
+
+        CspSolver time = new CspSolver(CspSolver.VariableOrder.INPUT, null, Long.MAX_VALUE, 1, TimeUnit.MILLISECONDS);
+        search = time.search(CspPuzzles.queens(14));
+        while (search.next()) {
+            // counting until the time is up
+        }
+        Assert.assertTrue(search.isBudgetExceeded());
+    }
+
+    @Test
+    public void testUnassignHook() {
+        // at most two of the variables hold a 1, tracked by the hooks
+        int[] calls = new int[2];
+        IConstraint atMostTwo = new IConstraint() {
+            private int ones;
+
+            @Override
+            public int[] scope() {
+                return new int[]{0, 1, 2, 3};
+            }
+
+            @Override
+            public boolean onStart(CspSearch search) {
+                ones = 0;
+                return true;
+            }
+
+            @Override
+            public boolean onAssign(CspSearch search, int variable, int value) {
+                calls[0]++;
+                ones += value;
+                return ones <= 2;
+            }
+
+            @Override
+            public void onUnassign(CspSearch search, int variable, int value) {
+                calls[1]++;
+                ones -= value;
+            }
+        };
+        Csp csp = new Csp();
+        csp.addVariables(4, 2);
+        csp.add(atMostTwo);
+        for (CspSolver solver : solvers) {
+            Assert.assertEquals(1 + 4 + 6, solver.count(csp));
+        }
+        Assert.assertEquals(calls[0], calls[1]);
+    }
+
+    @Test
+    public void testModel() {
+        Csp csp = new Csp();
+        int x = csp.addVariable(3);
+        int y = csp.addVariable(3);
+        csp.remove(x, 0);
+        csp.add(new AllDifferent(new int[]{x, y}));
+        Assert.assertEquals(4, new CspSolver().count(csp));
+        try {
+            csp.add(new AllDifferent(new int[]{x, x}));
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            csp.add(new AllDifferent(new int[]{x, 2}));
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        // an empty domain has no solution
+        csp.remove(x, 1);
+        csp.remove(x, 2);
+        Assert.assertNull(new CspSolver().first(csp));
+    }
+
+    private static boolean isQueens(int[] columns) {
+        for (int i = 0; i < columns.length; i++) {
+            for (int j = i + 1; j < columns.length; j++) {
+                if (columns[i] == columns[j] || Math.abs(columns[i] - columns[j]) == j - i) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean isTour(int[][] matrix) {
+        int rows = matrix.length;
+        int columns = matrix[0].length;
+        int cells = rows * columns;
+        int[] positions = new int[cells];
+        Arrays.fill(positions, -1);
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < columns; j++) {
+                int step = matrix[i][j];
+                if (step < 0 || step >= cells || positions[step] != -1) {
+                    return false;
+                }
+                positions[step] = i * columns + j;
+            }
+        }
+        for (int step = 0; step + 1 < cells; step++) {
+            int dr = Math.abs(positions[step] / columns - positions[step + 1] / columns);
+            int dc = Math.abs(positions[step] % columns - positions[step + 1] % columns);
+            if (dr * dc != 2) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,89 @@
+package skatepark.shoveit.backtracking;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class NQueensTest {
+
+    private static final long[] COUNTS = {1, 1, 0, 0, 2, 10, 4, 40, 92, 352, 724, 2680, 14200, 73712};
+
+    @Test
+    public void testCount() {
+        for (int size = 0; size < COUNTS.length; size++) {
+            Assert.assertEquals("size " + size, COUNTS[size], new NQueens().count(size));
+        }
+    }
+
+    @Test
+    public void testSolutions() {
+        for (int size = 0; size < 10; size++) {
+            List<int[]> solutions = new NQueens().solutions(size).collect(Collectors.toList());
+            Assert.assertEquals(COUNTS[size], solutions.size());
+
+            Set<String> distinct = new HashSet<>();
+            for (int[] solution : solutions) {
+                Assert.assertTrue(isValid(solution));
+                distinct.add(Arrays.toString(solution));
+            }
+            Assert.assertEquals(solutions.size(), distinct.size());
+        }
+    }
+
+    @Test
+    public void testFirst() {
+        Assert.assertNull(new NQueens().first(3));
+        Assert.assertArrayEquals(new int[]{1, 3, 0, 2}, new NQueens().first(4));
+        Assert.assertTrue(isValid(new NQueens().first(20)));
+    }
+
+    @Test
+    public void testLazySolutions() {
+        List<int[]> solutions = new NQueens().solutions(24).limit(5).collect(Collectors.toList());
+        Assert.assertEquals(5, solutions.size());
+        solutions.forEach(solution -> Assert.assertTrue(isValid(solution)));
+    }
+
+    @Test
+    public void testWidestBoard() {
+        // explicit solution for sizes with n % 6 == 0 or 4, the search only has to complete its last rows
+        int size = NQueens.MAX_SIZE;
+        int[] queens = new int[size];
+        for (int i = 0; i < size / 2; i++) {
+            queens[i] = 2 * i + 1;
+            queens[size / 2 + i] = 2 * i;
+        }
+        Assert.assertTrue(isValid(queens));
+
+        int row = size - 8;
+        long columns = 0, left = 0, right = 0;
+        for (int i = 0; i < row; i++) {
+            long bit = 1L << queens[i];
+            columns |= bit;
+            left = (left | bit) << 1;
+            right = (right | bit) >>> 1;
+        }
+        Assert.assertTrue(NQueens.count(size, row, columns, left, right) >= 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTooWide() {
+        new NQueens().count(NQueens.MAX_SIZE + 1);
+    }
+
+    private boolean isValid(int[] queens) {
+        for (int i = 0; i < queens.length; i++) {
+            for (int j = i + 1; j < queens.length; j++) {
+                if (queens[i] == queens[j] || Math.abs(queens[i] - queens[j]) == j - i) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
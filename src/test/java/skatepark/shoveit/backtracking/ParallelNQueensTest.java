@@ -0,0 +1,50 @@
+package skatepark.shoveit.backtracking;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+public class ParallelNQueensTest {
+
+    @Test
+    public void testCount() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            ParallelNQueens solver = new ParallelNQueens(pool);
+            for (int size = 0; size <= 13; size++) {
+                Assert.assertEquals("size " + size, new NQueens().count(size), solver.count(size));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testCountWithinTimeout() throws Exception {
+        Assert.assertEquals(73712, new ParallelNQueens().count(13, 1, TimeUnit.MINUTES));
+    }
+
+    @Test(expected = TimeoutException.class)
+    public void testTimeout() throws Exception {
+        new ParallelNQueens().count(30, 50, TimeUnit.MILLISECONDS);
+    }
+
+    @Test(expected = CancellationException.class)
+    public void testCancel() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        ForkJoinTask<Long> task = new ParallelNQueens(pool).submit(30);
+        task.cancel(true);
+        try {
+            task.join();
+        } finally {
+            boolean quiescent = pool.awaitQuiescence(10, TimeUnit.SECONDS);
+            pool.shutdown();
+            Assert.assertTrue(quiescent);
+        }
+    }
+}
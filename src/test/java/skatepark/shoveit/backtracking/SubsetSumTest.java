@@ -6,10 +6,15 @@ import org.junit.Test;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Random;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 public class SubsetSumTest {
 
+    private SubsetSum[] engines = {new SubsetSum(SubsetSum.Mode.MEET_IN_THE_MIDDLE),
+            new SubsetSum(SubsetSum.Mode.DYNAMIC_PROGRAMMING)};
+
     @Test
     public void testNoResult() {
         Set<Integer> values = new HashSet<>(Arrays.asList(1, 2, 3, 4, 5));
@@ -45,4 +50,95 @@ public class SubsetSumTest {
         result = new SubsetSum().calc(new HashSet<>(list));
         Assert.assertEquals(235, result.size());
     }
+
+    @Test
+    public void testAgainstEnumeration() {
+        Random random = new Random(5);
+        for (int iteration = 0; iteration < 300; iteration++) {
+            int values[] = random.ints(random.nextInt(13), -20, 21).toArray();
+            long target = random.nextInt(41) - 20;
+            long expected = bruteForce(values, target);
+
+            for (SubsetSum engine : engines) {
+                String message = engine + " " + Arrays.toString(values) + " " + target;
+                Assert.assertEquals(message, expected, engine.count(values, target));
+                Assert.assertEquals(message, expected > 0, engine.exists(values, target));
+
+                assertSubsets(message, expected, target, engine.subsets(values, target).collect(Collectors.toList()));
+                assertSubsets(message, expected, target,
+                        engine.walk(values, target, Long.MAX_VALUE).collect(Collectors.toList()));
+            }
+        }
+    }
+
+    @Test
+    public void testZeroValues() {
+        int values[] = {0, 0, 0};
+        for (SubsetSum engine : engines) {
+            Assert.assertEquals(7, engine.count(values, 0));
+            Assert.assertTrue(engine.exists(values, 0));
+            Assert.assertEquals(0, engine.count(new int[0], 0));
+            Assert.assertFalse(engine.exists(new int[0], 0));
+        }
+    }
+
+    @Test
+    public void testManyValues() {
+        int values[] = new Random(1).ints(40, -1000000, 1000000).toArray();
+        long target = values[3] + values[17] + values[38];
+        Assert.assertTrue(new SubsetSum().count(values, target) >= 1);
+        Assert.assertTrue(new SubsetSum().exists(values, target));
+        Assert.assertTrue(new SubsetSum().subsets(values, target).limit(1).count() == 1);
+
+        int small[] = new Random(2).ints(500, -40, 41).toArray();
+        SubsetSum engine = new SubsetSum(SubsetSum.Mode.DYNAMIC_PROGRAMMING);
+        Assert.assertTrue(engine.exists(small, 123));
+        Assert.assertTrue(engine.count(small, 123) > 0);
+    }
+
+    @Test
+    public void testWalkLimit() {
+        int values[] = new int[60];
+        Arrays.fill(values, 1);
+        List<int[]> subsets = new SubsetSum().walk(values, 2, 5).collect(Collectors.toList());
+        Assert.assertEquals(5, subsets.size());
+        for (int subset[] : subsets) {
+            Assert.assertArrayEquals(new int[]{1, 1}, subset);
+        }
+        Assert.assertFalse(new SubsetSum().iterator(values, 2, 0).hasNext());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTooManyValues() {
+        new SubsetSum().count(new int[SubsetSum.MAX_MEET_IN_THE_MIDDLE_SIZE + 1], 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRangeTooWide() {
+        new SubsetSum(SubsetSum.Mode.DYNAMIC_PROGRAMMING).count(new int[]{Integer.MAX_VALUE, Integer.MIN_VALUE}, 0);
+    }
+
+    private void assertSubsets(String message, long expected, long target, List<int[]> subsets) {
+        Assert.assertEquals(message, expected, subsets.size());
+        for (int subset[] : subsets) {
+            Assert.assertTrue(subset.length > 0);
+            Assert.assertEquals(target, Arrays.stream(subset).asLongStream().sum());
+        }
+    }
+
+    private long bruteForce(int values[], long target) {
+        long count = 0;
+        for (int mask = 1; mask < 1 << values.length; mask++) {
+            long sum = 0;
+            for (int i = 0; i < values.length; i++) {
+                if ((mask & 1 << i) != 0) {
+                    sum += values[i];
+                }
+            }
+            if (sum == target) {
+                count++;
+            }
+        }
+        return count;
+    }
 }
@@ -0,0 +1,86 @@
+package skatepark.shoveit.backtracking;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+public class WarnsdorffKnightTourTest {
+
+    @Test
+    public void testSmallestBoard() {
+        int[][] matrix = new WarnsdorffKnightTour().calc(5, 5, 0, 0);
+        Assert.assertTrue(isValid(matrix, false));
+    }
+
+    @Test
+    public void testBoard() {
+        int[][] matrix = new WarnsdorffKnightTour().calc(8, 8, 0, 0);
+        Assert.assertTrue(isValid(matrix, false));
+    }
+
+    @Test
+    public void testRectangularBoard() {
+        int[][] matrix = new WarnsdorffKnightTour().calc(4, 6, 0, 0);
+        Assert.assertTrue(isValid(matrix, false));
+    }
+
+    @Test
+    public void testLargeBoard() {
+        int[][] matrix = new WarnsdorffKnightTour().calc(100, 100, 0, 0);
+        Assert.assertTrue(isValid(matrix, false));
+
+        matrix = new WarnsdorffKnightTour().calc(200, 150, 17, 3);
+        Assert.assertTrue(isValid(matrix, false));
+        Assert.assertEquals(0, matrix[17][3]);
+    }
+
+    @Test
+    public void testClosedTour() {
+        int[][] matrix = new WarnsdorffKnightTour().calc(8, 8, 0, 0, true);
+        Assert.assertTrue(isValid(matrix, true));
+        Assert.assertEquals(0, matrix[0][0]);
+
+        matrix = new WarnsdorffKnightTour().calc(100, 100, 99, 1, true);
+        Assert.assertTrue(isValid(matrix, true));
+        Assert.assertEquals(0, matrix[99][1]);
+    }
+
+    @Test
+    public void testNoTour() {
+        // closed tours need an even number of squares, and none exist on boards 4 squares wide
+        Assert.assertNull(new WarnsdorffKnightTour().calc(5, 5, 0, 0, true));
+        Assert.assertNull(new WarnsdorffKnightTour().calc(4, 6, 0, 0, true));
+        // open tours on a 5x5 board only start on squares of the majority colour
+        Assert.assertNull(new WarnsdorffKnightTour().calc(5, 5, 0, 1));
+        Assert.assertNull(new WarnsdorffKnightTour().calc(5, 5, 5, 0));
+    }
+
+    private boolean isValid(int[][] matrix, boolean closed) {
+        int rows = matrix.length;
+        int columns = matrix[0].length;
+        int cells = rows * columns;
+        int[] positions = new int[cells];
+        Arrays.fill(positions, -1);
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < columns; j++) {
+                int step = matrix[i][j];
+                if (step < 0 || step >= cells || positions[step] != -1) {
+                    return false;
+                }
+                positions[step] = i * columns + j;
+            }
+        }
+        int moves = closed ? cells : cells - 1;
+        for (int step = 0; step < moves; step++) {
+            int from = positions[step];
+            int to = positions[(step + 1) % cells];
+            int dr = Math.abs(from / columns - to / columns);
+            int dc = Math.abs(from % columns - to % columns);
+            if (dr * dc != 2) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -3,6 +3,12 @@ package skatepark.shoveit.misc;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
 public class BasicConverterTest {
 
     @Test
@@ -20,4 +26,179 @@ public class BasicConverterTest {
             Assert.assertEquals(Integer.toHexString(i), converter.dec2Hex(i));
         }
     }
+
+    @Test
+    public void testFullRange() {
+        BasicConverter converter = new BasicConverter();
+        Random random = new Random(9);
+        int ints[] = {Integer.MIN_VALUE, -1, 0, 15, 16, Integer.MAX_VALUE};
+        for (int value : ints) {
+            Assert.assertEquals(Integer.toHexString(value), converter.dec2Hex(value));
+            Assert.assertEquals(value, converter.hex2Dec(Integer.toHexString(value)));
+        }
+        long longs[] = {Long.MIN_VALUE, -1, 0, 255, Long.MAX_VALUE};
+        for (long value : longs) {
+            Assert.assertEquals(Long.toHexString(value), converter.long2Hex(value));
+            Assert.assertEquals(value, converter.hex2Long(Long.toHexString(value)));
+        }
+        for (int i = 0; i < 100000; i++) {
+            int value = random.nextInt();
+            long wide = random.nextLong();
+            Assert.assertEquals(Integer.toHexString(value), converter.dec2Hex(value));
+            Assert.assertEquals(value, converter.hex2Dec(Integer.toHexString(value)));
+            Assert.assertEquals(Long.toHexString(wide), converter.long2Hex(wide));
+            Assert.assertEquals(wide, converter.hex2Long(Long.toHexString(wide)));
+        }
+    }
+
+    @Test
+    public void testUpperCaseAndLeadingZeros() {
+        BasicConverter converter = new BasicConverter();
+        Assert.assertEquals(0xABCDEF, converter.hex2Dec("ABCdef"));
+        Assert.assertEquals(-1, converter.hex2Dec("00000000FFFFFFFF"));
+        Assert.assertEquals(0x7fL, converter.hex2Long(new StringBuilder("007F")));
+    }
+
+    @Test
+    public void testBuffers() {
+        BasicConverter converter = new BasicConverter();
+        char chars[] = new char[20];
+        byte bytes[] = new byte[20];
+
+        Assert.assertEquals(8, converter.dec2Hex(-2, chars, 2));
+        Assert.assertEquals("fffffffe", new String(chars, 2, 8));
+        Assert.assertEquals(-2, converter.hex2Dec(chars, 2, 8));
+
+        Assert.assertEquals(3, converter.long2Hex(0xabcL, bytes, 5));
+        Assert.assertEquals("abc", new String(bytes, 5, 3, StandardCharsets.US_ASCII));
+        Assert.assertEquals(0xabcL, converter.hex2Long(bytes, 5, 3));
+
+        Assert.assertEquals(1, converter.dec2Hex(0, bytes, 0));
+        Assert.assertEquals('0', bytes[0]);
+        Assert.assertEquals(16, converter.long2Hex(Long.MIN_VALUE, chars, 4));
+        Assert.assertEquals(Long.MIN_VALUE, converter.hex2Long(chars, 4, 16));
+        Assert.assertEquals(0, converter.hex2Dec(bytes, 0, 1));
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testInvalidDigit() {
+        new BasicConverter().hex2Dec("12g4");
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testInvalidByte() {
+        new BasicConverter().hex2Dec(new byte[]{'1', (byte) 0xe9}, 0, 2);
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testNonAsciiDigit() {
+        // Character.getNumericValue reads this fullwidth digit as 1
+        new BasicConverter().hex2Dec("\uff11");
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testOverflow() {
+        new BasicConverter().hex2Dec("100000000");
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testLongOverflow() {
+        new BasicConverter().hex2Long(new char[]{'1', '0', '0', '0', '0', '0', '0', '0', '0', '0', '0', '0', '0', '0',
+                '0', '0', '0'}, 0, 17);
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testEmpty() {
+        new BasicConverter().hex2Dec("");
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testOutOfBounds() {
+        new BasicConverter().hex2Dec(new char[4], 2, 3);
+    }
+
+    @Test
+    public void testBatch() {
+        BasicConverter converter = new BasicConverter();
+        Random random = new Random(21);
+        int ints[] = random.ints(1000).toArray();
+        long longs[] = random.longs(1000).toArray();
+        ints[0] = 0;
+        longs[0] = -1;
+
+        for (ByteOrder order : new ByteOrder[]{ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN}) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(24000).order(order);
+            converter.dec2Hex(ints, 0, ints.length, buffer);
+            converter.long2Hex(longs, 0, longs.length, buffer);
+            Assert.assertFalse(buffer.hasRemaining());
+
+            buffer.flip();
+            byte text[] = new byte[24];
+            buffer.duplicate().get(text);
+            Assert.assertEquals("00000000", new String(text, 0, 8, StandardCharsets.US_ASCII));
+            Assert.assertEquals(String.format("%08x", ints[1]), new String(text, 8, 8, StandardCharsets.US_ASCII));
+
+            int intsBack[] = new int[ints.length];
+            long longsBack[] = new long[longs.length];
+            converter.hex2Dec(buffer, intsBack, 0, intsBack.length);
+            converter.hex2Long(buffer, longsBack, 0, longsBack.length);
+            Assert.assertArrayEquals(ints, intsBack);
+            Assert.assertArrayEquals(longs, longsBack);
+        }
+    }
+
+    @Test
+    public void testBatchUpperCase() {
+        int values[] = new int[2];
+        new BasicConverter().hex2Dec(ByteBuffer.wrap("DEADBEEF0000abcd".getBytes(StandardCharsets.US_ASCII)),
+                values, 0, 2);
+        Assert.assertArrayEquals(new int[]{0xdeadbeef, 0xabcd}, values);
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testBatchInvalidDigit() {
+        new BasicConverter().hex2Long(ByteBuffer.wrap("00000000000000g0".getBytes(StandardCharsets.US_ASCII)),
+                new long[1], 0, 1);
+    }
+
+    @Test
+    public void testBatchInvalidDigitInTheMiddle() {
+        BasicConverter converter = new BasicConverter();
+        byte text[] = "0000000100000002000x00030000000400000005".getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer ints = ByteBuffer.wrap(text).order(ByteOrder.LITTLE_ENDIAN);
+        int intValues[] = {-1, -1, -1, -1, -1};
+        try {
+            converter.hex2Dec(ints, intValues, 0, 5);
+            Assert.fail();
+        } catch (NumberFormatException e) {
+            Assert.assertArrayEquals(new int[]{-1, -1, -1, -1, -1}, intValues);
+            Assert.assertEquals(0, ints.position());
+        }
+
+        ByteBuffer longs = ByteBuffer.wrap(("00000000000000010000000000000002"
+                + "0000000G000000040000000000000005").getBytes(StandardCharsets.US_ASCII));
+        longs.position(16);
+        long longValues[] = {-1, -1, -1};
+        try {
+            converter.hex2Long(longs, longValues, 0, 3);
+            Assert.fail();
+        } catch (NumberFormatException e) {
+            Assert.assertArrayEquals(new long[]{-1, -1, -1}, longValues);
+            Assert.assertEquals(16, longs.position());
+        }
+        converter.hex2Long(longs, longValues, 0, 1);
+        Assert.assertArrayEquals(new long[]{2, -1, -1}, longValues);
+        Assert.assertEquals(32, longs.position());
+    }
+
+    @Test
+    public void testBatchOverflow() {
+        ByteBuffer buffer = ByteBuffer.allocate(20);
+        try {
+            new BasicConverter().dec2Hex(new int[3], 0, 3, buffer);
+            Assert.fail();
+        } catch (BufferOverflowException e) {
+            Assert.assertEquals(0, buffer.position());
+        }
+    }
 }
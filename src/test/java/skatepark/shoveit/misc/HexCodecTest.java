@@ -0,0 +1,67 @@
+package skatepark.shoveit.misc;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+public class HexCodecTest {
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        Random random = new Random(8);
+        for (int size : new int[]{0, 1, 3, 4, 5, 8191, 8192, 100003}) {
+            byte bytes[] = new byte[size];
+            random.nextBytes(bytes);
+
+            ByteArrayOutputStream text = new ByteArrayOutputStream();
+            Assert.assertEquals(size, HexCodec.encode(trickle(bytes), text));
+            StringBuilder expected = new StringBuilder();
+            for (byte b : bytes) {
+                expected.append(String.format("%02x", b));
+            }
+            Assert.assertEquals(expected.toString(), new String(text.toByteArray(), StandardCharsets.US_ASCII));
+
+            ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+            Assert.assertEquals(size, HexCodec.decode(trickle(text.toByteArray()), decoded));
+            Assert.assertArrayEquals(bytes, decoded.toByteArray());
+        }
+    }
+
+    @Test
+    public void testDecodeWrappedUpperCase() throws IOException {
+        ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+        HexCodec.decode(new ByteArrayInputStream("DE AD\r\nbe\tEF\n".getBytes(StandardCharsets.US_ASCII)), decoded);
+        Assert.assertArrayEquals(new byte[]{(byte) 0xde, (byte) 0xad, (byte) 0xbe, (byte) 0xef}, decoded.toByteArray());
+    }
+
+    @Test(expected = IOException.class)
+    public void testDecodeInvalidDigit() throws IOException {
+        HexCodec.decode(new ByteArrayInputStream("0x12".getBytes(StandardCharsets.US_ASCII)),
+                new ByteArrayOutputStream());
+    }
+
+    @Test(expected = IOException.class)
+    public void testDecodeOddDigits() throws IOException {
+        HexCodec.decode(new ByteArrayInputStream("abc".getBytes(StandardCharsets.US_ASCII)),
+                new ByteArrayOutputStream());
+    }
+
+    /**
+     * Hands out at most 7 bytes per read, so words get cut across reads.
+     */
+    private static InputStream trickle(byte bytes[]) {
+        return new FilterInputStream(new ByteArrayInputStream(bytes)) {
+            @Override
+            public int read(byte buffer[], int offset, int length) throws IOException {
+                return super.read(buffer, offset, Math.min(length, 7));
+            }
+        };
+    }
+}
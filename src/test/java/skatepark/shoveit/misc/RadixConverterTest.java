@@ -0,0 +1,180 @@
+package skatepark.shoveit.misc;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class RadixConverterTest {
+
+    @Test
+    public void testAgainstJdk() {
+        Random random = new Random(36);
+        long longs[] = {0, 1, -1, 35, 36, -36, Long.MIN_VALUE, Long.MAX_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE};
+        for (int radix = RadixConverter.MIN_RADIX; radix <= RadixConverter.MAX_RADIX; radix++) {
+            RadixConverter converter = RadixConverter.of(radix);
+            Assert.assertEquals(radix, converter.radix());
+            for (long value : longs) {
+                assertLong(converter, value);
+                assertInt(converter, (int) value);
+            }
+            for (int i = 0; i < 2000; i++) {
+                // values of every magnitude
+                long value = random.nextLong() >> random.nextInt(64);
+                assertLong(converter, value);
+                assertInt(converter, (int) value);
+            }
+        }
+    }
+
+    @Test
+    public void testUpperCase() {
+        Assert.assertEquals(Long.parseLong("zZ", 36), RadixConverter.of(36).parseLong("zZ"));
+        Assert.assertEquals(255, RadixConverter.of(16).parseInt("+FF"));
+        Assert.assertEquals(-255, RadixConverter.of(16).parseInt("-00fF"));
+    }
+
+    @Test
+    public void testBase62() {
+        RadixConverter converter = RadixConverter.base62();
+        Assert.assertEquals("0", converter.toString(0));
+        Assert.assertEquals("Z", converter.toString(35));
+        Assert.assertEquals("a", converter.toString(36));
+        Assert.assertEquals("10", converter.toString(62));
+        Assert.assertEquals("-z", converter.toString(-61));
+        Assert.assertEquals(61, converter.parseInt("z"));
+        Assert.assertEquals(35, converter.parseInt("Z"));
+
+        Random random = new Random(62);
+        for (int i = 0; i < 10000; i++) {
+            long value = random.nextLong();
+            Assert.assertEquals(value, converter.parseLong(converter.toString(value)));
+        }
+        Assert.assertEquals(Long.MIN_VALUE, converter.parseLong(converter.toString(Long.MIN_VALUE)));
+    }
+
+    @Test
+    public void testBase64() {
+        RadixConverter converter = RadixConverter.base64();
+        Assert.assertEquals("A", converter.toString(0));
+        Assert.assertEquals("/", converter.toString(63));
+        Assert.assertEquals("BA", converter.toString(64));
+        Assert.assertEquals("-BA", converter.toString(-64));
+        // '+' is a digit here, not a sign
+        Assert.assertEquals(62 * 64 + 1, converter.parseInt("+B"));
+        Assert.assertEquals("H" + repeat('/', 10), converter.toString(Long.MAX_VALUE));
+
+        Random random = new Random(64);
+        for (int i = 0; i < 10000; i++) {
+            long value = random.nextLong();
+            Assert.assertEquals(value, converter.parseLong(converter.toString(value)));
+            Assert.assertEquals((int) value, converter.parseInt(converter.toString((int) value)));
+        }
+    }
+
+    @Test
+    public void testCustomAlphabet() {
+        RadixConverter converter = RadixConverter.of("01");
+        Assert.assertEquals(Long.toBinaryString(1234), converter.toString(1234));
+        Assert.assertEquals(1234, converter.parseInt(Long.toBinaryString(1234)));
+    }
+
+    @Test
+    public void testWriteIntoBuffer() {
+        char buffer[] = new char[70];
+        int length = RadixConverter.of(2).write(Long.MIN_VALUE, buffer, 3);
+        Assert.assertEquals(Long.toString(Long.MIN_VALUE, 2), new String(buffer, 3, length));
+        length = RadixConverter.of(7).write(-100, buffer, 0);
+        Assert.assertEquals(Integer.toString(-100, 7), new String(buffer, 0, length));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testWriteOutOfBounds() {
+        RadixConverter.of(10).write(12345, new char[6], 2);
+    }
+
+    @Test
+    public void testMalformed() {
+        assertMalformed(RadixConverter.of(10), "");
+        assertMalformed(RadixConverter.of(10), "-");
+        assertMalformed(RadixConverter.of(10), "12a");
+        assertMalformed(RadixConverter.of(2), "102");
+        assertMalformed(RadixConverter.of(36), "z z");
+        assertMalformed(RadixConverter.base62(), "a+");
+        assertMalformed(RadixConverter.of(16), "\u0661");
+    }
+
+    @Test
+    public void testOverflow() {
+        RadixConverter converter = RadixConverter.of(16);
+        Assert.assertEquals(Integer.MIN_VALUE, converter.parseInt("-80000000"));
+        Assert.assertEquals(Integer.MAX_VALUE, converter.parseInt("7fffffff"));
+        assertMalformed(converter, "80000000");
+        assertMalformed(converter, "-80000001");
+        assertMalformed(converter, "100000000");
+        Assert.assertEquals(Long.MIN_VALUE, converter.parseLong("-8000000000000000"));
+        assertMalformedLong(converter, "8000000000000000");
+        assertMalformedLong(RadixConverter.of(36), "1y2p0ij32e8e8");
+        Assert.assertEquals(Long.MAX_VALUE, RadixConverter.of(36).parseLong("1y2p0ij32e8e7"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRadixTooLarge() {
+        RadixConverter.of(37);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDuplicateDigit() {
+        RadixConverter.of("0120");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMinusDigit() {
+        RadixConverter.of("01-");
+    }
+
+    @Test
+    public void testBasicConverter() {
+        BasicConverter converter = new BasicConverter();
+        Assert.assertEquals("-1010", converter.dec2Radix(-10, 2));
+        Assert.assertEquals(-10, converter.radix2Dec("-1010", 2));
+    }
+
+    private static void assertLong(RadixConverter converter, long value) {
+        String expected = Long.toString(value, converter.radix());
+        Assert.assertEquals(expected, converter.toString(value));
+        Assert.assertEquals(value, converter.parseLong(expected));
+    }
+
+    private static void assertInt(RadixConverter converter, int value) {
+        String expected = Integer.toString(value, converter.radix());
+        Assert.assertEquals(expected, converter.toString(value));
+        Assert.assertEquals(value, converter.parseInt(expected));
+    }
+
+    private static void assertMalformed(RadixConverter converter, String text) {
+        try {
+            converter.parseInt(text);
+            Assert.fail(text);
+        } catch (NumberFormatException e) {
+            Assert.assertNotNull(e.getMessage());
+        }
+    }
+
+    private static void assertMalformedLong(RadixConverter converter, String text) {
+        try {
+            converter.parseLong(text);
+            Assert.fail(text);
+        } catch (NumberFormatException e) {
+            Assert.assertNotNull(e.getMessage());
+        }
+    }
+
+    private static String repeat(char character, int count) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            builder.append(character);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,204 @@
+package skatepark.shoveit.sort;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class ExternalSortTest {
+
+    private static final Serializer<int[]> PAIR = new Serializer<int[]>() {
+        @Override
+        public void write(int[] value, ByteBuffer target) {
+            target.putInt(value[0]).putInt(value[1]);
+        }
+
+        @Override
+        public int[] read(ByteBuffer source) {
+            return new int[]{source.getInt(), source.getInt()};
+        }
+    };
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(2);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @AfterClass
+    public static void shutdown() {
+        POOL.shutdown();
+    }
+
+    @Test
+    public void testManyRunsAndMergePasses() throws IOException {
+        List<Long> values = new Random(1).longs(20000).boxed().collect(Collectors.toList());
+        List<Long> expected = new ArrayList<>(values);
+        Collections.sort(expected);
+
+        // 200 runs merged 3 at a time take several passes
+        ExternalSort<Long> sort = sort(Serializer.LONG, null, 100, 3);
+        List<Long> sorted = new ArrayList<>();
+        Assert.assertEquals(values.size(), sort.sort(values.iterator(), sorted::add));
+
+        Assert.assertEquals(expected, sorted);
+        assertNoRunsLeft();
+    }
+
+    @Test
+    public void testFiles() throws IOException {
+        List<String> values = new Random(2).ints(5000, 0, 1000).mapToObj(i -> "word-" + i + "-\u00e9")
+                .collect(Collectors.toList());
+        List<String> expected = new ArrayList<>(values);
+        expected.sort(Comparator.reverseOrder());
+
+        ExternalSort<String> sort = sort(Serializer.STRING, Comparator.reverseOrder(), 64, 4);
+        Path path = folder.getRoot().toPath().resolve("words");
+        sort.sort(values.iterator(), path);
+        Assert.assertEquals(expected, read(Serializer.STRING, path));
+
+        // sorting the output in place by the natural order
+        ExternalSort<String> natural = sort(Serializer.STRING, null, 64, 4);
+        Assert.assertEquals(values.size(), natural.sort(path, path));
+        Collections.reverse(expected);
+        Assert.assertEquals(expected, read(Serializer.STRING, path));
+
+        // and from a file to a consumer
+        List<String> sorted = new ArrayList<>();
+        Assert.assertEquals(values.size(), sort.sort(path, sorted::add));
+        Collections.reverse(expected);
+        Assert.assertEquals(expected, sorted);
+        assertNoRunsLeft();
+    }
+
+    @Test
+    public void testStable() throws IOException {
+        Random random = new Random(3);
+        List<int[]> pairs = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            pairs.add(new int[]{random.nextInt(50), i});
+        }
+
+        List<int[]> sorted = new ArrayList<>();
+        sort(PAIR, Comparator.comparingInt(pair -> pair[0]), 128, 5).sort(pairs.iterator(), sorted::add);
+
+        Assert.assertEquals(pairs.size(), sorted.size());
+        for (int i = 1; i < sorted.size(); i++) {
+            Assert.assertTrue(sorted.get(i - 1)[0] <= sorted.get(i)[0]);
+            if (sorted.get(i - 1)[0] == sorted.get(i)[0]) {
+                Assert.assertTrue(sorted.get(i - 1)[1] < sorted.get(i)[1]);
+            }
+        }
+    }
+
+    @Test
+    public void testEdgeInputs() throws IOException {
+        ExternalSort<Integer> sort = sort(Serializer.INTEGER, null, 10, 2);
+        for (int size : new int[]{0, 1, 9, 10, 11, 20, 21}) {
+            List<Integer> values = new Random(size).ints(size).boxed().collect(Collectors.toList());
+            List<Integer> expected = new ArrayList<>(values);
+            Collections.sort(expected);
+
+            Path path = folder.getRoot().toPath().resolve("integers-" + size);
+            Assert.assertEquals(size, sort.sort(values.iterator(), path));
+            Assert.assertEquals(expected, read(Serializer.INTEGER, path));
+        }
+    }
+
+    @Test
+    public void testRecordsLargerThanBuffers() throws IOException {
+        char[] characters = new char[ExternalSort.BUFFER_SIZE * 3];
+        List<String> values = new ArrayList<>();
+        for (char c = 'z'; c >= 'a'; c--) {
+            Arrays.fill(characters, c);
+            values.add(new String(characters, 0, c % 2 == 0 ? characters.length : 10));
+        }
+        List<String> expected = new ArrayList<>(values);
+        Collections.sort(expected);
+
+        ExternalSort<String> sort = sort(Serializer.STRING, null, 4, 2);
+        Path path = folder.getRoot().toPath().resolve("large");
+        sort.sort(values.iterator(), path);
+
+        Assert.assertEquals(expected, read(Serializer.STRING, path));
+        assertNoRunsLeft();
+    }
+
+    @Test
+    public void testFailureDeletesRuns() throws IOException {
+        Comparator<Integer> failing = (left, right) -> {
+            if (left == 777 || right == 777) {
+                throw new IllegalStateException("cannot compare 777");
+            }
+            return Integer.compare(left, right);
+        };
+        List<Integer> values = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            values.add(i);
+        }
+        try {
+            sort(Serializer.INTEGER, failing, 50, 4).sort(values.iterator(), value -> {
+            });
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            Assert.assertEquals("cannot compare 777", e.getMessage());
+        }
+        assertNoRunsLeft();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidFanIn() {
+        sort(Serializer.LONG, null, 10, 1);
+    }
+
+    private <T> ExternalSort<T> sort(Serializer<T> serializer, Comparator<T> comparator, int chunkSize, int fanIn) {
+        return new ExternalSort<>(serializer, comparator, chunkSize, fanIn, runDirectory(), POOL);
+    }
+
+    private Path runDirectory() {
+        Path directory = folder.getRoot().toPath().resolve("runs");
+        try {
+            return Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    /**
+     * Decodes a file record by record, each one being its length followed by its bytes, without sorting it.
+     */
+    private static <T> List<T> read(Serializer<T> serializer, Path path) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        List<T> values = new ArrayList<>();
+        while (buffer.hasRemaining()) {
+            int length = buffer.getInt();
+            int end = buffer.position() + length;
+            ByteBuffer record = buffer.duplicate();
+            record.limit(end);
+            values.add(serializer.read(record));
+            Assert.assertEquals(end, record.position());
+            buffer.position(end);
+        }
+        return values;
+    }
+
+    private void assertNoRunsLeft() throws IOException {
+        try (Stream<Path> files = Files.list(runDirectory())) {
+            Assert.assertEquals(0, files.count());
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package skatepark.shoveit.sort;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class InstrumentedSortTest {
+
+    private final List<SortMetrics> metrics = new ArrayList<>();
+
+    @Test
+    public void testDisabled() {
+        // the default test run, the instrumented one sets shoveit.sort.instrumentation
+        Assume.assumeFalse(InstrumentedSort.isEnabled());
+        Random random = new Random(3);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (ISort algorithm : new ISort[]{new BubbleSort(), new SelectionSort(), new InsertionSort(),
+                    new MergeSort(), new MergeSort(pool, 64), new TimSort()}) {
+                ISort sort = new InstrumentedSort(algorithm, metrics::add);
+                Integer[] values = random.ints(500).boxed().toArray(Integer[]::new);
+                Integer[] expected = values.clone();
+                Arrays.sort(expected, Comparator.reverseOrder());
+                sort.sort(values, Comparator.reverseOrder());
+                Assert.assertArrayEquals(expected, values);
+
+                Integer[] keyed = random.ints(500, 0, 100).boxed().toArray(Integer[]::new);
+                Integer[] expectedKeyed = keyed.clone();
+                Arrays.sort(expectedKeyed, Comparator.reverseOrder());
+                sort.sortByInt(keyed, value -> -value);
+                Assert.assertArrayEquals(expectedKeyed, keyed);
+
+                int[] ints = random.ints(500).toArray();
+                long[] longs = random.longs(500).toArray();
+                double[] doubles = random.doubles(500).toArray();
+                int[] expectedInts = ints.clone();
+                long[] expectedLongs = longs.clone();
+                double[] expectedDoubles = doubles.clone();
+                Arrays.sort(expectedInts);
+                Arrays.sort(expectedLongs);
+                Arrays.sort(expectedDoubles);
+                sort.sort(ints);
+                sort.sort(longs);
+                sort.sort(doubles);
+                Assert.assertArrayEquals(expectedInts, ints);
+                Assert.assertArrayEquals(expectedLongs, longs);
+                Assert.assertArrayEquals(expectedDoubles, doubles, 0);
+            }
+        } finally {
+            pool.shutdown();
+        }
+        Assert.assertTrue(metrics.isEmpty());
+    }
+
+    @Test
+    public void testSortedInput() {
+        Assume.assumeTrue(InstrumentedSort.isEnabled());
+        Integer[] values = {1, 2, 3, 4, 5, 6, 7, 8};
+        for (ISort algorithm : new ISort[]{new BubbleSort(), new InsertionSort(), new TimSort()}) {
+            new InstrumentedSort(algorithm, metrics::add).sort(values);
+        }
+        new InstrumentedSort(new SelectionSort(), metrics::add).sort(values);
+
+        // one pass over neighbours and nothing moved
+        assertMetrics(metrics.get(0), "BubbleSort", 8, 7, 0, 0);
+        assertMetrics(metrics.get(1), "InsertionSort", 8, 7, 0, 0);
+        assertMetrics(metrics.get(2), "TimSort", 8, 7, 0, 0);
+        // every pair compared and every position written
+        assertMetrics(metrics.get(3), "SelectionSort", 8, 28, 14, 0);
+    }
+
+    @Test
+    public void testReversedInput() {
+        Assume.assumeTrue(InstrumentedSort.isEnabled());
+        Integer[] values = {8, 7, 6, 5, 4, 3, 2, 1};
+        new InstrumentedSort(new BubbleSort(), metrics::add).sort(values);
+        // 28 swaps, and a last pass finding nothing to swap
+        assertMetrics(metrics.get(0), "BubbleSort", 8, 8 * 7, 56, 0);
+
+        int[] ints = {8, 7, 6, 5, 4, 3, 2, 1};
+        new InstrumentedSort(new InsertionSort(), metrics::add).sort(ints);
+        // element i is compared with and shifted past i others
+        assertMetrics(metrics.get(1), "InsertionSort", 8, 28, 28 + 7, 0);
+    }
+
+    @Test
+    public void testPrimitiveComparisons() {
+        Assume.assumeTrue(InstrumentedSort.isEnabled());
+        int[] ints = new Random(4).ints(300).toArray();
+        Integer[] boxed = Arrays.stream(ints).boxed().toArray(Integer[]::new);
+        for (ISort algorithm : new ISort[]{new BubbleSort(), new SelectionSort(), new InsertionSort(), new MergeSort(),
+                new TimSort()}) {
+            metrics.clear();
+            ISort sort = new InstrumentedSort(algorithm, metrics::add);
+            sort.sort(boxed.clone());
+            sort.sort(ints.clone());
+            sort.sort(Arrays.stream(ints).asLongStream().toArray());
+            sort.sort(Arrays.stream(ints).asDoubleStream().toArray());
+
+            String name = algorithm.getClass().getSimpleName();
+            for (SortMetrics primitive : metrics.subList(1, 4)) {
+                Assert.assertTrue(name, primitive.getComparisons() > 300);
+                if (!(algorithm instanceof TimSort)) {
+                    // the same algorithm as for objects, TimSort gallops on objects only
+                    Assert.assertEquals(name, metrics.get(0).getComparisons(), primitive.getComparisons());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testScratchAndMoves() {
+        Assume.assumeTrue(InstrumentedSort.isEnabled());
+        Integer[] values = new Random(1).ints(1000).boxed().toArray(Integer[]::new);
+        new InstrumentedSort(new MergeSort(), metrics::add).sort(Arrays.copyOf(values, values.length));
+        new InstrumentedSort(new TimSort(), metrics::add).sort(Arrays.copyOf(values, values.length));
+        new InstrumentedSort(new MergeSort(), metrics::add).sort(new long[1000]);
+
+        SortMetrics merge = metrics.get(0);
+        Assert.assertEquals(1000 * SortRecorder.REFERENCE_BYTES, merge.getScratchBytes());
+        Assert.assertTrue(merge.getComparisons() > 1000 && merge.getComparisons() < 1000 * 10);
+        Assert.assertTrue(merge.getMoves() >= 1000);
+        Assert.assertTrue(merge.getElapsedNanos() > 0);
+
+        SortMetrics tim = metrics.get(1);
+        // the buffer doubles up to half of the array
+        Assert.assertTrue(tim.getScratchBytes() > 0 && tim.getScratchBytes() < 1000 * SortRecorder.REFERENCE_BYTES);
+        Assert.assertTrue(tim.getComparisons() > 1000 && tim.getMoves() >= 1000);
+
+        // equal keys are never merged, one comparison each finds the halves in order, the buffer is still allocated
+        assertMetrics(metrics.get(2), "MergeSort", 1000, 999, 0, 1000 * Long.BYTES);
+    }
+
+    @Test
+    public void testParallelMatchesSequential() {
+        Assume.assumeTrue(InstrumentedSort.isEnabled());
+        Integer[] values = new Random(2).ints(20000).boxed().toArray(Integer[]::new);
+        new InstrumentedSort(new MergeSort(), metrics::add).sort(Arrays.copyOf(values, values.length));
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            new InstrumentedSort(new MergeSort(pool, 64), metrics::add).sort(Arrays.copyOf(values, values.length));
+        } finally {
+            pool.shutdown();
+        }
+
+        SortMetrics sequential = metrics.get(0);
+        SortMetrics parallel = metrics.get(1);
+        Assert.assertEquals(sequential.getComparisons(), parallel.getComparisons());
+        Assert.assertEquals(sequential.getMoves(), parallel.getMoves());
+        Assert.assertEquals(sequential.getScratchBytes(), parallel.getScratchBytes());
+    }
+
+    @Test
+    public void testNestedSorts() {
+        Assume.assumeTrue(InstrumentedSort.isEnabled());
+        List<SortMetrics> inner = new ArrayList<>();
+        ISort nested = new InstrumentedSort(new InsertionSort(), inner::add);
+        ISort outer = new InstrumentedSort(new ISort() {
+            @Override
+            public <T> void sort(T[] list, Comparator<T> comparator) {
+                nested.sort(list, comparator);
+                nested.sort(list, comparator);
+            }
+
+            @Override
+            public void sort(int[] list) {
+            }
+
+            @Override
+            public void sort(long[] list) {
+            }
+
+            @Override
+            public void sort(double[] list) {
+            }
+        }, metrics::add);
+
+        outer.sortByInt(new String[]{"ccc", "a", "bb"}, String::length);
+
+        Assert.assertEquals(2, inner.size());
+        Assert.assertEquals(1, metrics.size());
+        Assert.assertEquals(inner.get(0).getComparisons() + inner.get(1).getComparisons(),
+                metrics.get(0).getComparisons());
+        Assert.assertEquals(inner.get(0).getMoves(), metrics.get(0).getMoves());
+        // the second sort finds the list sorted
+        Assert.assertEquals(0, inner.get(1).getMoves());
+    }
+
+    private static void assertMetrics(SortMetrics metrics, String algorithm, int length, long comparisons,
+                                      long moves, long scratchBytes) {
+        Assert.assertEquals(algorithm, metrics.getAlgorithm());
+        Assert.assertEquals(length, metrics.getLength());
+        Assert.assertEquals(algorithm, comparisons, metrics.getComparisons());
+        Assert.assertEquals(algorithm, moves, metrics.getMoves());
+        Assert.assertEquals(algorithm, scratchBytes, metrics.getScratchBytes());
+    }
+}
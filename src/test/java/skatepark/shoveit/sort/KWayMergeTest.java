@@ -0,0 +1,130 @@
+package skatepark.shoveit.sort;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class KWayMergeTest {
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(4);
+    private static final ForkJoinPool WIDE_POOL = new ForkJoinPool(7);
+
+    private final KWayMerge[] merges = {new KWayMerge(), new KWayMerge(POOL, 100), new KWayMerge(WIDE_POOL, 1)};
+
+    @AfterClass
+    public static void shutdown() {
+        POOL.shutdown();
+        WIDE_POOL.shutdown();
+    }
+
+    @Test
+    public void testPrimitives() {
+        Random random = new Random(1);
+        for (int k : new int[]{1, 2, 3, 7, 16, 33}) {
+            for (int bound : new int[]{4, Integer.MAX_VALUE}) {
+                int[][] ints = new int[k][];
+                long[][] longs = new long[k][];
+                for (int i = 0; i < k; i++) {
+                    // some inputs are empty
+                    ints[i] = random.ints(random.nextInt(4) == 0 ? 0 : random.nextInt(2000), -bound, bound)
+                            .sorted().toArray();
+                    longs[i] = Arrays.stream(ints[i]).asLongStream().map(value -> value * 3L << 20).toArray();
+                }
+                int[] expectedInts = Arrays.stream(ints).flatMapToInt(Arrays::stream).sorted().toArray();
+                long[] expectedLongs = Arrays.stream(longs).flatMapToLong(Arrays::stream).sorted().toArray();
+
+                for (KWayMerge merge : merges) {
+                    Assert.assertArrayEquals(expectedInts, merge.merge(ints));
+                    Assert.assertArrayEquals(expectedLongs, merge.merge(longs));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testStable() {
+        Random random = new Random(2);
+        int[][][] inputs = new int[9][][];
+        List<int[]> all = new ArrayList<>();
+        for (int i = 0; i < inputs.length; i++) {
+            inputs[i] = new int[random.nextInt(3000)][];
+            for (int j = 0; j < inputs[i].length; j++) {
+                // the second value orders the whole input, first by input and then by index
+                inputs[i][j] = new int[]{random.nextInt(20), i * 10000 + j};
+            }
+            Arrays.sort(inputs[i], Comparator.comparingInt(pair -> pair[0]));
+            all.addAll(Arrays.asList(inputs[i]));
+        }
+        all.sort(Comparator.comparingInt(pair -> pair[0]));
+
+        for (KWayMerge merge : merges) {
+            int[][] merged = merge.merge(inputs, Comparator.comparingInt(pair -> pair[0]));
+            Assert.assertEquals(all.size(), merged.length);
+            for (int i = 0; i < merged.length; i++) {
+                Assert.assertSame(all.get(i), merged[i]);
+            }
+        }
+    }
+
+    @Test
+    public void testNaturalOrderAndOffset() {
+        Integer[][] inputs = {{1, 4, 9}, {}, {2, 3, 10, 11}, {0}};
+        Integer[] output = new Integer[12];
+        for (KWayMerge merge : merges) {
+            Arrays.fill(output, -1);
+            merge.merge(inputs, output, 2, null);
+            Assert.assertArrayEquals(new Integer[]{-1, -1, 0, 1, 2, 3, 4, 9, 10, 11, -1, -1}, output);
+        }
+        try {
+            new KWayMerge().merge(inputs, output, 5, null);
+            Assert.fail();
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+        Assert.assertEquals(0, new KWayMerge().merge(new int[0][]).length);
+    }
+
+    @Test
+    public void testIterators() {
+        Random random = new Random(3);
+        List<List<Integer>> inputs = new ArrayList<>();
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            List<Integer> input = new ArrayList<>();
+            random.ints(random.nextInt(500), 0, 1000).sorted().forEach(input::add);
+            inputs.add(input);
+            expected.addAll(input);
+        }
+        Collections.sort(expected);
+        // an empty input comes first
+        inputs.add(0, new ArrayList<>());
+
+        List<Iterator<Integer>> iterators = new ArrayList<>();
+        for (List<Integer> input : inputs) {
+            iterators.add(input.iterator());
+        }
+        Iterator<Integer> merged = KWayMerge.merge(iterators, null);
+        List<Integer> values = new ArrayList<>();
+        merged.forEachRemaining(values::add);
+
+        Assert.assertEquals(expected, values);
+        Assert.assertFalse(merged.hasNext());
+        try {
+            merged.next();
+            Assert.fail();
+        } catch (NoSuchElementException e) {
+            // expected
+        }
+        Assert.assertFalse(KWayMerge.merge(Collections.<Iterator<Integer>>emptyList(), null).hasNext());
+    }
+}
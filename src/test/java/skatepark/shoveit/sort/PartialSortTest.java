@@ -0,0 +1,139 @@
+package skatepark.shoveit.sort;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class PartialSortTest {
+
+    private final PartialSort partialSort = new PartialSort();
+
+    @Test
+    public void testNthElement() {
+        Random random = new Random(1);
+        for (int[] shape : shapes(random)) {
+            int[] expected = Arrays.copyOf(shape, shape.length);
+            Arrays.sort(expected);
+            for (int n : new int[]{0, shape.length / 3, shape.length / 2, shape.length - 1}) {
+                int[] ints = Arrays.copyOf(shape, shape.length);
+                Assert.assertEquals(expected[n], partialSort.select(ints, n));
+                assertPartitioned(ints, n);
+
+                long[] longs = Arrays.stream(shape).asLongStream().toArray();
+                Assert.assertEquals(expected[n], partialSort.select(longs, n));
+
+                double[] doubles = Arrays.stream(shape).asDoubleStream().toArray();
+                Assert.assertEquals(expected[n], partialSort.select(doubles, n), 0);
+
+                Integer[] boxed = Arrays.stream(shape).boxed().toArray(Integer[]::new);
+                Assert.assertEquals(expected[n], (int) partialSort.select(boxed, n, null));
+                Assert.assertEquals(expected[shape.length - 1 - n],
+                        (int) partialSort.select(boxed, n, Comparator.reverseOrder()));
+            }
+        }
+    }
+
+    @Test
+    public void testMedianOfMedians() {
+        // without any round of median of 3 every pivot is a median of medians
+        Random random = new Random(2);
+        for (int[] shape : shapes(random)) {
+            int[] expected = Arrays.copyOf(shape, shape.length);
+            Arrays.sort(expected);
+            int n = shape.length / 2;
+
+            int[] ints = Arrays.copyOf(shape, shape.length);
+            PartialSort.select(ints, 0, ints.length, n, 0);
+            Assert.assertEquals(expected[n], ints[n]);
+            assertPartitioned(ints, n);
+
+            Integer[] boxed = Arrays.stream(shape).boxed().toArray(Integer[]::new);
+            PartialSort.select(boxed, 0, boxed.length, n, null, 0);
+            Assert.assertEquals(expected[n], (int) boxed[n]);
+        }
+    }
+
+    @Test
+    public void testDoubleTotalOrder() {
+        double[] values = {3.0, Double.NaN, -0.0, 0.0, Double.NEGATIVE_INFINITY, -1.5, Double.POSITIVE_INFINITY};
+        double[] expected = Arrays.copyOf(values, values.length);
+        Arrays.sort(expected);
+        for (int n = 0; n < values.length; n++) {
+            double[] doubles = Arrays.copyOf(values, values.length);
+            Assert.assertEquals(Double.doubleToRawLongBits(expected[n]),
+                    Double.doubleToRawLongBits(partialSort.select(doubles, n)));
+        }
+    }
+
+    @Test
+    public void testPartialSort() {
+        Random random = new Random(3);
+        int[] shape = random.ints(10000, 0, 500).toArray();
+        int[] expected = Arrays.copyOf(shape, shape.length);
+        Arrays.sort(expected);
+        for (int k : new int[]{0, 1, 10, 5000, 10000}) {
+            int[] ints = Arrays.copyOf(shape, shape.length);
+            partialSort.partialSort(ints, k);
+            Assert.assertArrayEquals(Arrays.copyOf(expected, k), Arrays.copyOf(ints, k));
+
+            String[] strings = Arrays.stream(shape).mapToObj(i -> String.format("%04d", i)).toArray(String[]::new);
+            partialSort.partialSort(strings, k, null);
+            for (int i = 0; i < k; i++) {
+                Assert.assertEquals(expected[i], Integer.parseInt(strings[i]));
+            }
+        }
+        try {
+            partialSort.partialSort(new int[3], 4);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testTopK() {
+        Random random = new Random(4);
+        List<int[]> pairs = IntStream.range(0, 100000).mapToObj(i -> new int[]{random.nextInt(1000), i})
+                .collect(Collectors.toList());
+        Comparator<int[]> byKey = Comparator.comparingInt(pair -> pair[0]);
+        List<int[]> sorted = pairs.stream().sorted(byKey).collect(Collectors.toList());
+        List<int[]> reversed = pairs.stream().sorted(byKey.reversed()).collect(Collectors.toList());
+
+        for (int k : new int[]{0, 1, 7, 1000, 200000}) {
+            List<int[]> expected = sorted.subList(0, Math.min(k, sorted.size()));
+            Assert.assertEquals(expected, partialSort.topK(pairs.iterator(), k, byKey));
+            Assert.assertEquals(expected, partialSort.topK(pairs.stream(), k, byKey));
+            // ties in encounter order across the heaps of every thread
+            Assert.assertEquals(expected, pairs.parallelStream().collect(partialSort.topK(k, byKey)));
+
+            List<int[]> largest = reversed.subList(0, Math.min(k, reversed.size()));
+            Assert.assertEquals(largest, partialSort.topK(pairs.iterator(), k, byKey.reversed()));
+        }
+        Assert.assertEquals(Arrays.asList(1, 2, 3),
+                partialSort.topK(Arrays.asList(5, 3, 1, 4, 2).iterator(), 3, null));
+    }
+
+    private static int[][] shapes(Random random) {
+        int size = 5000;
+        int[] sorted = IntStream.range(0, size).toArray();
+        int[] reversed = IntStream.range(0, size).map(i -> size - i).toArray();
+        int[] organPipe = IntStream.range(0, size).map(i -> Math.min(i, size - i)).toArray();
+        return new int[][]{random.ints(size).toArray(), random.ints(size, 0, 4).toArray(), sorted, reversed,
+                organPipe, new int[size], {7}, random.ints(17).toArray()};
+    }
+
+    private static void assertPartitioned(int[] values, int n) {
+        for (int i = 0; i < n; i++) {
+            Assert.assertTrue(values[i] <= values[n]);
+        }
+        for (int i = n + 1; i < values.length; i++) {
+            Assert.assertTrue(values[i] >= values[n]);
+        }
+    }
+}
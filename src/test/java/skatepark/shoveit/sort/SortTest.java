@@ -4,6 +4,9 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 public class SortTest {
 
@@ -17,7 +20,8 @@ public class SortTest {
             {4, 5, 7, 3, 1, 234, 67, 34, 12, 565, 8, 9, 0, 4, 2, 8, 9, 4, 4, 4, 4, 4, 6, 7, 400}
     };
 
-    private ISort[] algorithms = {new SelectionSort(), new MergeSort(), new BubbleSort(), new InsertionSort()};
+    private ISort[] algorithms = {new SelectionSort(), new MergeSort(), new BubbleSort(), new InsertionSort(),
+            new MergeSort(ForkJoinPool.commonPool(), 2), new TimSort()};
 
     @Test
     public void testAllInputs() {
@@ -34,4 +38,353 @@ public class SortTest {
             }
         }
     }
+
+    @Test
+    public void testPrimitiveInputs() {
+        for (ISort algorithm : algorithms) {
+            for (Integer[] input : inputs) {
+                int[] ints = Arrays.stream(input).mapToInt(Integer::intValue).toArray();
+                long[] longs = Arrays.stream(input).mapToLong(Integer::longValue).toArray();
+                double[] doubles = Arrays.stream(input).mapToDouble(Integer::doubleValue).toArray();
+
+                int[] expectedInts = Arrays.copyOf(ints, ints.length);
+                long[] expectedLongs = Arrays.copyOf(longs, longs.length);
+                double[] expectedDoubles = Arrays.copyOf(doubles, doubles.length);
+                Arrays.sort(expectedInts);
+                Arrays.sort(expectedLongs);
+                Arrays.sort(expectedDoubles);
+
+                algorithm.sort(ints);
+                algorithm.sort(longs);
+                algorithm.sort(doubles);
+
+                String name = algorithm.getClass().getSimpleName();
+                Assert.assertArrayEquals(name, expectedInts, ints);
+                Assert.assertArrayEquals(name, expectedLongs, longs);
+                Assert.assertArrayEquals(name, expectedDoubles, doubles, 0);
+            }
+        }
+    }
+
+    @Test
+    public void testDoubleTotalOrder() {
+        double[] input = {3.0, Double.NaN, -0.0, 0.0, Double.NEGATIVE_INFINITY, -1.5, Double.POSITIVE_INFINITY};
+        double[] expected = Arrays.copyOf(input, input.length);
+        Arrays.sort(expected);
+
+        for (ISort algorithm : algorithms) {
+            double[] values = Arrays.copyOf(input, input.length);
+            algorithm.sort(values);
+            for (int i = 0; i < values.length; i++) {
+                Assert.assertEquals(algorithm.getClass().getSimpleName(),
+                        Double.doubleToRawLongBits(expected[i]), Double.doubleToRawLongBits(values[i]));
+            }
+        }
+    }
+
+    @Test
+    public void testKeyExtractors() {
+        for (ISort algorithm : algorithms) {
+            for (Integer[] input : inputs) {
+                String[] expected = Arrays.stream(input).sorted().map(String::valueOf).toArray(String[]::new);
+
+                String[] values = Arrays.stream(input).map(String::valueOf).toArray(String[]::new);
+                algorithm.sortByInt(values, Integer::parseInt);
+                Assert.assertArrayEquals(algorithm.getClass().getSimpleName(), expected, values);
+
+                values = Arrays.stream(input).map(String::valueOf).toArray(String[]::new);
+                algorithm.sortByLong(values, Long::parseLong);
+                Assert.assertArrayEquals(algorithm.getClass().getSimpleName(), expected, values);
+
+                values = Arrays.stream(input).map(String::valueOf).toArray(String[]::new);
+                algorithm.sortByDouble(values, Double::parseDouble);
+                Assert.assertArrayEquals(algorithm.getClass().getSimpleName(), expected, values);
+            }
+        }
+    }
+
+    @Test
+    public void testParallelMergeSortPrimitives() {
+        Random random = new Random(11);
+        int[] ints = random.ints(200000).toArray();
+        long[] longs = random.longs(200000).toArray();
+        double[] doubles = random.doubles(200000).toArray();
+        int[] expectedInts = Arrays.copyOf(ints, ints.length);
+        long[] expectedLongs = Arrays.copyOf(longs, longs.length);
+        double[] expectedDoubles = Arrays.copyOf(doubles, doubles.length);
+        Arrays.sort(expectedInts);
+        Arrays.sort(expectedLongs);
+        Arrays.sort(expectedDoubles);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            MergeSort algorithm = new MergeSort(pool, 1000);
+            algorithm.sort(ints);
+            algorithm.sort(longs);
+            algorithm.sort(doubles);
+        } finally {
+            pool.shutdown();
+        }
+
+        Assert.assertArrayEquals(expectedInts, ints);
+        Assert.assertArrayEquals(expectedLongs, longs);
+        Assert.assertArrayEquals(expectedDoubles, doubles, 0);
+    }
+
+    @Test
+    public void testTimSortShapes() {
+        Random random = new Random(3);
+        int size = 100000;
+        int[][] shapes = new int[5][size];
+        for (int i = 0; i < size; i++) {
+            shapes[0][i] = random.nextInt();
+            shapes[1][i] = i;
+            shapes[2][i] = size - i;
+            shapes[3][i] = random.nextInt(4);
+            shapes[4][i] = (i / 1000) % 2 == 0 ? i : -i;
+        }
+        for (int[] shape : shapes) {
+            int[] ints = Arrays.copyOf(shape, size);
+            long[] longs = Arrays.stream(shape).asLongStream().toArray();
+            double[] doubles = Arrays.stream(shape).asDoubleStream().toArray();
+            Integer[] boxed = Arrays.stream(shape).boxed().toArray(Integer[]::new);
+
+            int[] expected = Arrays.copyOf(shape, size);
+            Arrays.sort(expected);
+
+            new TimSort().sort(ints);
+            new TimSort().sort(longs);
+            new TimSort().sort(doubles);
+            new TimSort().sort(boxed);
+
+            Assert.assertArrayEquals(expected, ints);
+            Assert.assertArrayEquals(Arrays.stream(expected).asLongStream().toArray(), longs);
+            Assert.assertArrayEquals(Arrays.stream(expected).asDoubleStream().toArray(), doubles, 0);
+            Assert.assertArrayEquals(Arrays.stream(expected).boxed().toArray(Integer[]::new), boxed);
+        }
+    }
+
+    @Test
+    public void testTimSortIsAdaptive() {
+        Integer[] sorted = new Integer[100000];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = i;
+        }
+        Integer[] reversed = new Integer[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            reversed[i] = sorted.length - i;
+        }
+
+        for (Integer[] input : new Integer[][]{sorted, reversed}) {
+            int[] comparisons = new int[1];
+            Comparator<Integer> counting = (a, b) -> {
+                comparisons[0]++;
+                return a.compareTo(b);
+            };
+            new TimSort().sort(Arrays.copyOf(input, input.length), counting);
+            Assert.assertEquals(input.length - 1, comparisons[0]);
+        }
+    }
+
+    @Test
+    public void testEmptyInput() {
+        for (ISort algorithm : algorithms) {
+            Integer[] values = {};
+            algorithm.sort(values);
+            Assert.assertEquals(0, values.length);
+        }
+    }
+
+    @Test
+    public void testParallelMergeSort() {
+        Random random = new Random(42);
+        Integer[] values = new Integer[200000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextInt();
+        }
+        Integer[] expected = Arrays.copyOf(values, values.length);
+        Arrays.sort(expected);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            new MergeSort(pool, 1000).sort(values);
+        } finally {
+            pool.shutdown();
+        }
+
+        Assert.assertArrayEquals(expected, values);
+    }
+
+    @Test
+    public void testMergeSortIsStable() {
+        Random random = new Random(7);
+        int[][] pairs = new int[50000][];
+        for (int i = 0; i < pairs.length; i++) {
+            pairs[i] = new int[]{random.nextInt(100), i};
+        }
+        Comparator<int[]> byKey = Comparator.comparingInt(pair -> pair[0]);
+
+        for (ISort algorithm : new ISort[]{new MergeSort(), new MergeSort(ForkJoinPool.commonPool(), 64),
+                new TimSort()}) {
+            int[][] values = Arrays.copyOf(pairs, pairs.length);
+            algorithm.sort(values, byKey);
+            for (int i = 1; i < values.length; i++) {
+                Assert.assertTrue(values[i - 1][0] <= values[i][0]);
+                if (values[i - 1][0] == values[i][0]) {
+                    Assert.assertTrue(values[i - 1][1] < values[i][1]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testRadixSortPrimitives() {
+        Random random = new Random(5);
+        RadixSort radixSort = new RadixSort();
+        for (Integer[] input : inputs) {
+            int[] ints = Arrays.stream(input).mapToInt(Integer::intValue).toArray();
+            int[] expected = Arrays.copyOf(ints, ints.length);
+            Arrays.sort(expected);
+            radixSort.sort(ints);
+            Assert.assertArrayEquals(expected, ints);
+        }
+        int[][] intShapes = {random.ints(100000).toArray(), random.ints(100000, -300, 300).toArray(),
+                random.ints(1000, 1 << 20, (1 << 20) + 16).toArray(), new int[0],
+                {Integer.MIN_VALUE, Integer.MAX_VALUE, -1, 0, 1, Integer.MIN_VALUE}};
+        for (int[] shape : intShapes) {
+            int[] ints = Arrays.copyOf(shape, shape.length);
+            int[] expected = Arrays.copyOf(shape, shape.length);
+            Arrays.sort(expected);
+            radixSort.sort(ints);
+            Assert.assertArrayEquals(expected, ints);
+        }
+        long[][] longShapes = {random.longs(100000).toArray(), random.longs(100000, -300, 300).toArray(),
+                {Long.MIN_VALUE, Long.MAX_VALUE, -1, 0, 1, Long.MAX_VALUE}};
+        for (long[] shape : longShapes) {
+            long[] longs = Arrays.copyOf(shape, shape.length);
+            long[] expected = Arrays.copyOf(shape, shape.length);
+            Arrays.sort(expected);
+            radixSort.sort(longs);
+            Assert.assertArrayEquals(expected, longs);
+        }
+    }
+
+    @Test
+    public void testRadixSortIsStable() {
+        Random random = new Random(9);
+        int[][] pairs = new int[50000][];
+        for (int i = 0; i < pairs.length; i++) {
+            pairs[i] = new int[]{random.nextInt(1000) - 500, i};
+        }
+        RadixSort radixSort = new RadixSort();
+
+        int[][] values = Arrays.copyOf(pairs, pairs.length);
+        radixSort.sortByInt(values, pair -> pair[0]);
+        assertStable(values);
+
+        values = Arrays.copyOf(pairs, pairs.length);
+        radixSort.sortByLong(values, pair -> (long) pair[0] << 40);
+        assertStable(values);
+    }
+
+    @Test
+    public void testRadixSortStrings() {
+        Random random = new Random(13);
+        String[] words = new String[20000];
+        for (int i = 0; i < words.length; i++) {
+            StringBuilder word = new StringBuilder(i % 3 == 0 ? "shared/common/prefix/" : "");
+            int length = random.nextInt(12);
+            for (int j = 0; j < length; j++) {
+                // mostly ASCII, sometimes beyond, so high bytes differ too
+                int character = random.nextInt(8) == 0 ? 0x100 + random.nextInt(0x3000) : 'a' + random.nextInt(4);
+                word.append((char) character);
+            }
+            words[i] = word.toString();
+        }
+        String[] small = {"b", "", "ab", "a", "\u0661", "\uff11", "abc", "", "a"};
+
+        for (boolean stable : new boolean[]{true, false}) {
+            RadixSort radixSort = new RadixSort(stable);
+            for (String[] input : new String[][]{words, small, {}, {"x"}}) {
+                String[] values = Arrays.copyOf(input, input.length);
+                String[] expected = Arrays.copyOf(input, input.length);
+                Arrays.sort(expected);
+                radixSort.sort(values);
+                Assert.assertArrayEquals(expected, values);
+            }
+        }
+
+        // equal strings which are distinct objects keep their order
+        String[] copies = new String[1000];
+        for (int i = 0; i < copies.length; i++) {
+            copies[i] = new String(i % 2 == 0 ? "same" : "other");
+        }
+        String[] values = Arrays.copyOf(copies, copies.length);
+        new RadixSort().sort(values);
+        int next = 0;
+        for (String expected : new String[]{"other", "same"}) {
+            for (String copy : copies) {
+                if (copy.equals(expected)) {
+                    Assert.assertSame(copy, values[next++]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testCountingSort() {
+        Random random = new Random(17);
+        int[] ints = random.ints(100000, -50, 50).toArray();
+        int[] expected = Arrays.copyOf(ints, ints.length);
+        Arrays.sort(expected);
+        new CountingSort(-50, 49).sort(ints);
+        Assert.assertArrayEquals(expected, ints);
+
+        int[][] pairs = new int[50000][];
+        for (int i = 0; i < pairs.length; i++) {
+            pairs[i] = new int[]{random.nextInt(1000), i};
+        }
+        int[][] values = Arrays.copyOf(pairs, pairs.length);
+        new CountingSort(0, 999).sortByKey(values, pair -> pair[0]);
+        assertStable(values);
+
+        values = Arrays.copyOf(pairs, pairs.length);
+        new CountingSort(0, 999, false).sortByKey(values, pair -> pair[0]);
+        for (int i = 1; i < values.length; i++) {
+            Assert.assertTrue(values[i - 1][0] <= values[i][0]);
+        }
+        Assert.assertEquals(pairs.length, Arrays.stream(values).mapToInt(pair -> pair[1]).distinct().count());
+    }
+
+    @Test
+    public void testCountingSortDomain() {
+        int[] ints = {3, 1, 2};
+        try {
+            new CountingSort(1, 2).sort(ints);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            Assert.assertArrayEquals(new int[]{3, 1, 2}, ints);
+        }
+        try {
+            new CountingSort(Integer.MIN_VALUE, Integer.MAX_VALUE);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            new CountingSort(1, 0);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    private static void assertStable(int[][] values) {
+        for (int i = 1; i < values.length; i++) {
+            Assert.assertTrue(values[i - 1][0] <= values[i][0]);
+            if (values[i - 1][0] == values[i][0]) {
+                Assert.assertTrue(values[i - 1][1] < values[i][1]);
+            }
+        }
+    }
 }
@@ -0,0 +1,96 @@
+package skatepark.shoveit.tree;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TreeSet;
+
+public class BTreeTest {
+
+    @Test
+    public void testSize() {
+        BTree<String> tree = new BTree<>();
+        Assert.assertTrue(tree.isEmpty());
+
+        Assert.assertTrue(tree.add("b"));
+        Assert.assertTrue(tree.add("a"));
+        Assert.assertFalse(tree.add("b"));
+        Assert.assertEquals(2, tree.size());
+        Assert.assertEquals("a", tree.min());
+        Assert.assertEquals("b", tree.max());
+
+        Assert.assertTrue(tree.remove("a"));
+        Assert.assertFalse(tree.remove("a"));
+        Assert.assertFalse(tree.contains("a"));
+        Assert.assertEquals(1, tree.size());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testMinOfEmptyTree() {
+        new IntBTree().min();
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testMaxOfEmptyTree() {
+        new LongBTree().max();
+    }
+
+    @Test
+    public void testHeight() {
+        IntBTree tree = new IntBTree();
+        for (int value = 0; value < 1000000; value++) {
+            tree.add(value);
+        }
+        Assert.assertEquals(1000000, tree.size());
+        Assert.assertTrue(tree.height() <= 5);
+        Assert.assertEquals(0, tree.min());
+        Assert.assertEquals(999999, tree.max());
+
+        for (int value = 0; value < 1000000; value++) {
+            Assert.assertTrue(tree.remove(value));
+        }
+        Assert.assertTrue(tree.isEmpty());
+        Assert.assertEquals(1, tree.height());
+    }
+
+    @Test
+    public void testAgainstTreeSet() {
+        Random random = new Random(17);
+        BTree<Integer> tree = new BTree<>();
+        IntBTree ints = new IntBTree();
+        LongBTree longs = new LongBTree(10);
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int round = 0; round < 20; round++) {
+            // grow and shrink in turns so nodes get split, merged and recycled
+            int bound = round % 2 == 0 ? 3 : 1;
+            for (int i = 0; i < 20000; i++) {
+                int value = random.nextInt(10000) - 5000;
+                boolean add = random.nextInt(4) < bound;
+                long wide = (long) value << 20;
+                Assert.assertEquals(add ? expected.add(value) : expected.remove(value),
+                        add ? tree.add(value) : tree.remove(value));
+                Assert.assertEquals(expected.size(), tree.size());
+                Assert.assertEquals(add ? !ints.contains(value) : ints.contains(value),
+                        add ? ints.add(value) : ints.remove(value));
+                Assert.assertEquals(add ? !longs.contains(wide) : longs.contains(wide),
+                        add ? longs.add(wide) : longs.remove(wide));
+            }
+            Assert.assertEquals(expected.size(), ints.size());
+            Assert.assertEquals(expected.size(), longs.size());
+            for (int value = -5000; value < 5000; value++) {
+                boolean contained = expected.contains(value);
+                Assert.assertEquals(contained, tree.contains(value));
+                Assert.assertEquals(contained, ints.contains(value));
+                Assert.assertEquals(contained, longs.contains((long) value << 20));
+            }
+            if (!expected.isEmpty()) {
+                Assert.assertEquals(expected.first(), tree.min());
+                Assert.assertEquals(expected.last(), tree.max());
+                Assert.assertEquals((int) expected.first(), ints.min());
+                Assert.assertEquals((long) expected.last() << 20, longs.max());
+            }
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package skatepark.shoveit.tree;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class ConcurrentTreeSetTest {
+
+    @Test
+    public void testSingleThread() {
+        ConcurrentTreeSet<Integer> set = new ConcurrentTreeSet<>();
+        Assert.assertTrue(set.isEmpty());
+
+        Assert.assertTrue(set.add(5));
+        Assert.assertTrue(set.add(1));
+        Assert.assertTrue(set.add(9));
+        Assert.assertFalse(set.add(5));
+
+        Assert.assertEquals(3, set.size());
+        Assert.assertTrue(set.contains(9));
+        Assert.assertFalse(set.contains(4));
+        Assert.assertEquals(1, (int) set.min());
+        Assert.assertEquals(9, (int) set.max());
+        Assert.assertEquals(1, set.rank(5));
+        Assert.assertEquals(2, set.count(1, 9));
+
+        Assert.assertTrue(set.remove(5));
+        Assert.assertFalse(set.remove(5));
+        Assert.assertFalse(set.contains(5));
+        Assert.assertEquals(2, set.size());
+    }
+
+    @Test
+    public void testConcurrentWriters() throws Exception {
+        ConcurrentTreeSet<Integer> set = new ConcurrentTreeSet<>();
+        int threads = 4;
+        int perThread = 20000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int offset = t;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    Assert.assertTrue(set.add(i * threads + offset));
+                }
+                // every other value goes again
+                for (int i = 0; i < perThread; i += 2) {
+                    Assert.assertTrue(set.remove(i * threads + offset));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        Assert.assertEquals(threads * perThread / 2, set.size());
+        for (int value = 0; value < threads * perThread; value++) {
+            Assert.assertEquals((value / threads) % 2 == 1, set.contains(value));
+        }
+    }
+
+    @Test
+    public void testReadersDuringWrites() throws Exception {
+        ConcurrentTreeSet<Integer> set = new ConcurrentTreeSet<>();
+        // even values stay put while odd ones come and go
+        for (int value = 0; value < 10000; value += 2) {
+            set.add(value);
+        }
+        AtomicBoolean done = new AtomicBoolean();
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        Future<?> writer = executor.submit(() -> {
+            for (int round = 0; round < 20; round++) {
+                for (int value = 1; value < 10000; value += 2) {
+                    set.add(value);
+                }
+                for (int value = 1; value < 10000; value += 2) {
+                    set.remove(value);
+                }
+            }
+            done.set(true);
+        });
+        List<Future<?>> readers = new ArrayList<>();
+        for (int r = 0; r < 2; r++) {
+            readers.add(executor.submit(() -> {
+                while (!done.get()) {
+                    for (int value = 0; value < 10000; value += 2) {
+                        Assert.assertTrue(set.contains(value));
+                    }
+                    int size = set.size();
+                    Assert.assertTrue(size >= 5000 && size <= 10000);
+                }
+            }));
+        }
+        writer.get();
+        for (Future<?> reader : readers) {
+            reader.get();
+        }
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        Assert.assertEquals(5000, set.size());
+    }
+
+    @Test
+    public void testCompareFailsDuringOptimisticRead() {
+        ConcurrentTreeSet<Key> set = new ConcurrentTreeSet<>();
+        for (int i = 0; i < 100; i += 2) {
+            set.add(new Key(i, null));
+        }
+        // the first comparison of the lookup runs while a writer changes the set, and fails as it would on a value
+        // seen half published
+        AtomicBoolean first = new AtomicBoolean(true);
+        Key probe = new Key(42, () -> {
+            if (first.getAndSet(false)) {
+                set.add(new Key(101, null));
+                throw new NullPointerException("half published");
+            }
+        });
+        Assert.assertTrue(set.contains(probe));
+        Assert.assertFalse(first.get());
+        Assert.assertEquals(51, set.size());
+    }
+
+    private static class Key implements Comparable<Key> {
+
+        private final int value;
+        private final Runnable onCompare;
+
+        Key(int value, Runnable onCompare) {
+            this.value = value;
+            this.onCompare = onCompare;
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            if (onCompare != null) {
+                onCompare.run();
+            }
+            return Integer.compare(value, other.value);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package skatepark.shoveit.tree;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.Stream;
+
+public class LongIndexTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testLookups() throws IOException {
+        long[] keys = randomKeys(100000, 1);
+        Path path = write(keys, LongIndexWriter.DEFAULT_BLOCK_SIZE);
+        LongIndex index = LongIndex.open(path);
+
+        Assert.assertEquals(keys.length, index.size());
+        assertLookups(keys, index, new Random(2));
+        // the temporary file of values is gone
+        try (Stream<Path> files = Files.list(folder.getRoot().toPath())) {
+            Assert.assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    public void testSmallBlocksAndSegments() throws IOException {
+        // 4 levels of blocks and 4 KB mappings exercise every path of a multi gigabyte index
+        long[] keys = randomKeys(20000, 3);
+        LongIndex index = LongIndex.open(write(keys, 16), 12);
+
+        Assert.assertEquals(4, LongIndex.levelSizes(keys.length, 16).length);
+        assertLookups(keys, index, new Random(4));
+    }
+
+    @Test
+    public void testTinyIndexes() throws IOException {
+        for (int size = 0; size <= 10; size++) {
+            long[] keys = randomKeys(size, size);
+            LongIndex index = LongIndex.open(write(keys, 2), 3);
+            Assert.assertEquals(size, index.size());
+            Assert.assertEquals(size == 0, index.isEmpty());
+            assertLookups(keys, index, new Random(size));
+        }
+    }
+
+    @Test
+    public void testKeyAt() throws IOException {
+        LongIndex index = LongIndex.open(write(new long[]{Long.MIN_VALUE, -1, 0, Long.MAX_VALUE}, 2));
+        Assert.assertEquals(Long.MIN_VALUE, index.keyAt(0));
+        Assert.assertEquals(Long.MAX_VALUE, index.keyAt(3));
+        Assert.assertEquals(~Long.MAX_VALUE, index.valueAt(3));
+        Assert.assertEquals(~0L, index.get(0, 42));
+        Assert.assertEquals(42, index.get(1, 42));
+        Assert.assertEquals(-2, index.indexOf(-2));
+        Assert.assertEquals(-4, index.indexOf(1));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testKeyAtOutOfBounds() throws IOException {
+        LongIndex.open(write(new long[]{1, 2}, 2)).keyAt(2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnsortedKeys() throws IOException {
+        try (LongIndexWriter writer = new LongIndexWriter(folder.newFile().toPath())) {
+            writer.add(2, 0);
+            writer.add(2, 0);
+        }
+    }
+
+    @Test
+    public void testFailedWriterPublishesNothing() throws IOException {
+        Path path = folder.newFile().toPath();
+        try (LongIndexWriter writer = new LongIndexWriter(path, 16)) {
+            for (long key = 0; key < 1000; key++) {
+                writer.add(key == 700 ? 3 : key, key);
+            }
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        assertNotAnIndex(path);
+
+        // the source of the keys fails, not the writer
+        try (LongIndexWriter writer = new LongIndexWriter(path, 16)) {
+            try {
+                for (long key = 0; key < 1000; key++) {
+                    if (key == 700) {
+                        throw new IllegalStateException("source failed");
+                    }
+                    writer.add(key, key);
+                }
+            } catch (IllegalStateException e) {
+                writer.abort();
+            }
+        }
+        assertNotAnIndex(path);
+        try (Stream<Path> files = Files.list(folder.getRoot().toPath())) {
+            Assert.assertEquals(0, files.count());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testNotAnIndex() throws IOException {
+        Path path = folder.newFile().toPath();
+        Files.write(path, new byte[LongIndex.HEADER_SIZE * 2]);
+        LongIndex.open(path);
+    }
+
+    @Test(expected = IOException.class)
+    public void testTruncatedIndex() throws IOException {
+        Path path = write(randomKeys(1000, 5), 16);
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 8));
+        LongIndex.open(path);
+    }
+
+    private static void assertNotAnIndex(Path path) {
+        try {
+            LongIndex.open(path);
+            Assert.fail();
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    /**
+     * Every key maps to its complement.
+     */
+    private Path write(long[] keys, int blockSize) throws IOException {
+        Path path = folder.newFile().toPath();
+        try (LongIndexWriter writer = new LongIndexWriter(path, blockSize)) {
+            for (long key : keys) {
+                writer.add(key, ~key);
+            }
+        }
+        return path;
+    }
+
+    private static long[] randomKeys(int size, long seed) {
+        return new Random(seed).longs(size * 2L).sorted().distinct().limit(size).toArray();
+    }
+
+    private static void assertLookups(long[] keys, LongIndex index, Random random) {
+        for (int i = 0; i < keys.length; i++) {
+            Assert.assertEquals(i, index.indexOf(keys[i]));
+            Assert.assertEquals(~keys[i], index.get(keys[i], 0));
+            Assert.assertEquals(keys[i], index.keyAt(i));
+        }
+        for (int i = 0; i < 10000; i++) {
+            // misses right after a key land between two keys of the same block
+            long key = random.nextLong();
+            if (keys.length > 0 && random.nextBoolean()) {
+                key = keys[random.nextInt(keys.length)] + 1;
+            }
+            Assert.assertEquals(Arrays.binarySearch(keys, key), index.indexOf(key));
+            Assert.assertEquals(Arrays.binarySearch(keys, key) >= 0, index.contains(key));
+        }
+    }
+}
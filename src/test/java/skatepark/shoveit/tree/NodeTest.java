@@ -3,6 +3,14 @@ package skatepark.shoveit.tree;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
 public class NodeTest {
 
     @Test
@@ -135,4 +143,134 @@ public class NodeTest {
         Assert.assertEquals(4, (int) node.min());
         Assert.assertEquals(5, (int) node.max());
     }
+
+    @Test
+    public void testRemoveRoot() {
+        Node<Integer> node = new Node<>(4);
+        node.add(2);
+        node.add(1);
+        Assert.assertEquals(3, node.size());
+
+        Assert.assertTrue(node.remove(4, node));
+        Assert.assertEquals(2, node.size());
+        Assert.assertFalse(node.contains(4));
+        Assert.assertEquals(2, (int) node.max());
+
+        Assert.assertFalse(node.remove(5, node));
+        Assert.assertEquals(2, node.size());
+
+        Assert.assertTrue(node.remove(2, node));
+        Assert.assertFalse(node.remove(1, node));
+        Assert.assertEquals(1, node.size());
+    }
+
+    @Test
+    public void testBulkBuild() {
+        List<Integer> values = new ArrayList<>();
+        for (int value = 0; value < 1000; value++) {
+            values.add(value);
+        }
+        Node<Integer> node = Node.of(values);
+        Assert.assertEquals(1000, node.size());
+        Assert.assertEquals(10, height(node));
+        Assert.assertEquals(500, node.getLeft().size() + 1);
+        for (int value = 0; value < 1000; value++) {
+            Assert.assertTrue(node.contains(value));
+        }
+        Assert.assertEquals(values, toList(node.iterator()));
+
+        node.add(1000);
+        Assert.assertTrue(node.remove(0, node));
+        Assert.assertEquals(1000, node.size());
+        Assert.assertEquals(1, (int) node.min());
+        Assert.assertEquals(1000, (int) node.max());
+    }
+
+    @Test
+    public void testBulkBuildWithDuplicates() {
+        Node<Integer> node = Node.of(Arrays.asList(1, 2, 2, 2, 2, 3));
+        Assert.assertEquals(Arrays.asList(1, 2, 2, 2, 2, 3), toList(node.iterator()));
+        Assert.assertEquals(Arrays.asList(2, 2, 2, 2), toList(node.iterator(2, 3)));
+        Assert.assertTrue(node.remove(2, node));
+        Assert.assertEquals(Arrays.asList(1, 2, 2, 2, 3), toList(node.iterator()));
+    }
+
+    @Test
+    public void testBulkBuildAllDuplicates() {
+        List<Integer> values = Collections.nCopies(100000, 7);
+        Node<Integer> node = Node.of(values);
+        // balanced like distinct values, ceil(log2(n + 1))
+        Assert.assertEquals(17, height(node));
+        Assert.assertEquals(values.size(), node.size());
+        Assert.assertTrue(node.contains(7));
+        Assert.assertFalse(node.contains(8));
+        Assert.assertEquals(values.size(), toList(node.iterator(7, 8)).size());
+        Assert.assertTrue(node.remove(7, node));
+        Assert.assertEquals(values.size() - 1, toList(node.iterator()).size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBulkBuildUnsorted() {
+        Node.of(Arrays.asList(1, 3, 2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBulkBuildEmpty() {
+        Node.of(Collections.<Integer>emptyList());
+    }
+
+    @Test
+    public void testIterators() {
+        Random random = new Random(5);
+        Node<Integer> node = new Node<>(random.nextInt(1000));
+        List<Integer> expected = new ArrayList<>();
+        expected.add(node.getValue());
+        for (int i = 0; i < 500; i++) {
+            int value = random.nextInt(1000);
+            node.add(value);
+            expected.add(value);
+        }
+        Collections.sort(expected);
+
+        Assert.assertEquals(expected, toList(node.iterator()));
+
+        List<Integer> reversed = new ArrayList<>(expected);
+        Collections.reverse(reversed);
+        Assert.assertEquals(reversed, toList(node.descendingIterator()));
+
+        for (int i = 0; i < 100; i++) {
+            int from = random.nextInt(1100) - 50;
+            int to = random.nextInt(1100) - 50;
+            List<Integer> range = new ArrayList<>();
+            for (int value : expected) {
+                if (value >= from && value < to) {
+                    range.add(value);
+                }
+            }
+            Assert.assertEquals(range, toList(node.iterator(from, to)));
+        }
+
+        int sum = 0;
+        for (int value : node) {
+            sum += value;
+        }
+        Assert.assertEquals(expected.stream().mapToInt(Integer::intValue).sum(), sum);
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testIteratorExhausted() {
+        Iterator<Integer> iterator = new Node<>(1).iterator(2, 3);
+        Assert.assertFalse(iterator.hasNext());
+        iterator.next();
+    }
+
+    private static List<Integer> toList(Iterator<Integer> iterator) {
+        List<Integer> values = new ArrayList<>();
+        iterator.forEachRemaining(values::add);
+        return values;
+    }
+
+    private static int height(Node<Integer> node) {
+        return node == null ? 0 : 1 + Math.max(height(node.getLeft()), height(node.getRight()));
+    }
 }
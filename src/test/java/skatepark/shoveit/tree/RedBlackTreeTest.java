@@ -0,0 +1,178 @@
+package skatepark.shoveit.tree;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TreeSet;
+
+public class RedBlackTreeTest {
+
+    @Test
+    public void testSize() {
+        RedBlackTree<Integer> tree = new RedBlackTree<>();
+        Assert.assertEquals(0, tree.size());
+        Assert.assertTrue(tree.isEmpty());
+
+        Assert.assertTrue(tree.add(4));
+        Assert.assertTrue(tree.add(2));
+        Assert.assertTrue(tree.add(6));
+        Assert.assertEquals(3, tree.size());
+
+        Assert.assertFalse(tree.add(2));
+        Assert.assertEquals(3, tree.size());
+    }
+
+    @Test
+    public void testContains() {
+        RedBlackTree<Integer> tree = new RedBlackTree<>();
+        Assert.assertFalse(tree.contains(4));
+
+        tree.add(4);
+        tree.add(2);
+        tree.add(6);
+        Assert.assertTrue(tree.contains(4));
+        Assert.assertTrue(tree.contains(2));
+        Assert.assertTrue(tree.contains(6));
+        Assert.assertFalse(tree.contains(3));
+    }
+
+    @Test
+    public void testMinMax() {
+        RedBlackTree<Integer> tree = new RedBlackTree<>();
+        tree.add(4);
+        Assert.assertEquals(4, (int) tree.min());
+        Assert.assertEquals(4, (int) tree.max());
+
+        tree.add(2);
+        tree.add(7);
+        tree.add(1);
+        Assert.assertEquals(1, (int) tree.min());
+        Assert.assertEquals(7, (int) tree.max());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testMinOfEmptyTree() {
+        new RedBlackTree<Integer>().min();
+    }
+
+    @Test
+    public void testRemove() {
+        RedBlackTree<Integer> tree = new RedBlackTree<>();
+        for (int value : new int[]{4, 2, 1, 3, 6, 5, 7}) {
+            tree.add(value);
+        }
+        Assert.assertTrue(tree.remove(4));
+        Assert.assertFalse(tree.remove(4));
+        Assert.assertEquals(6, tree.size());
+        Assert.assertFalse(tree.contains(4));
+
+        Assert.assertTrue(tree.remove(1));
+        Assert.assertEquals(2, (int) tree.min());
+        Assert.assertTrue(tree.remove(7));
+        Assert.assertEquals(6, (int) tree.max());
+        Assert.assertEquals(4, tree.size());
+    }
+
+    @Test
+    public void testSortedInputStaysBalanced() {
+        RedBlackTree<Integer> tree = new RedBlackTree<>();
+        int size = 1000000;
+        for (int i = 0; i < size; i++) {
+            tree.add(i);
+        }
+        Assert.assertEquals(size, tree.size());
+        Assert.assertTrue(tree.height() <= 2 * 32 - 2 * Integer.numberOfLeadingZeros(size + 1));
+        Assert.assertTrue(tree.contains(size - 1));
+        Assert.assertEquals(0, (int) tree.min());
+        Assert.assertEquals(size - 1, (int) tree.max());
+
+        for (int i = 0; i < size; i += 2) {
+            tree.remove(i);
+        }
+        Assert.assertEquals(size / 2, tree.size());
+        Assert.assertEquals(1, (int) tree.min());
+    }
+
+    @Test
+    public void testAgainstTreeSet() {
+        Random random = new Random(9);
+        RedBlackTree<Integer> tree = new RedBlackTree<>();
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int i = 0; i < 200000; i++) {
+            int value = random.nextInt(5000);
+            if (random.nextBoolean()) {
+                Assert.assertEquals(expected.add(value), tree.add(value));
+            } else {
+                Assert.assertEquals(expected.remove(value), tree.remove(value));
+            }
+            Assert.assertEquals(expected.size(), tree.size());
+            if (!expected.isEmpty()) {
+                Assert.assertEquals(expected.first(), tree.min());
+                Assert.assertEquals(expected.last(), tree.max());
+            }
+        }
+        for (int value = 0; value < 5000; value++) {
+            Assert.assertEquals(expected.contains(value), tree.contains(value));
+        }
+    }
+
+    @Test
+    public void testOrderStatistics() {
+        RedBlackTree<Integer> tree = new RedBlackTree<>();
+        for (int value : new int[]{40, 20, 60, 10, 30, 50, 70}) {
+            tree.add(value);
+        }
+        Assert.assertEquals(0, tree.rank(10));
+        Assert.assertEquals(0, tree.rank(5));
+        Assert.assertEquals(3, tree.rank(40));
+        Assert.assertEquals(4, tree.rank(45));
+        Assert.assertEquals(7, tree.rank(100));
+
+        Assert.assertEquals(10, (int) tree.select(0));
+        Assert.assertEquals(40, (int) tree.select(3));
+        Assert.assertEquals(70, (int) tree.select(6));
+
+        Assert.assertEquals(3, tree.count(20, 50));
+        Assert.assertEquals(7, tree.count(0, 100));
+        Assert.assertEquals(0, tree.count(50, 20));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testSelectOutOfBounds() {
+        RedBlackTree<Integer> tree = new RedBlackTree<>();
+        tree.add(1);
+        tree.select(1);
+    }
+
+    @Test
+    public void testOrderStatisticsAgainstTreeSet() {
+        Random random = new Random(13);
+        RedBlackTree<Integer> tree = new RedBlackTree<>();
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int round = 0; round < 50; round++) {
+            for (int i = 0; i < 2000; i++) {
+                int value = random.nextInt(3000);
+                if (random.nextInt(3) > 0) {
+                    tree.add(value);
+                    expected.add(value);
+                } else {
+                    tree.remove(value);
+                    expected.remove(value);
+                }
+            }
+            List<Integer> values = new ArrayList<>(expected);
+            Assert.assertEquals(values.size(), tree.size());
+            for (int rank = 0; rank < values.size(); rank++) {
+                Assert.assertEquals(values.get(rank), tree.select(rank));
+            }
+            int from = random.nextInt(3000);
+            int to = random.nextInt(3000);
+            Assert.assertEquals(expected.headSet(from).size(), tree.rank(from));
+            Assert.assertEquals(from < to ? expected.subSet(from, to).size() : 0, tree.count(from, to));
+        }
+    }
+}